@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reactive;
+
+import com.eliasnogueira.paymentservice.config.FraudCheckConfig;
+import com.eliasnogueira.paymentservice.dto.FraudCheckResponse;
+import com.eliasnogueira.paymentservice.model.Payment;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Fraud check on a bounded connection pool: a check waits for a free connection without holding a thread, and fails
+ * once {@code payment.reactive.fraud-pending-acquire} checks are already waiting.
+ */
+@Slf4j
+@Service
+public class ReactiveFraudCheckService {
+
+    private final WebClient webClient;
+    private final FraudCheckConfig config;
+    private final Duration timeout;
+
+    public ReactiveFraudCheckService(WebClient.Builder builder, FraudCheckConfig config, ReactiveConfig reactiveConfig) {
+        this.config = config;
+        this.timeout = Duration.ofMillis(config.getTimeout());
+        var connections = ConnectionProvider.builder("fraud-check")
+                .maxConnections(reactiveConfig.getFraudConnections())
+                .pendingAcquireMaxCount(reactiveConfig.getFraudPendingAcquire())
+                .pendingAcquireTimeout(timeout)
+                .build();
+        var httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getTimeout())
+                .responseTimeout(timeout);
+        this.webClient = builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    /**
+     * Whether the payment is fraudulent. A check that fails or times out counts as fraud, as in payment-service.
+     */
+    public Mono<Boolean> isFraudulent(Payment payment) {
+        var url = new StringBuilder(config.getUrl().length() + 64).append(config.getUrl()).append("/check?amount=");
+        payment.getAmount().appendTo(url).append("&transactionId=").append(payment.getTransactionId());
+
+        return webClient.get()
+                .uri(url.toString())
+                .header("X-API-KEY", config.getApiKey())
+                .retrieve()
+                .bodyToMono(FraudCheckResponse.class)
+                .map(FraudCheckResponse::isFraudulent)
+                .timeout(timeout)
+                .onErrorResume(exception -> {
+                    log.error("Fraud check failed for transaction {}: {}", payment.getTransactionId(),
+                            exception.getMessage());
+                    return Mono.just(true);
+                });
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reactive;
+
+import com.eliasnogueira.paymentservice.dto.PaymentRequest;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.dto.PaymentUpdateRequest;
+import com.eliasnogueira.paymentservice.etag.ETags;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * The {@code /api/payments} contract of payment-service. The list is streamed as the rows are read, so it carries
+ * no ETag; ask for {@code application/x-ndjson} to receive one payment per line.
+ */
+@RestController
+@RequestMapping("/api/payments")
+@RequiredArgsConstructor
+public class ReactivePaymentController {
+
+    private final ReactivePaymentService paymentService;
+
+    @PostMapping
+    public Mono<ResponseEntity<PaymentResponse>> createPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
+        return paymentService.createPayment(paymentRequest)
+                .map(payment -> ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(payment.getVersion())).body(payment));
+    }
+
+    @GetMapping("/{paymentId}")
+    public Mono<ResponseEntity<PaymentResponse>> getPayment(
+            @PathVariable UUID paymentId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return paymentService.getPaymentById(paymentId).map(payment -> {
+            var etag = ETags.of(payment.getVersion());
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<PaymentResponse>build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(payment);
+        });
+    }
+
+    @GetMapping
+    public Flux<PaymentResponse> getAllPayments() {
+        return paymentService.getAllPayments();
+    }
+
+    @PutMapping("/{paymentId}")
+    public Mono<ResponseEntity<PaymentResponse>> updatePayment(
+            @PathVariable UUID paymentId,
+            @Valid @RequestBody PaymentUpdateRequest updateRequest) {
+        return paymentService.updatePayment(paymentId, updateRequest)
+                .map(payment -> ResponseEntity.ok().eTag(ETags.of(payment.getVersion())).body(payment));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reactive;
+
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends payment events to the topic payment-service consumes, in the JSON it reads: the type header is the one its
+ * {@code JsonDeserializer} resolves the class from.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactivePaymentEventSender {
+    static final String TOPIC = "payment-events";
+    static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private static final byte[] TYPE_ID = PaymentEvent.class.getName().getBytes(StandardCharsets.UTF_8);
+
+    private final KafkaSender<String, byte[]> sender;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Completes once the broker acknowledged the event. A failed send is logged and completes too: as in
+     * payment-service, the payment was written and the request succeeds.
+     */
+    public Mono<Void> send(PaymentEvent event) {
+        return Mono.fromCallable(() -> toRecord(event))
+                .flatMap(record -> sender.send(Mono.just(record)).next())
+                .doOnNext(result -> log.info("Sent payment event for payment {} to offset {}",
+                        event.getPayment().getId(), result.recordMetadata().offset()))
+                .then()
+                .onErrorResume(exception -> {
+                    log.error("Error sending the topic: {}", exception.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private SenderRecord<String, byte[], Void> toRecord(PaymentEvent event) throws Exception {
+        var headers = new RecordHeaders().add(TYPE_ID_HEADER, TYPE_ID);
+        var record = new ProducerRecord<>(TOPIC, null, event.getPayment().getId().toString(),
+                objectMapper.writeValueAsBytes(event), headers);
+        return SenderRecord.create(record, null);
+    }
+}
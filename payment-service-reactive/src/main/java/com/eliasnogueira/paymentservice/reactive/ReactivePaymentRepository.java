@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reactive;
+
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * The payments table of payment-service, read and written with R2DBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactivePaymentRepository {
+    private static final String COLUMNS = "id, transaction_id, amount, status, created_at, updated_at";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Payment> insert(Payment payment) {
+        return databaseClient.sql("INSERT INTO payments (" + COLUMNS + ") "
+                        + "VALUES (:id, :transactionId, :amount, :status, :createdAt, :updatedAt)")
+                .bind("id", payment.getId())
+                .bind("transactionId", payment.getTransactionId())
+                .bind("amount", payment.getAmount().toBigDecimal())
+                .bind("status", payment.getStatus().name())
+                .bind("createdAt", toOffsetDateTime(payment.getCreatedAt()))
+                .bind("updatedAt", toOffsetDateTime(payment.getUpdatedAt()))
+                .then()
+                .thenReturn(payment);
+    }
+
+    public Mono<Payment> update(Payment payment) {
+        return databaseClient.sql("UPDATE payments SET status = :status, updated_at = :updatedAt WHERE id = :id")
+                .bind("status", payment.getStatus().name())
+                .bind("updatedAt", toOffsetDateTime(payment.getUpdatedAt()))
+                .bind("id", payment.getId())
+                .then()
+                .thenReturn(payment);
+    }
+
+    public Mono<Payment> findById(UUID id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments WHERE id = :id")
+                .bind("id", id)
+                .map(ReactivePaymentRepository::toPayment)
+                .one();
+    }
+
+    // rows are emitted as the subscriber requests them, so a slow client slows the read instead of filling memory
+    public Flux<Payment> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM payments")
+                .map(ReactivePaymentRepository::toPayment)
+                .all();
+    }
+
+    private static Payment toPayment(Readable row) {
+        return Payment.builder()
+                .id(row.get("id", UUID.class))
+                .transactionId(row.get("transaction_id", String.class))
+                .amount(Money.of(row.get("amount", BigDecimal.class)))
+                .status(PaymentStatus.valueOf(row.get("status", String.class)))
+                .createdAt(toInstant(row.get("created_at", OffsetDateTime.class)))
+                .updatedAt(toInstant(row.get("updated_at", OffsetDateTime.class)))
+                .build();
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static Instant toInstant(OffsetDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toInstant();
+    }
+}
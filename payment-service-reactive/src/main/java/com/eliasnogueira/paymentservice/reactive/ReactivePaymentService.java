@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reactive;
+
+import com.eliasnogueira.paymentservice.dto.PaymentRequest;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.dto.PaymentUpdateRequest;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.exceptions.PaymentNotFoundException;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactivePaymentService {
+
+    private final ReactivePaymentRepository paymentRepository;
+    private final ReactiveFraudCheckService fraudCheckService;
+    private final ReactivePaymentEventSender eventSender;
+
+    public Mono<PaymentResponse> createPayment(PaymentRequest paymentRequest) {
+        var now = Payment.now();
+        var payment = Payment.builder()
+                .id(UUID.randomUUID())
+                .transactionId(paymentRequest.getTransactionId())
+                .amount(paymentRequest.getAmount())
+                .status(PaymentStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        return paymentRepository.insert(payment)
+                .doOnNext(saved -> log.info("Payment created with ID: {}", saved.getId()))
+                .flatMap(saved -> send(PaymentEvent.EventType.CREATED, saved));
+    }
+
+    public Mono<PaymentResponse> getPaymentById(UUID paymentId) {
+        return find(paymentId).map(PaymentResponse::from);
+    }
+
+    public Flux<PaymentResponse> getAllPayments() {
+        return paymentRepository.findAll().map(PaymentResponse::from);
+    }
+
+    /**
+     * No connection is held while the fraud service answers: the payment is read, checked, then written.
+     */
+    public Mono<PaymentResponse> updatePayment(UUID paymentId, PaymentUpdateRequest updateRequest) {
+        return find(paymentId)
+                .flatMap(payment -> newStatus(payment, updateRequest.getStatus())
+                        .flatMap(status -> {
+                            payment.setStatus(status);
+                            payment.setUpdatedAt(Payment.now());
+                            return paymentRepository.update(payment);
+                        }))
+                .doOnNext(updated -> log.info("Payment updated with ID: {}, new status: {}", paymentId, updated.getStatus()))
+                .flatMap(updated -> send(PaymentEvent.EventType.UPDATED, updated));
+    }
+
+    // when updating to PAID, perform fraud check
+    private Mono<PaymentStatus> newStatus(Payment payment, PaymentStatus requested) {
+        if (requested != PaymentStatus.PAID) return Mono.just(requested);
+        return fraudCheckService.isFraudulent(payment)
+                .map(fraudulent -> fraudulent ? PaymentStatus.FRAUD : PaymentStatus.PAID);
+    }
+
+    private Mono<Payment> find(UUID paymentId) {
+        return paymentRepository.findById(paymentId)
+                .switchIfEmpty(Mono.error(() -> new PaymentNotFoundException("Payment not found with ID: " + paymentId)));
+    }
+
+    private Mono<PaymentResponse> send(PaymentEvent.EventType type, Payment payment) {
+        return eventSender.send(new PaymentEvent(Instant.now(), type, payment))
+                .thenReturn(PaymentResponse.from(payment));
+    }
+}
@@ -0,0 +1,11 @@
+-- the table payment-service's Hibernate mapping creates
+CREATE TABLE IF NOT EXISTS payments (
+    id UUID PRIMARY KEY,
+    transaction_id VARCHAR(255) NOT NULL UNIQUE,
+    amount NUMERIC(19, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    updated_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_payments_updated_at ON payments (updated_at);
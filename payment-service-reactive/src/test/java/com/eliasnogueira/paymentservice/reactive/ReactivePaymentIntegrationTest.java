@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reactive;
+
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// the fraud service is unreachable, so every payment moved to PAID is held as FRAUD
+@SpringBootTest(properties = "fraud.check.url=http://localhost:1/api/fraud")
+@AutoConfigureWebTestClient
+class ReactivePaymentIntegrationTest {
+
+    private static final ConfluentKafkaContainer KAFKA_CONTAINER =
+            new ConfluentKafkaContainer("confluentinc/cp-kafka:latest");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        KAFKA_CONTAINER.start();
+        registry.add("spring.kafka.bootstrap-servers", KAFKA_CONTAINER::getBootstrapServers);
+    }
+
+    @Test
+    @DisplayName("Should create a payment, answer its ETag with 304 and list it")
+    void shouldCreateAndReadPayment() {
+        var created = create("TXN-REACTIVE-" + UUID.randomUUID());
+        var etag = "\"" + Long.toHexString(created.getVersion()) + "\"";
+
+        webTestClient.get().uri("/api/payments/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody()
+                .jsonPath("$.transactionId").isEqualTo(created.getTransactionId())
+                .jsonPath("$.amount").isEqualTo(100.5)
+                .jsonPath("$.status").isEqualTo("PENDING");
+
+        webTestClient.get().uri("/api/payments/{id}", created.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get().uri("/api/payments")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PaymentResponse.class)
+                .value(payments -> assertThat(payments).extracting(PaymentResponse::getId).contains(created.getId()));
+    }
+
+    @Test
+    @DisplayName("Should hold a payment as FRAUD when the fraud check fails and publish both events")
+    void shouldUpdateAndPublishEvents() {
+        var created = create("TXN-REACTIVE-" + UUID.randomUUID());
+
+        webTestClient.put().uri("/api/payments/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"status\":\"PAID\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("FRAUD");
+
+        var events = new ArrayList<PaymentEvent>();
+        try (var consumer = consumer()) {
+            consumer.subscribe(List.of(ReactivePaymentEventSender.TOPIC));
+            await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+                for (var record : consumer.poll(Duration.ofMillis(500))) {
+                    assertThat(new String(record.headers().lastHeader(ReactivePaymentEventSender.TYPE_ID_HEADER).value(),
+                            StandardCharsets.UTF_8)).isEqualTo(PaymentEvent.class.getName());
+                    var event = objectMapper.readValue(record.value(), PaymentEvent.class);
+                    if (created.getId().equals(event.getPayment().getId())) events.add(event);
+                }
+                assertThat(events).extracting(PaymentEvent::getType).containsExactly(EventType.CREATED, EventType.UPDATED);
+            });
+        }
+        assertThat(events.getLast().getPayment().getStatus()).isEqualTo(PaymentStatus.FRAUD);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid payment and answer 404 for an unknown one")
+    void shouldRejectInvalidAndUnknownPayments() {
+        webTestClient.post().uri("/api/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"transactionId\":\"\",\"amount\":-1}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.transactionId").exists()
+                .jsonPath("$.amount").exists();
+
+        webTestClient.get().uri("/api/payments/{id}", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private PaymentResponse create(String transactionId) {
+        var response = webTestClient.post().uri("/api/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"transactionId\":\"" + transactionId + "\",\"amount\":100.50}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody(PaymentResponse.class)
+                .returnResult();
+        var payment = response.getResponseBody();
+        assertThat(payment).isNotNull();
+        var etag = response.getResponseHeaders().getETag();
+        payment.setVersion(Long.parseLong(etag.substring(1, etag.length() - 1), 16));
+        return payment;
+    }
+
+    private static KafkaConsumer<String, byte[]> consumer() {
+        return new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_CONTAINER.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, "reactive-test-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                new StringDeserializer(), new ByteArrayDeserializer());
+    }
+}
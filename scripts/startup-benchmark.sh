@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+#
+# Measures startup time and time to first request of the default build against the fast-startup mode
+# (Spring AOT-processed context + JDK AOT cache produced by a training run + fast-startup profile).
+#
+#   scripts/startup-benchmark.sh [runs]
+#
+# Requires JDK 24+. Results are written to target/startup-benchmark.csv.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+WORK_DIR="target/startup-benchmark"
+RESULTS="target/startup-benchmark.csv"
+DB_URL="jdbc:h2:file:./${WORK_DIR}/payments"
+LOG_STARTUP="-Dlogging.level.com.eliasnogueira.paymentservice.PaymentServiceApplication=INFO"
+
+rm -rf "${WORK_DIR}"
+mkdir -p "${WORK_DIR}"
+
+echo "Building the default and the AOT-processed jars"
+./mvnw -q -B package -DskipTests
+cp target/payment-service-*.jar "${WORK_DIR}/default.jar"
+./mvnw -q -B -Paot package -DskipTests
+java -Djarmode=tools -jar target/payment-service-*.jar extract --destination "${WORK_DIR}/aot"
+
+echo "Creating the schema once, as a migration would"
+java -Dspring.context.exit=onRefresh -jar "${WORK_DIR}/default.jar" \
+  --spring.profiles.active=h2 --spring.datasource.url="${DB_URL}" --spring.jpa.hibernate.ddl-auto=update
+
+echo "Training run for the JDK AOT cache"
+AOT_JAR="${WORK_DIR}/aot/payment-service-1.0.0-SNAPSHOT.jar"
+AOT_FLAGS="-Dspring.aot.enabled=true"
+java -XX:AOTMode=record -XX:AOTConfiguration="${WORK_DIR}/app.aotconf" ${AOT_FLAGS} -Dspring.context.exit=onRefresh \
+  -jar "${AOT_JAR}" --spring.profiles.active=h2,fast-startup --spring.datasource.url="${DB_URL}"
+java -XX:AOTMode=create -XX:AOTConfiguration="${WORK_DIR}/app.aotconf" -XX:AOTCache="${WORK_DIR}/app.aot" \
+  ${AOT_FLAGS} -jar "${AOT_JAR}"
+
+now_ms() {
+  date +%s%3N
+}
+
+# prints "<started in seconds>,<first request in ms>"
+measure() {
+  local log_file="${WORK_DIR}/run.log"
+  local start
+  start=$(now_ms)
+  "$@" > "${log_file}" 2>&1 &
+  local pid=$!
+
+  until curl -sf -o /dev/null "http://localhost:${PORT}/api/payments"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "Application exited, see ${log_file}" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  local first_request=$(( $(now_ms) - start ))
+
+  kill "${pid}"
+  wait "${pid}" || true
+
+  local started_in
+  started_in=$(grep -o 'Started PaymentServiceApplication in [0-9.]*' "${log_file}" | awk '{print $4}')
+  echo "${started_in},${first_request}"
+}
+
+echo "mode,run,started_in_seconds,first_request_ms" > "${RESULTS}"
+for run in $(seq 1 "${RUNS}"); do
+  echo "default,${run},$(measure java ${LOG_STARTUP} -jar "${WORK_DIR}/default.jar" \
+    --spring.profiles.active=h2 --spring.datasource.url="${DB_URL}")" >> "${RESULTS}"
+
+  echo "fast-startup,${run},$(measure java ${LOG_STARTUP} -XX:AOTCache="${WORK_DIR}/app.aot" ${AOT_FLAGS} \
+    -jar "${AOT_JAR}" --spring.profiles.active=h2,fast-startup --spring.datasource.url="${DB_URL}")" >> "${RESULTS}"
+done
+
+column -s, -t < "${RESULTS}"
@@ -23,18 +23,23 @@
  */
 package com.eliasnogueira.paymentservice;
 
+import com.eliasnogueira.paymentservice.model.Money;
 import com.eliasnogueira.paymentservice.model.Payment;
 import com.eliasnogueira.paymentservice.repository.PaymentRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-
 import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
 
 @Component
+@Profile({"default", "dev", "h2"})
+@ConditionalOnProperty(prefix = "payment.seed-data", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class DataInitializer implements CommandLineRunner {
 
+    private static final String SEED_TRANSACTION_ID = "txn_1001";
+
     private final PaymentRepository paymentRepository;
 
     public DataInitializer(PaymentRepository paymentRepository) {
@@ -43,6 +48,9 @@ public class DataInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        paymentRepository.save(Payment.builder().transactionId("txn_1001").amount(BigDecimal.valueOf(100.50)).status(PENDING).build());
+        // seeded by an earlier start against the same database, e.g. another test context sharing the H2 instance
+        if (paymentRepository.existsByTransactionId(SEED_TRANSACTION_ID)) return;
+        paymentRepository.save(Payment.builder()
+                .transactionId(SEED_TRANSACTION_ID).amount(Money.of(10050)).status(PENDING).build());
     }
 }
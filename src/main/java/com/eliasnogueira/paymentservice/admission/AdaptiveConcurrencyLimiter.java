@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows the latency of the protected resources, AIMD style: every request that completes
+ * close to the best latency seen lately grows the limit by {@code 1/limit} (about one per round trip), while a slow or
+ * failed request shrinks it by the backoff ratio, at most once per round trip.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final long minLatencyWindowNanos;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private long minLatencyMeasuredAt;
+    private long lastDecreaseAt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance,
+                                      double backoffRatio, long minLatencyWindowNanos, LongSupplier clock) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.minLatencyWindowNanos = minLatencyWindowNanos;
+        this.clock = clock;
+        this.minLatencyMeasuredAt = clock.getAsLong();
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) return false;
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases a slot taken by {@link #tryAcquire()} and adjusts the limit to the observed latency.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int concurrent = inFlight.getAndDecrement();
+        adjust(latencyNanos, failed, concurrent);
+    }
+
+    /**
+     * Releases a slot taken by {@link #tryAcquire()} without adjusting the limit, for a request whose latency says
+     * nothing about the protected resources.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void adjust(long latencyNanos, boolean failed, int concurrent) {
+        long now = clock.getAsLong();
+        if (now - minLatencyMeasuredAt > minLatencyWindowNanos) {
+            minLatencyNanos = Long.MAX_VALUE;
+            minLatencyMeasuredAt = now;
+        }
+        if (!failed && latencyNanos < minLatencyNanos) {
+            minLatencyNanos = latencyNanos;
+        }
+
+        boolean overloaded = failed || latencyNanos > minLatencyNanos * latencyTolerance;
+        if (overloaded) {
+            // one decrease per round trip, otherwise a burst of slow responses would collapse the limit
+            if (minLatencyNanos == Long.MAX_VALUE || now - lastDecreaseAt >= minLatencyNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseAt = now;
+            }
+        } else if (concurrent * 2 >= limit) {
+            // only grow while the limit is actually being used
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+}
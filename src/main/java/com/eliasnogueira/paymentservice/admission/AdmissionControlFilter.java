@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.admission;
+
+import com.eliasnogueira.paymentservice.config.AdmissionControlConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load in front of the payment endpoints before it reaches Hikari and the fraud service.
+ * <p>
+ * Mutations go through an optional per-client token bucket (429 when exhausted) and an adaptive concurrency limit
+ * (503 when reached). The limit follows the latency of the mutations without their fraud checks, see
+ * {@link ExcludedLatency}, and leaves 4xx responses out. Reads have their own fixed concurrency budget, so status
+ * polling keeps working while writes are being shed.
+ * <p>
+ * Settlements are writes too and hold a write permit while they run, but their latency grows with the size of the
+ * batch, so the limit does not follow it.
+ */
+@Slf4j
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String PAYMENTS_PATH = "/api/payments";
+    private static final String SETTLEMENTS_PATH = "/api/settlements";
+    private static final long OVERLOADED_RETRY_AFTER_SECONDS = 1;
+
+    private final AdmissionControlConfig config;
+    private final PaymentMetrics metrics;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final ClientRateLimiter clientRateLimiter;
+    private final Semaphore readPermits;
+
+    public AdmissionControlFilter(AdmissionControlConfig config, PaymentMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+
+        var writes = config.getWrites();
+        this.writeLimiter = new AdaptiveConcurrencyLimiter(writes.getInitialLimit(), writes.getMinLimit(),
+                writes.getMaxLimit(), writes.getLatencyTolerance(), writes.getBackoffRatio(),
+                writes.getMinLatencyWindow().toNanos(), System::nanoTime);
+
+        var clients = config.getClients();
+        this.clientRateLimiter = new ClientRateLimiter(clients.getRequestsPerSecond(), clients.getBurst(),
+                clients.getMaxTracked(), System::nanoTime);
+
+        this.readPermits = new Semaphore(config.getReads().getMaxConcurrency());
+
+        metrics.gauge("payment.admission.write.limit", "Current concurrency limit of payment mutations", writeLimiter::getLimit);
+        metrics.gauge("payment.admission.write.in_flight", "Payment mutations in progress", writeLimiter::getInFlight);
+        metrics.gauge("payment.admission.read.available", "Free read permits", readPermits::availablePermits);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        var path = pathOf(request);
+        return !config.isEnabled() || !(path.startsWith(PAYMENTS_PATH) || path.startsWith(SETTLEMENTS_PATH));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            doFilterRead(request, response, chain);
+        } else {
+            doFilterWrite(request, response, chain);
+        }
+    }
+
+    private void doFilterRead(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!readPermits.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_RETRY_AFTER_SECONDS, "read", "overloaded");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readPermits.release();
+        }
+    }
+
+    private void doFilterWrite(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = config.getClients().isEnabled() ? clientRateLimiter.tryAcquire(clientIdOf(request, config.getClients())) : 0;
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfter, "write", "rate_limited");
+            return;
+        }
+
+        if (!writeLimiter.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_RETRY_AFTER_SECONDS, "write", "overloaded");
+            return;
+        }
+
+        ExcludedLatency.start();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            long latency = System.nanoTime() - start - ExcludedLatency.release();
+            if (pathOf(request).startsWith(SETTLEMENTS_PATH)) {
+                writeLimiter.release();
+            } else if (!failed && response.getStatus() >= 400) {
+                // rejected by the client's own mistake, often before any database work: says nothing about load
+                writeLimiter.release();
+            } else {
+                writeLimiter.release(latency, failed);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String path,
+                        String reason) throws IOException {
+        metrics.admissionRejected(path, reason);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write(status.getReasonPhrase());
+    }
+
+    /**
+     * The client a request comes from: its remote address, or the client ID header when {@code trust-id-header} says
+     * a gateway in front sets it.
+     */
+    public static String clientIdOf(HttpServletRequest request, AdmissionControlConfig.Clients clients) {
+        if (!clients.isTrustIdHeader()) return request.getRemoteAddr();
+        var clientId = request.getHeader(clients.getIdHeader());
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per client, for the {@code maxTracked} clients seen most recently. The least recently seen
+ * one is dropped when another arrives, which only ever gives it a full bucket again.
+ */
+public class ClientRateLimiter {
+
+    private final double requestsPerSecond;
+    private final int burst;
+    private final LongSupplier clock;
+    private final Map<String, TokenBucket> buckets;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, int maxTracked, LongSupplier clock) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.clock = clock;
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxTracked;
+            }
+        };
+    }
+
+    /**
+     * @return zero when the request is admitted, otherwise the nanoseconds until the client may retry
+     */
+    public long tryAcquire(String clientId) {
+        TokenBucket bucket;
+        synchronized (buckets) {
+            bucket = buckets.computeIfAbsent(clientId, id -> new TokenBucket(requestsPerSecond, burst, clock));
+        }
+        return bucket.tryAcquire() ? 0 : Math.max(1, bucket.nanosUntilAvailable());
+    }
+}
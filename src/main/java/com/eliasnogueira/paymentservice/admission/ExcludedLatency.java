@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.admission;
+
+/**
+ * Time the current thread's request spent waiting on a dependency that has limits of its own, such as the fraud
+ * service, and that the write limit therefore leaves out of the latency it follows. Collected by
+ * {@link AdmissionControlFilter} around each mutation.
+ */
+public final class ExcludedLatency {
+
+    private static final ThreadLocal<long[]> NANOS = new ThreadLocal<>();
+
+    private ExcludedLatency() {
+    }
+
+    static void start() {
+        NANOS.set(new long[1]);
+    }
+
+    public static void add(long nanos) {
+        var excluded = NANOS.get();
+        if (excluded != null) excluded[0] += nanos;
+    }
+
+    static long release() {
+        var excluded = NANOS.get();
+        NANOS.remove();
+        return excluded == null ? 0 : excluded[0];
+    }
+}
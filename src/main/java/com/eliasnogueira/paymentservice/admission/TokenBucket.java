@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.admission;
+
+import java.util.function.LongSupplier;
+
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final int capacity;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, LongSupplier clock) {
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) return false;
+
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Nanoseconds until the next token is available, zero when one is available now.
+     */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    public synchronized long getRefilledAt() {
+        return refilledAt;
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.archive;
+
+import com.eliasnogueira.paymentservice.config.ArchiveConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.ArchivedPayment;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.shutdown.ShutdownCoordinator;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockMode;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Moves the payments that stopped changing out of the {@code payments} table, so the table the request path writes to
+ * stays at the size of the recent traffic instead of growing forever.
+ * <p>
+ * PAID and FRAUD payments not updated for {@code payment.archive.horizon} are copied to {@code payments_archive} and
+ * deleted, one batch per transaction, with the selected rows locked so a concurrent update either happens before the
+ * copy or finds the payment gone. Batches are paced to {@code payment.archive.rows-per-second}. Reads by ID fall
+ * through to the archive, see {@code PaymentService}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.archive", name = "enabled", havingValue = "true")
+public class PaymentArchiver implements SmartLifecycle {
+
+    static final List<PaymentStatus> TERMINAL = List.of(PaymentStatus.PAID, PaymentStatus.FRAUD);
+
+    private final ArchiveConfig archiveConfig;
+    private final SessionFactory sessionFactory;
+    private final PaymentMetrics metrics;
+
+    private volatile boolean running;
+    private Thread archiver;
+
+    public PaymentArchiver(ArchiveConfig archiveConfig, EntityManagerFactory entityManagerFactory,
+                           PaymentMetrics metrics) {
+        this.archiveConfig = archiveConfig;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Archives everything older than the horizon, paced, and returns how many payments were moved.
+     */
+    public long archiveExpired() throws InterruptedException {
+        var cutoff = Instant.now().minus(archiveConfig.getHorizon());
+        long moved = 0;
+        int batch;
+        do {
+            long start = System.nanoTime();
+            batch = archiveBatch(cutoff, archiveConfig.getBatchSize());
+            moved += batch;
+
+            long paced = (long) (batch * 1_000_000_000d / archiveConfig.getRowsPerSecond());
+            NANOSECONDS.sleep(paced - (System.nanoTime() - start));
+        } while (batch == archiveConfig.getBatchSize());
+
+        if (moved > 0) log.info("Archived {} payments not updated since {}", moved, cutoff);
+        return moved;
+    }
+
+    /**
+     * Moves up to {@code limit} terminal payments last updated before {@code cutoff} to the archive, in one
+     * transaction, and returns how many.
+     */
+    public int archiveBatch(Instant cutoff, int limit) {
+        try (var session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(limit);
+            var transaction = session.beginTransaction();
+            try {
+                // rows from before the timestamp columns existed have none, and are the oldest of all
+                var payments = session.createSelectionQuery("""
+                                from Payment p
+                                where p.status in :statuses and (p.updatedAt < :cutoff or p.updatedAt is null)""",
+                                Payment.class)
+                        .setParameter("statuses", TERMINAL)
+                        .setParameter("cutoff", cutoff)
+                        .setMaxResults(limit)
+                        .setHibernateLockMode(LockMode.PESSIMISTIC_WRITE)
+                        .getResultList();
+                if (payments.isEmpty()) {
+                    transaction.commit();
+                    return 0;
+                }
+
+                var ids = payments.stream().map(Payment::getId).toList();
+                // copies left by an earlier run, or rows brought back by an event replay, are not copied twice
+                var alreadyArchived = new HashSet<>(session.createSelectionQuery(
+                                "select a.id from ArchivedPayment a where a.id in :ids", UUID.class)
+                        .setParameter("ids", ids)
+                        .getResultList());
+
+                var archivedAt = Payment.now();
+                for (var payment : payments) {
+                    if (!alreadyArchived.contains(payment.getId())) {
+                        session.insert(ArchivedPayment.of(payment, archivedAt));
+                    }
+                }
+                session.createMutationQuery("delete from Payment p where p.id in :ids")
+                        .setParameter("ids", ids)
+                        .executeUpdate();
+                transaction.commit();
+                metrics.paymentsArchived(payments.size());
+                return payments.size();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        archiver = Thread.ofPlatform().name("payment-archiver").daemon().start(this::archive);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        archiver.interrupt();
+        try {
+            archiver.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped with the other background writers, after the drain
+    @Override
+    public int getPhase() {
+        return ShutdownCoordinator.BACKGROUND_WRITER_PHASE;
+    }
+
+    private void archive() {
+        while (running) {
+            try {
+                archiveExpired();
+                Thread.sleep(archiveConfig.getInterval().toMillis());
+            } catch (InterruptedException e) {
+                // stop() was called; a batch is one transaction, so there is nothing half done to finish
+            } catch (RuntimeException e) {
+                log.error("Archiving payments failed", e);
+                try {
+                    Thread.sleep(archiveConfig.getInterval().toMillis());
+                } catch (InterruptedException stopping) {
+                    // checked by the loop condition
+                }
+            }
+        }
+    }
+}
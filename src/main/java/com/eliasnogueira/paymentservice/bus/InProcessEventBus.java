@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.bus;
+
+import com.eliasnogueira.paymentservice.config.EventBusConfig;
+import com.eliasnogueira.paymentservice.config.EventRetryConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEventHandler;
+import com.eliasnogueira.paymentservice.events.PaymentEventPublisher;
+import com.eliasnogueira.paymentservice.exceptions.InvalidPaymentEventException;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Payment events delivered within the process, for single-instance deployments without Kafka
+ * ({@code --spring.profiles.active=in-process-events}). Every active {@link PaymentEventHandler} is a subscriber with
+ * its own thread, which takes the events off a {@link PaymentEventRing} in batches, in publishing order.
+ * <p>
+ * Delivery works as with Kafka: a failed event is retried after the {@code payment.retry} delays, without holding up
+ * the events behind it, and once every attempt failed, or straight away for an event that can never be processed, it
+ * is dead-lettered. Here that means logged and counted; the events live as long as the process does.
+ */
+@Slf4j
+@Component
+@Profile("in-process-events")
+public class InProcessEventBus implements PaymentEventPublisher, SmartLifecycle {
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+
+    private final EventBusConfig config;
+    private final EventRetryConfig retryConfig;
+    private final PaymentMetrics metrics;
+    private final PaymentEventRing ring;
+    private final List<Subscriber> subscribers;
+
+    private volatile boolean running;
+    private List<Thread> threads = List.of();
+    private ScheduledExecutorService retries;
+
+    public InProcessEventBus(EventBusConfig config, EventRetryConfig retryConfig, List<PaymentEventHandler> handlers,
+                             PaymentMetrics metrics) {
+        this.config = config;
+        this.retryConfig = retryConfig;
+        this.metrics = metrics;
+        this.ring = new PaymentEventRing(config.getRingSize());
+        this.subscribers = handlers.stream().filter(PaymentEventHandler::isActive)
+                .map(handler -> new Subscriber(handler, ring.subscribe()))
+                .toList();
+
+        metrics.gauge("payment.bus.backlog", "Events on the in-process bus its slowest subscriber has yet to take",
+                () -> ring.cursor() - ring.slowest(ring.cursor()));
+    }
+
+    @Override
+    public void send(PaymentEvent event) {
+        publish(List.of(event));
+    }
+
+    @Override
+    public void sendAll(List<PaymentEvent> events) {
+        publish(events);
+    }
+
+    /**
+     * Waits until every subscriber took the events published so far; retries still pending are not waited for.
+     */
+    @Override
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long target = ring.cursor();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (ring.slowest(target) < target) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        retries = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("payment-bus-retry").daemon().factory());
+        running = true;
+        threads = subscribers.stream()
+                .map(subscriber -> Thread.ofPlatform().name("payment-bus-" + subscriber.handler().name()).daemon()
+                        .start(() -> consume(subscriber)))
+                .toList();
+        log.info("In-process event bus started with {} subscribers", subscribers.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + config.getStopTimeout().toNanos();
+        try {
+            for (var thread : threads) {
+                if (!thread.join(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())))) {
+                    log.warn("Subscriber {} did not finish delivering before shutdown", thread.getName());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int abandoned = retries.shutdownNow().size();
+        if (abandoned > 0) log.warn("{} payment event retries abandoned on shutdown", abandoned);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped after the web server, whose last requests may still publish
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void publish(List<PaymentEvent> events) {
+        int batch = Math.min(config.getBatchSize(), ring.size());
+        for (int from = 0; from < events.size(); from += batch) {
+            int count = Math.min(batch, events.size() - from);
+            long last = claim(count);
+            if (last < 0) {
+                log.error("In-process event bus full, {} events not published", events.size() - from);
+                for (int i = from; i < events.size(); i++) metrics.eventPublished(false);
+                return;
+            }
+            long first = last - count + 1;
+            for (int i = 0; i < count; i++) {
+                ring.publish(first + i, events.get(from + i));
+                metrics.eventPublished(true);
+            }
+        }
+    }
+
+    // a full ring means a subscriber is behind: wait for it to make room, as a producer waits for Kafka
+    private long claim(int count) {
+        long deadline = System.nanoTime() + config.getPublishTimeout().toNanos();
+        for (int attempt = 0; ; attempt++) {
+            long last = ring.tryClaim(count);
+            if (last >= 0 || System.nanoTime() - deadline >= 0) return last;
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(config.getIdleWait().toNanos());
+            }
+        }
+    }
+
+    private void consume(Subscriber subscriber) {
+        long next = subscriber.sequence().get() + 1;
+        int idle = 0;
+        while (true) {
+            long cursor = ring.cursor();
+            long available = cursor < next ? next - 1
+                    : ring.publishedUpTo(next, Math.min(cursor, next + config.getBatchSize() - 1));
+            if (available < next) {
+                // stopped, and everything published is delivered
+                if (!running) return;
+                subscriber.handler().caughtUp();
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+
+            for (long sequence = next; sequence <= available; sequence++) {
+                deliver(subscriber, ring.get(sequence), 1);
+            }
+            // the slots can be written again
+            subscriber.sequence().setRelease(available);
+            next = available + 1;
+        }
+    }
+
+    private int idle(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(config.getIdleWait().toNanos());
+        }
+        return idle + 1;
+    }
+
+    private void deliver(Subscriber subscriber, PaymentEvent event, int attempt) {
+        try {
+            subscriber.handler().apply(event);
+        } catch (Exception e) {
+            if (e instanceof InvalidPaymentEventException || attempt >= retryConfig.getAttempts()) {
+                metrics.eventDeadLettered();
+                log.error("Dead-lettered payment event {} for {} after {} attempts: {}",
+                        event.getPayment() == null ? null : event.getPayment().getId(), subscriber.handler().name(),
+                        attempt, e.toString());
+                return;
+            }
+            // named like the retry topics, so the retries show up the same way in the metrics
+            var retry = subscriber.handler().name() + "-retry-" + (attempt - 1);
+            try {
+                retries.schedule(() -> {
+                    metrics.eventRetried(retry);
+                    deliver(subscriber, event, attempt + 1);
+                }, backoff(attempt).toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shutDown) {
+                log.warn("Payment event retry for {} abandoned on shutdown", subscriber.handler().name());
+            }
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        double delay = retryConfig.getInitialDelay().toMillis() * Math.pow(retryConfig.getMultiplier(), attempt - 1);
+        return Duration.ofMillis((long) Math.min(delay, retryConfig.getMaxDelay().toMillis()));
+    }
+
+    private record Subscriber(PaymentEventHandler handler, AtomicLong sequence) {
+    }
+}
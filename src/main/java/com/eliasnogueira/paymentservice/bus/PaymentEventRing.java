@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.bus;
+
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded ring of payment events for many publishers and many subscribers, after the LMAX Disruptor. A publisher
+ * claims slots by moving the claim cursor with a CAS, writes its events and then marks each slot with its sequence;
+ * a subscriber follows with a sequence of its own and takes everything published since its last batch in one go.
+ * Neither side takes a lock, and a slot is only written again once every subscriber has passed it.
+ * <p>
+ * Subscribers are added before anything is published.
+ */
+final class PaymentEventRing {
+
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int mask;
+    private final PaymentEvent[] events;
+    // sequence last published in each slot: a subscriber reads a slot once it holds the sequence it expects
+    private final long[] published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<AtomicLong> subscribers = new CopyOnWriteArrayList<>();
+
+    // slowest subscriber sequence last seen, so a claim with room to spare doesn't look at every subscriber
+    private volatile long gate = -1;
+
+    PaymentEventRing(int size) {
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        }
+        mask = size - 1;
+        events = new PaymentEvent[size];
+        published = new long[size];
+        Arrays.fill(published, -1);
+    }
+
+    int size() {
+        return events.length;
+    }
+
+    /**
+     * Sequence of a new subscriber, which starts after the last claimed slot and moves it forward as it consumes.
+     */
+    AtomicLong subscribe() {
+        var sequence = new AtomicLong(claimed.get());
+        subscribers.add(sequence);
+        return sequence;
+    }
+
+    /**
+     * Claims the next {@code count} slots, at most the size of the ring.
+     *
+     * @return the sequence of the last claimed slot, or -1 when the slowest subscriber leaves no room for them
+     */
+    long tryClaim(int count) {
+        while (true) {
+            long current = claimed.get();
+            long last = current + count;
+            long wrapPoint = last - events.length;
+            if (wrapPoint > gate) {
+                long slowest = slowest(current);
+                gate = slowest;
+                if (wrapPoint > slowest) return -1;
+            }
+            if (claimed.compareAndSet(current, last)) return last;
+        }
+    }
+
+    void publish(long sequence, PaymentEvent event) {
+        int slot = (int) sequence & mask;
+        events[slot] = event;
+        PUBLISHED.setRelease(published, slot, sequence);
+    }
+
+    /**
+     * Highest sequence between {@code from} and {@code to} that is published, with every one before it.
+     *
+     * @return {@code from - 1} when not even the first one is
+     */
+    long publishedUpTo(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            if ((long) PUBLISHED.getAcquire(published, (int) sequence & mask) != sequence) return sequence - 1;
+        }
+        return to;
+    }
+
+    PaymentEvent get(long sequence) {
+        return events[(int) sequence & mask];
+    }
+
+    long cursor() {
+        return claimed.get();
+    }
+
+    /**
+     * Sequence of the subscriber furthest behind, or {@code ifNone} without subscribers.
+     */
+    long slowest(long ifNone) {
+        long slowest = ifNone;
+        for (var sequence : subscribers) {
+            slowest = Math.min(slowest, sequence.get());
+        }
+        return slowest;
+    }
+}
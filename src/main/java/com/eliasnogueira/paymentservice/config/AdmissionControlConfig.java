@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "payment.admission")
+public class AdmissionControlConfig {
+    private boolean enabled = true;
+    private Writes writes = new Writes();
+    private Reads reads = new Reads();
+    private Clients clients = new Clients();
+
+    @Setter
+    @Getter
+    public static class Writes {
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        // with reads.max-concurrency, below server.tomcat.threads.max, so shed requests still find a thread to be
+        // rejected on, and so do the endpoints outside admission control
+        private int maxLimit = 120;
+
+        // the limit shrinks when a request takes longer than the best observed latency times this tolerance
+        private double latencyTolerance = 2.0;
+        private double backoffRatio = 0.9;
+
+        // how long the best observed latency is remembered before it is measured again
+        private Duration minLatencyWindow = Duration.ofSeconds(30);
+    }
+
+    @Setter
+    @Getter
+    public static class Reads {
+        private int maxConcurrency = 60;
+    }
+
+    @Setter
+    @Getter
+    public static class Clients {
+        // off by default: callers behind one NAT or proxy share an address, and so would share a bucket
+        private boolean enabled = false;
+        private double requestsPerSecond = 50;
+        private int burst = 100;
+        private String idHeader = "X-Client-Id";
+
+        // callers choose the header freely, so it only keys the buckets when a gateway in front sets it
+        private boolean trustIdHeader = false;
+        private int maxTracked = 10_000;
+    }
+}
@@ -28,6 +28,10 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Setter
 @Getter
 @Configuration
@@ -35,6 +39,17 @@ import org.springframework.context.annotation.Configuration;
 public class FraudCheckConfig {
     private String url;
     private String apiKey;
-    private int timeout;
+    private int timeout = 5000;
+
+    // instances of the fraud service to balance between; url alone is used when empty
+    private List<String> urls = new ArrayList<>();
+
+    // a second request goes to another instance when the first takes longer than this percentile of recent checks
+    private boolean hedgeEnabled = true;
+    private double hedgePercentile = 95;
+    private Duration hedgeMinDelay = Duration.ofMillis(5);
+    private int hedgeMinSamples = 100;
 
+    // hedges allowed, as a percentage of fraud checks
+    private double hedgeBudgetPercent = 5;
 }
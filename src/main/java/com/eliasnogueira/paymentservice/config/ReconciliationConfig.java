@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "payment.reconciliation")
+public class ReconciliationConfig {
+    private boolean enabled = false;
+
+    // chunks compared at the same time, each on a virtual thread holding one database connection
+    private int parallelism = 4;
+    private int chunkSize = 1_000;
+    // upper bound on the rows read per second across all chunks, so the scan does not compete with live traffic
+    private int rowsPerSecond = 5_000;
+
+    // rows changed this shortly before the topic was read may have their event still on its way, and are skipped
+    private Duration settleTime = Duration.ofMinutes(1);
+
+    // publish the row again when its event is missing or stale; otherwise divergences are only reported
+    private boolean republish = true;
+    // payment IDs listed in the report at most, the counts cover them all
+    private int maxReported = 100;
+
+    // reading payment-events
+    private int pollBatchSize = 5000;
+    private Duration pollTimeout = Duration.ofSeconds(1);
+}
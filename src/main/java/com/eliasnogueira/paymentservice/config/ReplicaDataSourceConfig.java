@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.config;
+
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.routing.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only transactions to the replicas in
+ * {@code payment.replicas.instances} and everything else to the primary configured under {@code spring.datasource}.
+ * <p>
+ * The lazy proxy only fetches a connection at the first statement, once the transaction manager marked it read-only,
+ * which is what lets it pick the target per transaction.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "payment.replicas", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                               ReplicaConfig replicaConfig, PaymentMetrics metrics) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        var instances = replicaConfig.getInstances();
+        for (int i = 0; i < instances.size(); i++) {
+            var instance = instances.get(i);
+            var replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(instance.getUrl())
+                    .username(Objects.requireNonNullElse(instance.getUsername(), properties.determineUsername()))
+                    .password(Objects.requireNonNullElse(instance.getPassword(), properties.determinePassword()))
+                    .driverClassName(Objects.requireNonNullElse(instance.getDriverClassName(),
+                            properties.determineDriverClassName()))
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(instance.getMaximumPoolSize());
+            // a replica that is gone costs a read this long before it falls back to the primary
+            replica.setConnectionTimeout(Math.max(250, replicaConfig.getHealthCheckTimeout().toMillis()));
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        var replicaDataSource = new ReplicaDataSource(primaryDataSource, replicas,
+                replicaConfig.getHealthCheckInterval(), replicaConfig.getHealthCheckTimeout());
+        metrics.gauge("payment.datasource.replicas.healthy", "Replicas currently receiving reads",
+                replicaDataSource::healthyReplicas);
+        return replicaDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "payment.sharding")
+public class ShardingConfig {
+    // shard numbers are positions in this list: shards can be appended, never removed or reordered
+    private List<Database> shards = new ArrayList<>();
+    // transaction ID uniqueness and the bucket-to-shard map
+    private Database index = new Database();
+
+    // payment IDs hash to one of these buckets, and buckets are what moves between shards; fixed once the index exists
+    private int buckets = 1024;
+    private Duration mapRefreshInterval = Duration.ofSeconds(1);
+    // how long a write waits for the bucket it targets to finish moving
+    private Duration frozenWriteTimeout = Duration.ofSeconds(10);
+    // a transaction ID claimed this long ago by a payment that is on no shard is free again
+    private Duration orphanClaimAge = Duration.ofMinutes(1);
+
+    private int pageSize = 500;
+    private int copyBatchSize = 1_000;
+
+    @Setter
+    @Getter
+    public static class Database {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
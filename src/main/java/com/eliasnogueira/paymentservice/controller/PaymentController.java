@@ -26,17 +26,22 @@ package com.eliasnogueira.paymentservice.controller;
 import com.eliasnogueira.paymentservice.dto.PaymentRequest;
 import com.eliasnogueira.paymentservice.dto.PaymentResponse;
 import com.eliasnogueira.paymentservice.dto.PaymentUpdateRequest;
+import com.eliasnogueira.paymentservice.etag.ETags;
+import com.eliasnogueira.paymentservice.etag.PaymentVersionIndex;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
 import com.eliasnogueira.paymentservice.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -46,28 +51,69 @@ import java.util.UUID;
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
 public class PaymentController {
+    public static final String CONSISTENCY_HEADER = "X-Consistency";
+    public static final String STRONG_CONSISTENCY = "strong";
+
     private final PaymentService paymentService;
+    private final PaymentVersionIndex versionIndex;
+    private final PaymentMetrics metrics;
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public PaymentResponse createPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
-        return paymentService.createPayment(paymentRequest);
+    public ResponseEntity<PaymentResponse> createPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
+        var payment = paymentService.createPayment(paymentRequest);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(payment.getVersion())).body(payment);
     }
 
     @GetMapping("/{paymentId}")
-    public PaymentResponse getPayment(@PathVariable UUID paymentId) {
-        return paymentService.getPaymentById(paymentId);
+    public ResponseEntity<PaymentResponse> getPayment(
+            @PathVariable UUID paymentId,
+            @RequestHeader(value = CONSISTENCY_HEADER, required = false) String consistency,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean strong = isStrong(consistency);
+        // the index can trail the writes of other instances by the event lag, which strong reads do not accept
+        if (!strong && ifNoneMatch != null) {
+            var known = versionIndex.currentETag(paymentId);
+            if (ETags.matches(ifNoneMatch, known)) {
+                metrics.notModified(true);
+                return notModified(known);
+            }
+        }
+
+        var payment = paymentService.getPaymentById(paymentId, strong);
+        var etag = ETags.of(payment.getVersion());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            metrics.notModified(false);
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(payment);
     }
 
     @GetMapping
-    public List<PaymentResponse> getAllPayments() {
-        return paymentService.getAllPayments();
+    public ResponseEntity<List<PaymentResponse>> getAllPayments(
+            @RequestHeader(value = CONSISTENCY_HEADER, required = false) String consistency,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var payments = paymentService.getAllPayments(isStrong(consistency));
+        var etag = ETags.of(payments);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            metrics.notModified(false);
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(payments);
     }
 
     @PutMapping("/{paymentId}")
-    public PaymentResponse updatePayment(
+    public ResponseEntity<PaymentResponse> updatePayment(
             @PathVariable UUID paymentId,
             @Valid @RequestBody PaymentUpdateRequest updateRequest) {
-        return paymentService.updatePayment(paymentId, updateRequest);
+        var payment = paymentService.updatePayment(paymentId, updateRequest);
+        return ResponseEntity.ok().eTag(ETags.of(payment.getVersion())).body(payment);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static boolean isStrong(String consistency) {
+        return STRONG_CONSISTENCY.equalsIgnoreCase(consistency);
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.controller;
+
+import com.eliasnogueira.paymentservice.dto.PaymentHistoryResponse;
+import com.eliasnogueira.paymentservice.exceptions.PaymentNotFoundException;
+import com.eliasnogueira.paymentservice.history.PaymentHistoryStore;
+import com.eliasnogueira.paymentservice.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/payments")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.history", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentHistoryController {
+
+    private final PaymentHistoryStore historyStore;
+    private final PaymentService paymentService;
+
+    @GetMapping("/{paymentId}/history")
+    public List<PaymentHistoryResponse> getPaymentHistory(@PathVariable UUID paymentId) {
+        var history = historyStore.findByPaymentId(paymentId);
+        if (history.isEmpty() && !paymentService.exists(paymentId)) {
+            throw new PaymentNotFoundException("Payment not found with ID: " + paymentId);
+        }
+        return history.stream().map(PaymentHistoryResponse::from).toList();
+    }
+}
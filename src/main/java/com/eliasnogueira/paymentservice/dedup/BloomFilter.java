@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.dedup;
+
+/**
+ * Fixed-size Bloom filter over keys given as two independent 64-bit hashes, probed with double hashing. Not thread
+ * safe.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashes;
+    private int inserted;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+
+    boolean mightContain(long hash1, long hash2) {
+        long combined = hash1;
+        for (int i = 0; i < hashes; i++, combined += hash2) {
+            long bit = Long.remainderUnsigned(combined, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    void put(long hash1, long hash2) {
+        long combined = hash1;
+        for (int i = 0; i < hashes; i++, combined += hash2) {
+            long bit = Long.remainderUnsigned(combined, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        inserted++;
+    }
+
+    int inserted() {
+        return inserted;
+    }
+
+    long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.dedup;
+
+import com.eliasnogueira.paymentservice.config.DedupConfig;
+import com.eliasnogueira.paymentservice.model.PaymentEventWatermark;
+import com.eliasnogueira.paymentservice.shutdown.ShutdownCoordinator;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persisted high-watermark of each payment: the highest version whose event was processed. Advances are collected in
+ * memory and upserted in JDBC batches every {@code payment.dedup.watermark-flush-interval}, and right away when
+ * partitions are revoked so the next owner finds them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.dedup", name = "persist-watermarks", havingValue = "true", matchIfMissing = true)
+public class EventWatermarkStore implements SmartLifecycle {
+
+    private final DedupConfig dedupConfig;
+    private final SessionFactory sessionFactory;
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public EventWatermarkStore(DedupConfig dedupConfig, EntityManagerFactory entityManagerFactory) {
+        this.dedupConfig = dedupConfig;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public OptionalLong find(UUID paymentId) {
+        var unflushed = pending.get(paymentId);
+        if (unflushed != null) return OptionalLong.of(unflushed);
+        try (var session = sessionFactory.openStatelessSession()) {
+            var watermark = session.get(PaymentEventWatermark.class, paymentId);
+            return watermark == null ? OptionalLong.empty() : OptionalLong.of(watermark.getVersion());
+        }
+    }
+
+    public void advance(UUID paymentId, long version) {
+        pending.merge(paymentId, version, Math::max);
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+        var batch = new ArrayList<PaymentEventWatermark>(pending.size());
+        pending.forEach((paymentId, version) -> batch.add(new PaymentEventWatermark(paymentId, version)));
+
+        try (var session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(Math.min(batch.size(), 1_000));
+            var transaction = session.beginTransaction();
+            try {
+                // events of a payment are consumed in order from its partition, so the last version is the highest
+                batch.forEach(session::upsert);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+        // only what did not advance again in the meantime
+        batch.forEach(watermark -> pending.remove(watermark.getPaymentId(), watermark.getVersion()));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("payment-watermark-flusher").daemon().start(this::flushPeriodically);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped after the listener containers, which still advance watermarks until their last commit
+    @Override
+    public int getPhase() {
+        return ShutdownCoordinator.BACKGROUND_WRITER_PHASE;
+    }
+
+    private void flushPeriodically() {
+        while (running) {
+            try {
+                Thread.sleep(dedupConfig.getWatermarkFlushInterval());
+            } catch (InterruptedException e) {
+                // stop() was called, flush what is left
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Writing {} event watermarks failed, retrying on the next flush", pending.size(), e);
+            }
+        }
+    }
+}
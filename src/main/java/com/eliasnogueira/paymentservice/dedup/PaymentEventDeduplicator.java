@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.dedup;
+
+import com.eliasnogueira.paymentservice.config.DedupConfig;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Recognizes payment events that were already processed, so a redelivered copy has no second effect. An event is
+ * identified by its payment ID and the payment's version, which every write changes.
+ * <p>
+ * Three tiers, cheapest first:
+ * <ul>
+ *     <li>a pair of Bloom filters, current and previous generation, rotated every
+ *     {@code payment.dedup.generation-size} events. Most events are new and a miss here settles it in O(1);</li>
+ *     <li>an exact LRU set of the last {@code payment.dedup.confirmation-capacity} events, which confirms a Bloom hit
+ *     in O(1) for the usual duplicate, a copy that arrives shortly after the original;</li>
+ *     <li>the persisted high-watermark of the payment ({@link EventWatermarkStore}), read only for a Bloom hit the
+ *     LRU set cannot confirm, and for events published before this consumer got its partitions, which may have
+ *     been processed by the previous owner.</li>
+ * </ul>
+ * Without the watermark store a Bloom hit the LRU set cannot confirm is processed: a rare double effect rather than
+ * a lost event.
+ */
+@Slf4j
+@Component
+public class PaymentEventDeduplicator {
+
+    // LinkedHashMap entry, key record and the UUID it points to, on a 64-bit JVM with compressed oops
+    private static final long CONFIRMATION_ENTRY_BYTES = 40 + 24 + 32;
+
+    private final DedupConfig config;
+    private final ObjectProvider<EventWatermarkStore> watermarks;
+    private final PaymentMetrics metrics;
+    private final Map<Key, Boolean> recent;
+
+    private BloomFilter current;
+    private BloomFilter previous;
+    private volatile Instant assignedAt = Instant.MIN;
+
+    private long processed;
+    private long duplicates;
+    private long falsePositives;
+
+    public PaymentEventDeduplicator(DedupConfig config, ObjectProvider<EventWatermarkStore> watermarks,
+                                    PaymentMetrics metrics) {
+        this.config = config;
+        this.watermarks = watermarks;
+        this.metrics = metrics;
+        this.current = new BloomFilter(config.getGenerationSize(), config.getFalsePositiveRate());
+        this.previous = new BloomFilter(config.getGenerationSize(), config.getFalsePositiveRate());
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > config.getConfirmationCapacity();
+            }
+        };
+
+        metrics.gauge("payment.dedup.duplicate.ratio", "Share of consumed events dropped as duplicates",
+                () -> ratio(duplicates, duplicates + processed));
+        metrics.gauge("payment.dedup.false-positive.ratio", "Share of new events the Bloom filters reported as seen",
+                () -> ratio(falsePositives, processed));
+        metrics.gauge("payment.dedup.memory", "Bytes held by the Bloom filters and the exact LRU set",
+                this::memoryInBytes);
+    }
+
+    /**
+     * Whether the event was processed before. Call {@link #processed} once it has been, so a failed attempt is
+     * not mistaken for a duplicate when it is retried.
+     */
+    public synchronized boolean isDuplicate(PaymentEvent event) {
+        if (!config.isEnabled() || event.getPayment() == null || event.getPayment().getId() == null) return false;
+        var key = Key.of(event);
+        long hash1 = key.hash1();
+        long hash2 = key.hash2();
+
+        boolean maybeSeen = current.mightContain(hash1, hash2) || previous.mightContain(hash1, hash2);
+        if (maybeSeen && recent.get(key) != null) return duplicate(event);
+
+        var store = watermarks.getIfAvailable();
+        if (store != null && (maybeSeen || publishedBeforeAssignment(event))) {
+            var watermark = store.find(key.paymentId());
+            if (watermark.isPresent() && key.version() <= watermark.getAsLong()) return duplicate(event);
+        }
+
+        if (maybeSeen) {
+            falsePositives++;
+            metrics.dedupFalsePositive();
+        }
+        return false;
+    }
+
+    public synchronized void processed(PaymentEvent event) {
+        if (!config.isEnabled() || event.getPayment() == null || event.getPayment().getId() == null) return;
+        var key = Key.of(event);
+        if (current.inserted() >= config.getGenerationSize()) {
+            previous = current;
+            current = new BloomFilter(config.getGenerationSize(), config.getFalsePositiveRate());
+        }
+        current.put(key.hash1(), key.hash2());
+        recent.put(key, Boolean.TRUE);
+        processed++;
+        metrics.dedupEvent(false);
+
+        var store = watermarks.getIfAvailable();
+        if (store != null) store.advance(key.paymentId(), key.version());
+    }
+
+    /**
+     * Called when partitions are assigned: the uncommitted tail of each is about to be read again.
+     */
+    public void partitionsAssigned() {
+        assignedAt = Instant.now();
+    }
+
+    /**
+     * Called when partitions are revoked, so their next owner finds the watermarks of what was processed here.
+     */
+    public void partitionsRevoked() {
+        var store = watermarks.getIfAvailable();
+        if (store != null) store.flush();
+    }
+
+    public synchronized long memoryInBytes() {
+        return current.sizeInBytes() + previous.sizeInBytes() + recent.size() * CONFIRMATION_ENTRY_BYTES;
+    }
+
+    private boolean publishedBeforeAssignment(PaymentEvent event) {
+        return event.getTimestamp() == null
+                || event.getTimestamp().isBefore(assignedAt.plus(config.getClockSkew()));
+    }
+
+    private boolean duplicate(PaymentEvent event) {
+        duplicates++;
+        metrics.dedupEvent(true);
+        log.info("Dropping duplicate {} event of payment {}", event.getType(), event.getPayment().getId());
+        return true;
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    private record Key(UUID paymentId, long version) {
+
+        static Key of(PaymentEvent event) {
+            return new Key(event.getPayment().getId(), PaymentResponse.versionOf(event.getPayment()));
+        }
+
+        long hash1() {
+            return mix(paymentId.getMostSignificantBits() ^ mix(version));
+        }
+
+        // odd, so the double hashing probes never cycle early
+        long hash2() {
+            return mix(paymentId.getLeastSignificantBits() + version * 0x9e3779b97f4a7c15L) | 1;
+        }
+
+        private static long mix(long hash) {
+            hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+            hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return hash ^ (hash >>> 33);
+        }
+    }
+}
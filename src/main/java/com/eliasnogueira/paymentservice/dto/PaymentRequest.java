@@ -23,14 +23,13 @@
  */
 package com.eliasnogueira.paymentservice.dto;
 
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.validation.PositiveAmount;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Builder
 @Data
 public class PaymentRequest {
@@ -39,6 +38,6 @@ public class PaymentRequest {
     private String transactionId;
 
     @NotNull(message = "Amount is required")
-    @Positive(message = "Amount must be positive")
-    private BigDecimal amount;
+    @PositiveAmount(message = "Amount must be positive")
+    private Money amount;
 }
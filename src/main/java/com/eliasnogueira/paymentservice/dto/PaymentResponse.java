@@ -23,13 +23,15 @@
  */
 package com.eliasnogueira.paymentservice.dto;
 
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
 import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -40,6 +42,27 @@ public class PaymentResponse {
 
     private UUID id;
     private String transactionId;
-    private BigDecimal amount;
+    private Money amount;
     private PaymentStatus status;
+
+    // sent as the ETag header rather than in the body
+    @JsonIgnore
+    private long version;
+
+    public PaymentResponse(UUID id, String transactionId, Money amount, PaymentStatus status) {
+        this(id, transactionId, amount, status, 0);
+    }
+
+    public static PaymentResponse from(Payment payment) {
+        return new PaymentResponse(payment.getId(), payment.getTransactionId(), payment.getAmount(), payment.getStatus(),
+                versionOf(payment));
+    }
+
+    /**
+     * Version of a payment: 0 when it is created and one more on every write, which every store keeps per payment.
+     * Unlike a timestamp it can not go backwards when the clocks of two instances disagree.
+     */
+    public static long versionOf(Payment payment) {
+        return payment.getVersion();
+    }
 }
@@ -0,0 +1,42 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Result of a reconciliation of the payments table with the payment events topic.
+ *
+ * @param skipped      rows changed too recently to be compared
+ * @param divergences  rows that disagree with their latest event, by kind of divergence
+ * @param republished  rows published again, so the consumers catch up with them
+ * @param flagged      IDs of the diverging rows that were not published again, at most
+ *                     {@code payment.reconciliation.max-reported}
+ * @param failedChunks chunks that could not be read; their rows are not counted
+ */
+public record ReconciliationReport(long rows, long skipped, Map<String, Long> divergences, long republished,
+                                   List<UUID> flagged, int failedChunks, long elapsedMillis, long rowsPerSecond) {
+}
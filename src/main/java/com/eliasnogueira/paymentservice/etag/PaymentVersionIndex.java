@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.etag;
+
+import com.eliasnogueira.paymentservice.config.ETagConfig;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEventHandler;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest known version of each payment, so a conditional GET can be answered with a 304 without reading the
+ * database. It is fed by this instance's writes and reads, and by the {@code payment-events} topic for the writes
+ * of the other instances; like the read model, every instance uses its own consumer group.
+ * <p>
+ * Versions only move forward, so a stale read or a redelivered event cannot roll an entry back. Entries are never
+ * evicted; past {@code payment.etag.max-entries} new payments are simply not indexed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentVersionIndex implements PaymentEventHandler {
+
+    private static final String CONSUMER = "payment-version-index";
+
+    private final ETagConfig config;
+    private final PaymentMetrics metrics;
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    @Override
+    @KafkaListener(id = CONSUMER, topics = "payment-events",
+            groupId = "payment-version-index-#{T(java.util.UUID).randomUUID()}",
+            autoStartup = "${payment.etag.enabled:true}")
+    public void apply(PaymentEvent event) {
+        long start = System.nanoTime();
+        var payment = event.getPayment();
+        if (payment == null || payment.getId() == null) {
+            log.warn("Ignoring {} event without payment ID", event.getType());
+            metrics.eventFailed(CONSUMER);
+            return;
+        }
+        record(payment.getId(), PaymentResponse.versionOf(payment));
+        metrics.eventConsumed(CONSUMER, event.getTimestamp(), System.nanoTime() - start);
+    }
+
+    @Override
+    public String name() {
+        return CONSUMER;
+    }
+
+    @Override
+    public boolean isActive() {
+        return config.isEnabled();
+    }
+
+    /**
+     * ETag of the latest known version of the payment, or null when it is not indexed or the index is disabled, in
+     * which case the caller has to read the payment.
+     */
+    public String currentETag(UUID paymentId) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        var version = versions.get(paymentId);
+        return version == null ? null : ETags.of(version);
+    }
+
+    public void record(UUID paymentId, long version) {
+        if (versions.size() >= config.getMaxEntries()) {
+            versions.computeIfPresent(paymentId, (id, current) -> Math.max(current, version));
+        } else {
+            versions.merge(paymentId, version, Math::max);
+        }
+    }
+
+    /**
+     * Records a version written in the current transaction once it commits, so a rollback cannot leave behind a
+     * version the database never had.
+     */
+    public void recordAfterCommit(UUID paymentId, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(paymentId, version);
+                }
+            });
+        } else {
+            record(paymentId, version);
+        }
+    }
+
+    public int size() {
+        return versions.size();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.events;
+
+import com.eliasnogueira.paymentservice.config.EventRetryConfig;
+import com.eliasnogueira.paymentservice.dto.RedriveResponse;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends dead letters back to the payment events topic, once whatever made them fail is fixed. Records are copied
+ * byte for byte, without the dead-letter and retry headers, so they start over with every retry attempt.
+ * <p>
+ * What was re-driven is committed under its own consumer group, so every dead letter is re-driven once. One that
+ * fails again is dead-lettered again, and can be re-driven again.
+ */
+@Slf4j
+@Component
+@Profile("!in-process-events")
+public class DeadLetterRedriver {
+
+    private static final String GROUP_ID = "payment-dlt-redrive";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final List<String> DROPPED_HEADER_PREFIXES = List.of("kafka_dlt-", "retry_topic-");
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final KafkaTemplate<byte[], byte[]> template;
+    private final EventRetryConfig config;
+    private final PaymentMetrics metrics;
+
+    @SuppressWarnings("unchecked")
+    public DeadLetterRedriver(ConsumerFactory<?, ?> consumerFactory, ProducerFactory<?, ?> producerFactory,
+                              EventRetryConfig config, PaymentMetrics metrics) {
+        this.consumerFactory = consumerFactory;
+        this.template = new KafkaTemplate<>((ProducerFactory<byte[], byte[]>) producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Re-drives up to {@code limit} dead letters, oldest first in each partition.
+     */
+    public synchronized RedriveResponse redrive(int limit) {
+        limit = Math.min(limit, config.getMaxRedrive());
+        long deadline = System.nanoTime() + config.getRedriveTimeout().toNanos();
+
+        try (var consumer = createConsumer(limit)) {
+            var partitions = consumer.partitionsFor(PaymentKafkaConsumer.DEAD_LETTER_TOPIC).stream()
+                    .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                    .toList();
+            if (partitions.isEmpty()) return new RedriveResponse(0, 0);
+            consumer.assign(partitions);
+
+            int redriven = 0;
+            while (redriven < limit && System.nanoTime() < deadline) {
+                var records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) break;
+
+                var sends = new ArrayList<CompletableFuture<?>>();
+                var offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+                for (var record : records) {
+                    if (redriven + sends.size() == limit) break;
+                    sends.add(template.send(copyOf(record)));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+                // committed only once all of them are on the payment events topic
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                consumer.commitSync(offsets);
+                redriven += sends.size();
+                metrics.eventsRedriven(sends.size());
+            }
+
+            log.info("Re-drove {} dead-lettered payment events", redriven);
+            return new RedriveResponse(redriven, remaining(consumer, partitions));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while re-driving dead letters", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not re-drive dead letters: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        template.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<byte[], byte[]> createConsumer(int limit) {
+        var overrides = new Properties();
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(limit, 500));
+        return (Consumer<byte[], byte[]>) consumerFactory.createConsumer(GROUP_ID, null, null, overrides);
+    }
+
+    private static ProducerRecord<byte[], byte[]> copyOf(ConsumerRecord<byte[], byte[]> record) {
+        var headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (DROPPED_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) headers.add(header);
+        }
+        // no partition: the key picks it, as it did for the original
+        return new ProducerRecord<>(PaymentKafkaProducer.TOPIC, null, record.key(), record.value(), headers);
+    }
+
+    private static long remaining(Consumer<byte[], byte[]> consumer, List<TopicPartition> partitions) {
+        var committed = consumer.committed(new HashSet<>(partitions));
+        var beginnings = consumer.beginningOffsets(partitions);
+        long remaining = 0;
+        for (var entry : consumer.endOffsets(partitions).entrySet()) {
+            var offset = committed.get(entry.getKey());
+            remaining += entry.getValue() - (offset != null ? offset.offset() : beginnings.get(entry.getKey()));
+        }
+        return remaining;
+    }
+}
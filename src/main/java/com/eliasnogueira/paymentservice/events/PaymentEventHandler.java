@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.events;
+
+/**
+ * Consumer of every payment event, whichever way they are delivered: a Kafka listener on {@code payment-events}, or a
+ * subscriber of the in-process bus. Every handler sees every event, like a consumer group of its own.
+ */
+public interface PaymentEventHandler {
+
+    /**
+     * Name of the consumer, as reported in the metrics.
+     */
+    String name();
+
+    void apply(PaymentEvent event);
+
+    /**
+     * Whether the handler wants the events at all; a disabled one is not subscribed.
+     */
+    default boolean isActive() {
+        return true;
+    }
+
+    /**
+     * Called when every event published so far has been delivered to the handler, while there is nothing new.
+     */
+    default void caughtUp() {
+    }
+}
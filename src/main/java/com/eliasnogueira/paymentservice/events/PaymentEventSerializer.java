@@ -0,0 +1,44 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.events;
+
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * {@link JsonSerializer} that writes {@code byte[]} values as they are. A record whose value could not be
+ * deserialized is dead-lettered with its original bytes, which would otherwise be written as a JSON string.
+ */
+public class PaymentEventSerializer extends JsonSerializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        return data instanceof byte[] bytes ? bytes : super.serialize(topic, headers, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data instanceof byte[] bytes ? bytes : super.serialize(topic, data);
+    }
+}
@@ -23,31 +23,104 @@
  */
 package com.eliasnogueira.paymentservice.events;
 
+import com.eliasnogueira.paymentservice.dedup.PaymentEventDeduplicator;
+import com.eliasnogueira.paymentservice.exceptions.InvalidPaymentEventException;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
-import static java.lang.Thread.sleep;
-
 @Getter
 @Component
 @Slf4j
-public class PaymentKafkaConsumer {
+@RequiredArgsConstructor
+public class PaymentKafkaConsumer implements PaymentEventHandler, ConsumerSeekAware {
+
+    private static final String GROUP_ID = "payment-group";
+    public static final String DEAD_LETTER_TOPIC = PaymentKafkaProducer.TOPIC + "-dlt";
 
     private final List<PaymentEvent> consumedEvents = new CopyOnWriteArrayList<>();
+    private final PaymentMetrics metrics;
+    private final PaymentEventDeduplicator deduplicator;
+
+    /**
+     * A failed event is passed to the next retry topic, whose consumer holds it back until its delay is over, so
+     * the payment events partition keeps flowing meanwhile. Once every attempt failed, or straight away for an event
+     * that can never be processed, it lands on {@link #DEAD_LETTER_TOPIC} with the exception in its headers.
+     */
+    @RetryableTopic(
+            attempts = "#{@eventRetryConfig.attempts}",
+            backoff = @Backoff(delayExpression = "#{@eventRetryConfig.initialDelay.toMillis()}",
+                    multiplierExpression = "#{@eventRetryConfig.multiplier}",
+                    maxDelayExpression = "#{@eventRetryConfig.maxDelay.toMillis()}"),
+            numPartitions = "#{@eventRetryConfig.partitions}",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = "-dlt",
+            // a dead letter that can't even be logged must not go round the dead-letter topic forever
+            dltStrategy = DltStrategy.FAIL_ON_ERROR,
+            exclude = InvalidPaymentEventException.class)
+    @KafkaListener(topics = PaymentKafkaProducer.TOPIC, groupId = GROUP_ID)
+    public void consume(PaymentEvent event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        if (!PaymentKafkaProducer.TOPIC.equals(topic)) metrics.eventRetried(topic);
+        apply(event);
+    }
+
+    @Override
+    public String name() {
+        return GROUP_ID;
+    }
+
+    @Override
+    public void apply(PaymentEvent event) {
+        long start = System.nanoTime();
+        if (event.getPayment() == null || event.getPayment().getId() == null) {
+            throw new InvalidPaymentEventException("Payment event without a payment ID: " + event);
+        }
+        if (deduplicator.isDuplicate(event)) return;
 
-    @KafkaListener(topics = "payment-events", groupId = "payment-group")
-    public void consume(PaymentEvent event) throws InterruptedException {
-        sleep(2000); // to ensure, we will simulate a delay in sending the event
         log.info("Consumed event at {}: {} Payment with ID {} (amount={}, status={})",
                 event.getTimestamp(), event.getType(),
                 event.getPayment().getId(),
                 event.getPayment().getAmount(),
                 event.getPayment().getStatus());
         consumedEvents.add(event);
+        deduplicator.processed(event);
+        metrics.eventConsumed(GROUP_ID, event.getTimestamp(), System.nanoTime() - start);
+    }
+
+    @DltHandler
+    public void deadLettered(ConsumerRecord<String, PaymentEvent> record) {
+        metrics.eventDeadLettered();
+        var error = record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        log.error("Dead-lettered payment event {} at offset {}: {}", record.key(), record.offset(),
+                error == null ? "unknown error" : new String(error.value(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        deduplicator.partitionsAssigned();
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        deduplicator.partitionsRevoked();
     }
 }
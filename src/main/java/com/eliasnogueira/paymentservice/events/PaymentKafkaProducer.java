@@ -23,23 +23,138 @@
  */
 package com.eliasnogueira.paymentservice.events;
 
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.spool.PaymentEventSpool;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
 @Component
+@Profile("!in-process-events")
 @RequiredArgsConstructor
-public class PaymentKafkaProducer {
+public class PaymentKafkaProducer implements PaymentEventPublisher {
+
+    public static final String TOPIC = "payment-events";
 
     private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final ObjectProvider<PaymentEventSpool> spool;
+    private final SpoolConfig spoolConfig;
+    private final PaymentMetrics metrics;
 
+    @Override
     public void send(PaymentEvent event) {
+        var spool = this.spool.getIfAvailable();
+        if (spool != null && spool.hasBacklog()) {
+            // older events are still waiting for Kafka, this one has to go behind them
+            spool(spool, event);
+            return;
+        }
+
         try {
-            SendResult<String, PaymentEvent> result = kafkaTemplate.send("payment-events", event).get();
-            System.out.println("Topic successfully send: " + result.getRecordMetadata());
+            // keyed by payment ID so all events of a payment land on the same partition, in order
+            SendResult<String, PaymentEvent> result = kafkaTemplate.send(TOPIC, keyOf(event), event)
+                    .get(spoolConfig.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Payment event sent to {}", result.getRecordMetadata());
+            metrics.eventPublished(true);
         } catch (Exception e) {
-            System.err.println("Error sending the topic: " + e.getMessage());
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.warn("Payment event not sent to Kafka", e);
+            metrics.eventPublished(false);
+            spoolOrDrop(spool, event, e);
+        }
+    }
+
+    /**
+     * Sends all events at once and then waits for them, instead of one round trip per event. The ones not
+     * acknowledged within the send timeout are spooled.
+     */
+    @Override
+    public void sendAll(List<PaymentEvent> events) {
+        if (events.isEmpty()) return;
+        var spool = this.spool.getIfAvailable();
+        if (spool != null && spool.hasBacklog()) {
+            events.forEach(event -> spool(spool, event));
+            return;
+        }
+
+        var sends = new ArrayList<CompletableFuture<SendResult<String, PaymentEvent>>>(events.size());
+        for (var event : events) {
+            try {
+                sends.add(kafkaTemplate.send(TOPIC, keyOf(event), event));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        long deadline = System.nanoTime() + spoolConfig.getSendTimeout().toNanos();
+        int failed = 0;
+        int spooled = 0;
+        Exception firstFailure = null;
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                metrics.eventPublished(true);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                if (firstFailure == null) firstFailure = e;
+                failed++;
+                metrics.eventPublished(false);
+                if (spoolOrDrop(spool, events.get(i), e)) spooled++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("{} of {} payment events not sent to Kafka, {} spooled",
+                    failed, events.size(), spooled, firstFailure);
         }
     }
+
+    @Override
+    public boolean flush(Duration timeout) throws InterruptedException {
+        // flush() has no timeout of its own, it waits as long as the producer's delivery timeout
+        var flush = CompletableFuture.runAsync(kafkaTemplate::flush, command -> Thread.ofVirtual().start(command));
+        try {
+            flush.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Kafka producer not flushed: {}", e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Spools an event whose send may succeed later; one Kafka rejected for good would only block the spool.
+     */
+    private boolean spoolOrDrop(PaymentEventSpool spool, PaymentEvent event, Exception failure) {
+        if (spool == null) return false;
+        if (failure instanceof InterruptedException || PaymentEventSpool.isRetriable(failure)) {
+            spool(spool, event);
+            return true;
+        }
+        metrics.eventsUnsendable(1);
+        return false;
+    }
+
+    private void spool(PaymentEventSpool spool, PaymentEvent event) {
+        spool.append(event);
+        metrics.eventSpooled();
+    }
+
+    public static String keyOf(PaymentEvent event) {
+        return event.getPayment() != null && event.getPayment().getId() != null
+                ? event.getPayment().getId().toString() : null;
+    }
 }
@@ -23,6 +23,7 @@
  */
 package com.eliasnogueira.paymentservice.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -31,6 +32,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @ControllerAdvice
@@ -48,4 +50,10 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handlePaymentNotFound(PaymentNotFoundException ex) {
         return ResponseEntity.status(NOT_FOUND).body(ex.getMessage());
     }
+
+    // another write to the payment committed between reading and writing it
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(CONFLICT).body("Payment was changed concurrently, retry the request");
+    }
 }
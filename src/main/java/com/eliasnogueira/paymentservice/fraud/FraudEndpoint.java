@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.fraud;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One instance of the fraud service, with its requests in flight and a peak-sensitive moving average of its latency:
+ * a slower response raises the average at once, faster ones bring it down over {@link #DECAY_NANOS}.
+ */
+public final class FraudEndpoint {
+
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private double averageNanos;
+    private long updatedAt = System.nanoTime();
+
+    FraudEndpoint(String url) {
+        this.url = url;
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public void started() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * A request completed, or failed: a failure should be passed the timeout, so a failing instance is avoided
+     * rather than looking fast.
+     */
+    public synchronized void completed(long latencyNanos) {
+        outstanding.decrementAndGet();
+        long now = System.nanoTime();
+        if (latencyNanos > averageNanos) {
+            averageNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(now - updatedAt) / DECAY_NANOS);
+            averageNanos = averageNanos * weight + latencyNanos * (1 - weight);
+        }
+        updatedAt = now;
+    }
+
+    // a cancelled hedge says nothing about the instance's latency
+    public void cancelled() {
+        outstanding.decrementAndGet();
+    }
+
+    synchronized double cost() {
+        return averageNanos * (outstanding.get() + 1);
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.fraud;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the fraud service instance for a request: of two instances drawn at random, the one with the lower expected
+ * wait, its average latency times its requests in flight plus one. Two random candidates rather than the best of
+ * all keeps concurrent requests from piling onto the same instance between two updates of its figures.
+ */
+public final class FraudEndpointBalancer {
+
+    private final Map<String, FraudEndpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param excluded an instance to avoid when there is another one, such as the one a hedged request went to
+     */
+    public FraudEndpoint choose(List<String> urls, FraudEndpoint excluded) {
+        if (urls.size() == 1) return endpoint(urls.getFirst());
+
+        var random = ThreadLocalRandom.current();
+        int first = random.nextInt(urls.size());
+        int second = random.nextInt(urls.size() - 1);
+        if (second >= first) second++;
+
+        var a = endpoint(urls.get(first));
+        var b = endpoint(urls.get(second));
+        if (a == excluded) return b;
+        if (b == excluded) return a;
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    private FraudEndpoint endpoint(String url) {
+        return endpoints.computeIfAbsent(url, FraudEndpoint::new);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.fraud;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the last {@code capacity} fraud checks, to derive the hedging delay from. The percentile is
+ * recomputed every {@link #RECOMPUTE_EVERY} samples rather than on every read.
+ */
+public final class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final long[] samples;
+    private int next;
+    private long count;
+    private long sinceRecompute = RECOMPUTE_EVERY;
+    private double cachedPercentile = Double.NaN;
+    private long cached = -1;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+        sinceRecompute++;
+    }
+
+    /**
+     * @return the percentile in nanoseconds, or -1 while fewer than {@code minSamples} latencies were recorded
+     */
+    public synchronized long percentile(double percentile, int minSamples) {
+        if (count < minSamples || count == 0) return -1;
+        if (sinceRecompute >= RECOMPUTE_EVERY || percentile != cachedPercentile) {
+            var sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            cached = sorted[Math.clamp(index, 0, sorted.length - 1)];
+            cachedPercentile = percentile;
+            sinceRecompute = 0;
+        }
+        return cached;
+    }
+}
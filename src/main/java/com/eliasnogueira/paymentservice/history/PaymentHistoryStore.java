@@ -0,0 +1,266 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.history;
+
+import com.eliasnogueira.paymentservice.config.HistoryConfig;
+import com.eliasnogueira.paymentservice.dto.FraudVerdict;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.PaymentStatusHistory;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentStatusHistoryRepository;
+import com.eliasnogueira.paymentservice.shutdown.ShutdownCoordinator;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Status timeline of every payment, written off the request path: changes are buffered in a bounded queue once their
+ * transaction committed, and a background writer inserts them in JDBC batches through a stateless session.
+ * <p>
+ * The same writer deletes the entries older than {@code payment.history.retention}, in small batches, so the table
+ * stays at a steady size instead of growing forever.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.history", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentHistoryStore implements SmartLifecycle {
+
+    private static final int WRITE_ATTEMPTS = 3;
+
+    private final HistoryConfig historyConfig;
+    private final PaymentStatusHistoryRepository repository;
+    private final SessionFactory sessionFactory;
+    private final PaymentMetrics metrics;
+    private final BlockingQueue<PaymentStatusHistory> buffer;
+
+    private volatile List<PaymentStatusHistory> writing = List.of();
+    private volatile boolean running;
+    private Thread writer;
+    private long lastPurge = System.nanoTime();
+
+    public PaymentHistoryStore(HistoryConfig historyConfig, PaymentStatusHistoryRepository repository,
+                               EntityManagerFactory entityManagerFactory, PaymentMetrics metrics) {
+        this.historyConfig = historyConfig;
+        this.repository = repository;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.metrics = metrics;
+        this.buffer = new ArrayBlockingQueue<>(historyConfig.getBufferCapacity());
+        metrics.gauge("payment.history.buffered", "Status changes waiting to be written", buffer::size);
+    }
+
+    /**
+     * Records a status change, once the current transaction (if any) committed.
+     */
+    public void record(UUID paymentId, PaymentStatus fromStatus, PaymentStatus toStatus, FraudVerdict verdict) {
+        var entry = PaymentStatusHistory.builder()
+                .id(TimeOrderedUuid.next())
+                .paymentId(paymentId)
+                .fromStatus(fromStatus)
+                .toStatus(toStatus)
+                .changedAt(Instant.now())
+                .fraudulent(verdict == null ? null : verdict.fraudulent())
+                .fraudCheckFailed(verdict == null ? null : verdict.failed())
+                .fraudMessage(verdict == null ? null : abbreviate(verdict.message()))
+                .build();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    /**
+     * The timeline of a payment, oldest first, including the changes not written yet.
+     */
+    public List<PaymentStatusHistory> findByPaymentId(UUID paymentId) {
+        // buffer, then batch being written, then table: the order in which entries move
+        var entries = new ArrayList<PaymentStatusHistory>();
+        buffer.forEach(entry -> {
+            if (entry.getPaymentId().equals(paymentId)) entries.add(entry);
+        });
+        writing.forEach(entry -> {
+            if (entry.getPaymentId().equals(paymentId)) entries.add(entry);
+        });
+
+        var ids = new HashSet<UUID>();
+        entries.forEach(entry -> ids.add(entry.getId()));
+        for (var entry : repository.findByPaymentIdOrderByChangedAtAscIdAsc(paymentId)) {
+            if (ids.add(entry.getId())) entries.add(entry);
+        }
+
+        entries.sort(Comparator.comparing(PaymentStatusHistory::getChangedAt).thenComparing(PaymentStatusHistory::getId));
+        return entries;
+    }
+
+    /**
+     * Deletes the entries older than the retention period and returns how many.
+     */
+    public int purgeExpired() {
+        var cutoff = Instant.now().minus(historyConfig.getRetention());
+        int purged = 0;
+        List<UUID> ids;
+        do {
+            ids = repository.findIdsChangedBefore(cutoff, Limit.of(historyConfig.getPurgeBatchSize()));
+            if (!ids.isEmpty()) repository.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+        } while (ids.size() == historyConfig.getPurgeBatchSize());
+
+        if (purged > 0) {
+            log.info("Purged {} payment status changes older than {}", purged, cutoff);
+            metrics.historyPurged(purged);
+        }
+        return purged;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("payment-history-writer").daemon().start(this::write);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(historyConfig.getFlushInterval().toMillis() * 10 + 5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped after the drain and the consumers, whose committed transactions still hand it entries
+    @Override
+    public int getPhase() {
+        return ShutdownCoordinator.BACKGROUND_WRITER_PHASE;
+    }
+
+    private void enqueue(PaymentStatusHistory entry) {
+        try {
+            if (buffer.offer(entry, historyConfig.getEnqueueTimeout().toMillis(), MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.error("History buffer full, dropping status change {} of payment {}", entry.getToStatus(), entry.getPaymentId());
+        metrics.historyDropped(1);
+    }
+
+    private void write() {
+        var batch = new ArrayList<PaymentStatusHistory>(historyConfig.getBatchSize());
+        // on stop, keeps going until the buffer is empty
+        while (running || !buffer.isEmpty()) {
+            try {
+                var first = buffer.poll(historyConfig.getFlushInterval().toMillis(), MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, historyConfig.getBatchSize() - 1);
+                    writeBatch(batch);
+                }
+                if (running && System.nanoTime() - lastPurge >= historyConfig.getPurgeInterval().toNanos()) {
+                    lastPurge = System.nanoTime();
+                    purgeExpired();
+                }
+            } catch (InterruptedException e) {
+                // stop() was called; the loop condition decides whether there is anything left to write
+            } catch (RuntimeException e) {
+                log.error("Payment history writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PaymentStatusHistory> batch) {
+        writing = List.copyOf(batch);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    insert(batch);
+                    metrics.historyWritten(batch.size());
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt == WRITE_ATTEMPTS) {
+                        log.error("Dropping {} payment status changes after {} attempts", batch.size(), attempt, e);
+                        metrics.historyDropped(batch.size());
+                        return;
+                    }
+                    log.warn("Writing {} payment status changes failed, retrying", batch.size(), e);
+                    try {
+                        Thread.sleep(attempt * 500L);
+                    } catch (InterruptedException stopping) {
+                        // retry right away, what is left still has to be written before stopping
+                    }
+                }
+            }
+        } finally {
+            writing = List.of();
+        }
+    }
+
+    private void insert(List<PaymentStatusHistory> batch) {
+        try (var session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batch.size());
+            var transaction = session.beginTransaction();
+            try {
+                batch.forEach(session::insert);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static String abbreviate(String message) {
+        return message == null || message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,524 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.inmemory;
+
+import com.eliasnogueira.paymentservice.config.InMemoryStoreConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.eliasnogueira.paymentservice.repository.PaymentSort;
+import com.eliasnogueira.paymentservice.storage.MappedFileLog;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * {@link PaymentRepository} for deployments without a database ({@code in-memory} profile), backed by a
+ * {@link PaymentTable} and made durable by a write-ahead log in memory-mapped files.
+ * <p>
+ * Every change is appended to the log while the payment's stripe is locked, so the log order matches the table order
+ * for each payment. On start the log is replayed and, when it holds overwritten or deleted rows, rewritten with only
+ * the live ones.
+ * <p>
+ * Writes are applied immediately: there are no transactions, so a failing {@code @Transactional} method does not
+ * roll back what it already saved. Query by example is not supported.
+ */
+@Slf4j
+@Component
+@Profile("in-memory")
+public class InMemoryPaymentRepository implements PaymentRepository, DisposableBean {
+
+    private static final String LOG_NAME = "wal";
+    // puts written before payments had timestamps or versions; still read on recovery
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+    private static final byte PUT_WITH_TIMES = 4;
+    private static final byte PUT_WITH_VERSION = 5;
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final int MAX_TRANSACTION_ID_LENGTH = 255;
+
+    private final InMemoryStoreConfig config;
+    private final TransactionIdIndex transactionIds = new TransactionIdIndex();
+    private final PaymentTable table;
+    private final ThreadLocal<ByteBuffer> records = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+    private final MappedFileLog writeAheadLog;
+
+    public InMemoryPaymentRepository(InMemoryStoreConfig config, PaymentMetrics metrics) {
+        this.config = config;
+        this.table = new PaymentTable(config.getStripes(), config.getInitialCapacityPerStripe(), transactionIds);
+        try {
+            this.writeAheadLog = recover(config.getWalDir());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the payment log from " + config.getWalDir(), e);
+        }
+        metrics.gauge("payment.store.payments", "Payments held by the in-memory store", table::size);
+    }
+
+    @Override
+    public <S extends Payment> S save(S payment) {
+        if (payment.getTransactionId() == null || payment.getAmount() == null || payment.getStatus() == null) {
+            throw new DataIntegrityViolationException("Payment has null transaction ID, amount or status");
+        }
+        if (payment.getTransactionId().length() > MAX_TRANSACTION_ID_LENGTH) {
+            throw new DataIntegrityViolationException("Transaction ID longer than " + MAX_TRANSACTION_ID_LENGTH);
+        }
+        if (payment.getId() == null) {
+            payment.setId(UUID.randomUUID());
+        }
+        // what the entity callbacks do on the JPA store
+        var now = Payment.now();
+        if (payment.getCreatedAt() == null) payment.setCreatedAt(now);
+        payment.setUpdatedAt(now);
+
+        long mostSigBits = payment.getId().getMostSignificantBits();
+        long leastSigBits = payment.getId().getLeastSignificantBits();
+        long amount = payment.getAmount().scale() == Money.DEFAULT_SCALE
+                ? payment.getAmount().minorUnits()
+                : Money.of(payment.getAmount().toBigDecimal()).minorUnits();
+        byte status = (byte) (payment.getStatus().ordinal() + 1);
+        long createdAt = toMicros(payment.getCreatedAt());
+        long updatedAt = toMicros(payment.getUpdatedAt());
+        long hash = PaymentTable.hash(mostSigBits, leastSigBits);
+        var stripe = table.stripe(hash);
+
+        long version;
+        long stamp = stripe.lock.writeLock();
+        try {
+            int previous = stripe.transactionIdOf(mostSigBits, leastSigBits, hash);
+            // counted under the stripe lock, so concurrent saves of a payment never share a version
+            version = stripe.versionOf(mostSigBits, leastSigBits, hash) + 1;
+            int transactionId = transactionIds.claim(payment.getTransactionId(), mostSigBits, leastSigBits);
+            try {
+                append(PUT_WITH_VERSION, mostSigBits, leastSigBits, amount, status, payment.getTransactionId(),
+                        createdAt, updatedAt, version);
+            } catch (RuntimeException e) {
+                if (transactionId != previous) transactionIds.release(transactionId);
+                throw e;
+            }
+            stripe.put(mostSigBits, leastSigBits, hash, amount, status, transactionId, createdAt, updatedAt, version);
+            if (previous >= 0 && previous != transactionId) transactionIds.release(previous);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+        payment.setVersion(version);
+        return payment;
+    }
+
+    @Override
+    public <S extends Payment> S saveAndFlush(S payment) {
+        return save(payment);
+    }
+
+    @Override
+    public <S extends Payment> List<S> saveAll(Iterable<S> payments) {
+        var saved = new ArrayList<S>();
+        for (var payment : payments) {
+            saved.add(save(payment));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends Payment> List<S> saveAllAndFlush(Iterable<S> payments) {
+        return saveAll(payments);
+    }
+
+    @Override
+    public Optional<Payment> findById(UUID id) {
+        var found = new Payment[1];
+        long hash = PaymentTable.hash(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        table.stripe(hash).read(id.getMostSignificantBits(), id.getLeastSignificantBits(), hash,
+                (mostSigBits, leastSigBits, amount, status, transactionId, createdAt, updatedAt, version) ->
+                        found[0] = toPayment(id, amount, status, transactionId, createdAt, updatedAt, version));
+        return Optional.ofNullable(found[0]);
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        return transactionIds.contains(transactionId);
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        var payments = new ArrayList<Payment>();
+        for (var stripe : table.stripes()) {
+            long stamp = stripe.lock.readLock();
+            try {
+                stripe.forEach((mostSigBits, leastSigBits, amount, status, transactionId, createdAt, updatedAt,
+                                version) ->
+                        payments.add(toPayment(new UUID(mostSigBits, leastSigBits), amount, status, transactionId,
+                                createdAt, updatedAt, version)));
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return payments;
+    }
+
+    @Override
+    public List<Payment> findAllById(Iterable<UUID> ids) {
+        var payments = new ArrayList<Payment>();
+        for (var id : ids) {
+            findById(id).ifPresent(payments::add);
+        }
+        return payments;
+    }
+
+    @Override
+    public List<Payment> findAll(Sort sort) {
+        var payments = findAll();
+        if (sort.isSorted()) payments.sort(PaymentSort.comparator(sort));
+        return payments;
+    }
+
+    @Override
+    public Page<Payment> findAll(Pageable pageable) {
+        var payments = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) return new PageImpl<>(payments);
+
+        int from = (int) Math.min(pageable.getOffset(), payments.size());
+        int to = Math.min(from + pageable.getPageSize(), payments.size());
+        return new PageImpl<>(new ArrayList<>(payments.subList(from, to)), pageable, payments.size());
+    }
+
+    @Override
+    public long count() {
+        return table.size();
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        long mostSigBits = id.getMostSignificantBits();
+        long leastSigBits = id.getLeastSignificantBits();
+        long hash = PaymentTable.hash(mostSigBits, leastSigBits);
+        var stripe = table.stripe(hash);
+
+        long stamp = stripe.lock.writeLock();
+        try {
+            if (stripe.transactionIdOf(mostSigBits, leastSigBits, hash) < 0) return;
+            append(DELETE, mostSigBits, leastSigBits, 0, PaymentTable.EMPTY, null, 0, 0, 0);
+            transactionIds.release(stripe.remove(mostSigBits, leastSigBits, hash));
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void delete(Payment payment) {
+        if (payment.getId() != null) deleteById(payment.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends UUID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Payment> payments) {
+        payments.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        var stripes = table.stripes();
+        var stamps = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stamps[i] = stripes[i].lock.writeLock();
+        }
+        try {
+            append(CLEAR, 0, 0, 0, PaymentTable.EMPTY, null, 0, 0, 0);
+            for (var stripe : stripes) {
+                stripe.clear();
+            }
+            transactionIds.clear();
+        } finally {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].lock.unlockWrite(stamps[i]);
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Payment> payments) {
+        deleteAll(payments);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<UUID> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public void flush() {
+        writeAheadLog.force();
+    }
+
+    @Override
+    @Deprecated
+    public Payment getOne(UUID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Payment getById(UUID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Payment getReferenceById(UUID id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Payment not found: " + id));
+    }
+
+    @Override
+    public <S extends Payment> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> List<S> findAll(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> long count(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> boolean exists(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment, R> R findBy(Example<S> example,
+                                            Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public void destroy() {
+        writeAheadLog.close();
+    }
+
+    private Payment toPayment(UUID id, long amount, byte status, String transactionId, long createdAt,
+                              long updatedAt, long version) {
+        return Payment.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .amount(Money.of(amount))
+                .status(STATUSES[status - 1])
+                .createdAt(toInstant(createdAt))
+                .updatedAt(toInstant(updatedAt))
+                .version(version)
+                .build();
+    }
+
+    private void append(byte type, long mostSigBits, long leastSigBits, long amount, byte status,
+                        String transactionId, long createdAt, long updatedAt, long version) {
+        byte[] name = transactionId == null ? new byte[0] : transactionId.getBytes(UTF_8);
+        var record = records.get();
+        if (record.capacity() < 56 + name.length) {
+            record = ByteBuffer.allocate(56 + name.length);
+            records.set(record);
+        }
+
+        record.clear()
+                .put(type)
+                .putLong(mostSigBits)
+                .putLong(leastSigBits)
+                .putLong(amount)
+                .put(status);
+        if (type == PUT_WITH_VERSION) record.putLong(createdAt).putLong(updatedAt).putLong(version);
+        record.putShort((short) name.length)
+                .put(name)
+                .flip();
+        try {
+            writeAheadLog.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the payment log", e);
+        }
+    }
+
+    private MappedFileLog recover(Path directory) throws IOException {
+        var compacting = directory.resolveSibling(directory.getFileName() + ".compacting");
+        var compacted = directory.resolveSibling(directory.getFileName() + ".compacted");
+
+        // a crash during compaction leaves either an unfinished copy to discard or a finished one to take over
+        deleteDirectory(compacting);
+        if (Files.exists(compacted)) {
+            deleteDirectory(directory);
+            Files.move(compacted, directory, ATOMIC_MOVE);
+        }
+
+        var recovered = openLog(directory);
+        long records = replay(recovered);
+        int live = table.size();
+        log.info("Recovered {} payments from {} log records in {}", live, records, directory);
+        if (records == live) return recovered;
+
+        recovered.close();
+        try (var copy = openLog(compacting)) {
+            for (var payment : findAll()) {
+                copy.append(encode(payment));
+            }
+        }
+        Files.move(compacting, compacted, ATOMIC_MOVE);
+        deleteDirectory(directory);
+        Files.move(compacted, directory, ATOMIC_MOVE);
+        return openLog(directory);
+    }
+
+    private MappedFileLog openLog(Path directory) throws IOException {
+        return new MappedFileLog(directory, LOG_NAME, (int) config.getWalSegmentSize().toBytes(), config.isSyncOnWrite());
+    }
+
+    private long replay(MappedFileLog source) throws IOException {
+        long[] records = {0};
+        source.read((position, record) -> {
+            records[0]++;
+            byte type = record.get();
+            long mostSigBits = record.getLong();
+            long leastSigBits = record.getLong();
+            long amount = record.getLong();
+            byte status = record.get();
+            boolean timed = type == PUT_WITH_TIMES || type == PUT_WITH_VERSION;
+            long createdAt = timed ? record.getLong() : PaymentTable.NO_TIME;
+            long updatedAt = timed ? record.getLong() : PaymentTable.NO_TIME;
+            long version = type == PUT_WITH_VERSION ? record.getLong() : -1;
+            var name = new byte[record.getShort()];
+            record.get(name);
+
+            long hash = PaymentTable.hash(mostSigBits, leastSigBits);
+            var stripe = table.stripe(hash);
+            switch (type) {
+                case PUT, PUT_WITH_TIMES, PUT_WITH_VERSION -> {
+                    int previous = stripe.transactionIdOf(mostSigBits, leastSigBits, hash);
+                    // older records carry no version, so the puts of the payment are counted instead
+                    if (version < 0) version = stripe.versionOf(mostSigBits, leastSigBits, hash) + 1;
+                    int transactionId = transactionIds.claim(new String(name, UTF_8), mostSigBits, leastSigBits);
+                    stripe.put(mostSigBits, leastSigBits, hash, amount, status, transactionId, createdAt, updatedAt,
+                            version);
+                    if (previous >= 0 && previous != transactionId) transactionIds.release(previous);
+                }
+                case DELETE -> {
+                    int transactionId = stripe.remove(mostSigBits, leastSigBits, hash);
+                    if (transactionId >= 0) transactionIds.release(transactionId);
+                }
+                case CLEAR -> {
+                    for (var each : table.stripes()) each.clear();
+                    transactionIds.clear();
+                }
+                default -> throw new IOException("Unknown record type " + type + " at position " + position);
+            }
+        });
+        return records[0];
+    }
+
+    private ByteBuffer encode(Payment payment) {
+        var name = payment.getTransactionId().getBytes(UTF_8);
+        return ByteBuffer.allocate(56 + name.length)
+                .put(PUT_WITH_VERSION)
+                .putLong(payment.getId().getMostSignificantBits())
+                .putLong(payment.getId().getLeastSignificantBits())
+                .putLong(payment.getAmount().minorUnits())
+                .put((byte) (payment.getStatus().ordinal() + 1))
+                .putLong(toMicros(payment.getCreatedAt()))
+                .putLong(toMicros(payment.getUpdatedAt()))
+                .putLong(payment.getVersion())
+                .putShort((short) name.length)
+                .put(name)
+                .flip();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (var file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private static long toMicros(Instant instant) {
+        if (instant == null) return PaymentTable.NO_TIME;
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant toInstant(long micros) {
+        if (micros == PaymentTable.NO_TIME) return null;
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static UnsupportedOperationException queryByExampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory payment store");
+    }
+}
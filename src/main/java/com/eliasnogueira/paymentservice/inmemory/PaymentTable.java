@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.inmemory;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Payments keyed by ID in open-addressing hash tables made of primitive arrays: the UUID as two longs, the amount as
+ * minor units, the timestamps as epoch microseconds, the version as a counter, the status as a byte and the
+ * transaction ID as a {@link TransactionIdIndex} handle.
+ * <p>
+ * The table is split into stripes, each guarded by its own {@link StampedLock}: writers take the stripe's write lock,
+ * readers first try an optimistic read and only fall back to the read lock when a writer got in the way.
+ */
+final class PaymentTable {
+
+    static final byte EMPTY = 0;
+    // a timestamp the payment does not have
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    @FunctionalInterface
+    interface RowVisitor {
+        void visit(long mostSigBits, long leastSigBits, long amount, byte status, String transactionId,
+                   long createdAt, long updatedAt, long version);
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    PaymentTable(int stripeCount, int initialCapacity, TransactionIdIndex transactionIds) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(initialCapacity, transactionIds);
+        }
+        stripeMask = count - 1;
+    }
+
+    static long hash(long mostSigBits, long leastSigBits) {
+        long hash = mostSigBits ^ leastSigBits;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    Stripe stripe(long hash) {
+        // the slot comes from the low bits, the stripe from the high ones
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    Stripe[] stripes() {
+        return stripes;
+    }
+
+    int size() {
+        int size = 0;
+        for (var stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    static final class Stripe {
+
+        final StampedLock lock = new StampedLock();
+        private final TransactionIdIndex transactionIds;
+        private Slots slots;
+        private int size;
+
+        private Stripe(int initialCapacity, TransactionIdIndex transactionIds) {
+            this.transactionIds = transactionIds;
+            slots = new Slots(Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1);
+        }
+
+        /**
+         * Reads the row of the given payment into {@code visitor}, returning {@code false} when there is none. Takes
+         * no lock unless the optimistic read was invalidated by a writer.
+         */
+        boolean read(long mostSigBits, long leastSigBits, long hash, RowVisitor visitor) {
+            long stamp = lock.tryOptimisticRead();
+            var current = slots;
+            int slot = current.indexOf(mostSigBits, leastSigBits, hash);
+            long amount = slot < 0 ? 0 : current.amounts[slot];
+            byte status = slot < 0 ? EMPTY : current.statuses[slot];
+            long createdAt = slot < 0 ? NO_TIME : current.createdAt[slot];
+            long updatedAt = slot < 0 ? NO_TIME : current.updatedAt[slot];
+            long version = slot < 0 ? 0 : current.versions[slot];
+            // resolved before validating, as the handle may be released and reused right after
+            String transactionId = slot < 0 ? null : transactionIds.nameOrNull(current.transactionIds[slot]);
+
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    current = slots;
+                    slot = current.indexOf(mostSigBits, leastSigBits, hash);
+                    if (slot >= 0) {
+                        amount = current.amounts[slot];
+                        status = current.statuses[slot];
+                        createdAt = current.createdAt[slot];
+                        updatedAt = current.updatedAt[slot];
+                        version = current.versions[slot];
+                        transactionId = transactionIds.name(current.transactionIds[slot]);
+                    }
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            if (slot < 0) return false;
+            visitor.visit(mostSigBits, leastSigBits, amount, status, transactionId, createdAt, updatedAt, version);
+            return true;
+        }
+
+        /**
+         * Transaction ID handle of the given payment, or -1. Caller holds the lock.
+         */
+        int transactionIdOf(long mostSigBits, long leastSigBits, long hash) {
+            int slot = slots.indexOf(mostSigBits, leastSigBits, hash);
+            return slot < 0 ? -1 : slots.transactionIds[slot];
+        }
+
+        /**
+         * Version of the given payment, or -1. Caller holds the lock.
+         */
+        long versionOf(long mostSigBits, long leastSigBits, long hash) {
+            int slot = slots.indexOf(mostSigBits, leastSigBits, hash);
+            return slot < 0 ? -1 : slots.versions[slot];
+        }
+
+        /**
+         * Inserts or replaces a row. Caller holds the write lock.
+         */
+        void put(long mostSigBits, long leastSigBits, long hash, long amount, byte status, int transactionId,
+                 long createdAt, long updatedAt, long version) {
+            int slot = slots.indexOf(mostSigBits, leastSigBits, hash);
+            if (slot < 0) {
+                if (size + 1 > slots.capacity() - (slots.capacity() >>> 2)) resize();
+                slot = slots.freeSlot(hash);
+                slots.mostSigBits[slot] = mostSigBits;
+                slots.leastSigBits[slot] = leastSigBits;
+                size++;
+            }
+            slots.amounts[slot] = amount;
+            slots.createdAt[slot] = createdAt;
+            slots.updatedAt[slot] = updatedAt;
+            slots.versions[slot] = version;
+            slots.transactionIds[slot] = transactionId;
+            slots.statuses[slot] = status;
+        }
+
+        /**
+         * Removes a row, returning its transaction ID handle or -1. Caller holds the write lock.
+         */
+        int remove(long mostSigBits, long leastSigBits, long hash) {
+            var current = slots;
+            int slot = current.indexOf(mostSigBits, leastSigBits, hash);
+            if (slot < 0) return -1;
+            int transactionId = current.transactionIds[slot];
+
+            // backward-shift deletion keeps probe sequences intact without tombstones
+            int hole = slot;
+            for (int next = (slot + 1) & current.mask; current.statuses[next] != EMPTY; next = (next + 1) & current.mask) {
+                int home = (int) hash(current.mostSigBits[next], current.leastSigBits[next]) & current.mask;
+                if (((next - home) & current.mask) >= ((next - hole) & current.mask)) {
+                    current.move(next, hole);
+                    hole = next;
+                }
+            }
+            current.statuses[hole] = EMPTY;
+            size--;
+            return transactionId;
+        }
+
+        /**
+         * Caller holds the write lock.
+         */
+        void clear() {
+            slots = new Slots(slots.capacity());
+            size = 0;
+        }
+
+        /**
+         * Caller holds the read or the write lock.
+         */
+        void forEach(RowVisitor visitor) {
+            var current = slots;
+            for (int slot = 0; slot < current.capacity(); slot++) {
+                if (current.statuses[slot] != EMPTY) {
+                    visitor.visit(current.mostSigBits[slot], current.leastSigBits[slot], current.amounts[slot],
+                            current.statuses[slot], transactionIds.name(current.transactionIds[slot]),
+                            current.createdAt[slot], current.updatedAt[slot], current.versions[slot]);
+                }
+            }
+        }
+
+        private void resize() {
+            var old = slots;
+            var resized = new Slots(old.capacity() * 2);
+            for (int slot = 0; slot < old.capacity(); slot++) {
+                if (old.statuses[slot] == EMPTY) continue;
+                int target = resized.freeSlot(hash(old.mostSigBits[slot], old.leastSigBits[slot]));
+                resized.mostSigBits[target] = old.mostSigBits[slot];
+                resized.leastSigBits[target] = old.leastSigBits[slot];
+                resized.amounts[target] = old.amounts[slot];
+                resized.createdAt[target] = old.createdAt[slot];
+                resized.updatedAt[target] = old.updatedAt[slot];
+                resized.versions[target] = old.versions[slot];
+                resized.transactionIds[target] = old.transactionIds[slot];
+                resized.statuses[target] = old.statuses[slot];
+            }
+            slots = resized;
+        }
+    }
+
+    // swapped as a whole on resize, so an optimistic reader never mixes arrays of different sizes
+    private static final class Slots {
+
+        final long[] mostSigBits;
+        final long[] leastSigBits;
+        final long[] amounts;
+        final long[] createdAt;
+        final long[] updatedAt;
+        final long[] versions;
+        final int[] transactionIds;
+        final byte[] statuses;
+        final int mask;
+
+        Slots(int capacity) {
+            mostSigBits = new long[capacity];
+            leastSigBits = new long[capacity];
+            amounts = new long[capacity];
+            createdAt = new long[capacity];
+            updatedAt = new long[capacity];
+            versions = new long[capacity];
+            transactionIds = new int[capacity];
+            statuses = new byte[capacity];
+            mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        int indexOf(long mostSigBits, long leastSigBits, long hash) {
+            int slot = (int) hash & mask;
+            // bounded, so a torn optimistic read can not loop forever
+            for (int probes = 0; probes <= mask; probes++) {
+                if (statuses[slot] == EMPTY) return -1;
+                if (this.mostSigBits[slot] == mostSigBits && this.leastSigBits[slot] == leastSigBits) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        int freeSlot(long hash) {
+            int slot = (int) hash & mask;
+            while (statuses[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        void move(int from, int to) {
+            mostSigBits[to] = mostSigBits[from];
+            leastSigBits[to] = leastSigBits[from];
+            amounts[to] = amounts[from];
+            createdAt[to] = createdAt[from];
+            updatedAt[to] = updatedAt[from];
+            versions[to] = versions[from];
+            transactionIds[to] = transactionIds[from];
+            statuses[to] = statuses[from];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.inmemory;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns transaction IDs into small integer handles, so the payment table stores an {@code int} per payment, and
+ * enforces their uniqueness by remembering which payment owns each handle.
+ * <p>
+ * Writes are serialized on the index; {@link #name(int)} is lock-free for handles published through the table.
+ */
+final class TransactionIdIndex {
+
+    private final Map<String, Integer> handles = new HashMap<>();
+    private volatile String[] names = new String[1024];
+    private long[] ownerMostSigBits = new long[1024];
+    private long[] ownerLeastSigBits = new long[1024];
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int nextHandle;
+
+    /**
+     * Returns the handle of {@code transactionId}, owned by the given payment from now on.
+     *
+     * @throws DataIntegrityViolationException when another payment already owns the transaction ID
+     */
+    synchronized int claim(String transactionId, long mostSigBits, long leastSigBits) {
+        var existing = handles.get(transactionId);
+        if (existing != null) {
+            int handle = existing;
+            if (ownerMostSigBits[handle] != mostSigBits || ownerLeastSigBits[handle] != leastSigBits) {
+                throw new DataIntegrityViolationException("Duplicate transaction ID: " + transactionId);
+            }
+            return handle;
+        }
+
+        int handle = freeCount > 0 ? freeHandles[--freeCount] : nextHandle++;
+        if (handle == names.length) grow();
+        names[handle] = transactionId;
+        ownerMostSigBits[handle] = mostSigBits;
+        ownerLeastSigBits[handle] = leastSigBits;
+        handles.put(transactionId, handle);
+        return handle;
+    }
+
+    synchronized void release(int handle) {
+        handles.remove(names[handle]);
+        names[handle] = null;
+        if (freeCount == freeHandles.length) freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        freeHandles[freeCount++] = handle;
+    }
+
+    synchronized void clear() {
+        handles.clear();
+        names = new String[names.length];
+        freeCount = 0;
+        nextHandle = 0;
+    }
+
+    String name(int handle) {
+        return names[handle];
+    }
+
+    // for optimistic readers, which may see a torn handle
+    String nameOrNull(int handle) {
+        var current = names;
+        return handle >= 0 && handle < current.length ? current[handle] : null;
+    }
+
+    synchronized boolean contains(String transactionId) {
+        return handles.containsKey(transactionId);
+    }
+
+    synchronized int size() {
+        return handles.size();
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        ownerMostSigBits = Arrays.copyOf(ownerMostSigBits, capacity);
+        ownerLeastSigBits = Arrays.copyOf(ownerLeastSigBits, capacity);
+        names = Arrays.copyOf(names, capacity);
+    }
+}
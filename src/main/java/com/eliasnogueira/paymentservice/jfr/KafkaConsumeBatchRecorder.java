@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.jfr;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits a {@link KafkaConsumeBatchEvent} per poll cycle of every listener container. The container calls
+ * {@link #clearThreadState} on the consumer thread once the records of a poll have been handed to the listener.
+ */
+@Component
+public class KafkaConsumeBatchRecorder implements RecordInterceptor<Object, Object> {
+
+    private final ThreadLocal<KafkaConsumeBatchEvent> batch = new ThreadLocal<>();
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        var event = batch.get();
+        if (event == null) {
+            event = new KafkaConsumeBatchEvent();
+            if (!event.isEnabled()) return record;
+
+            event.begin();
+            event.setGroupId(consumer.groupMetadata().groupId());
+            batch.set(event);
+        }
+        event.setRecords(event.getRecords() + 1);
+        return record;
+    }
+
+    @Override
+    public void failure(ConsumerRecord<Object, Object> record, Exception exception, Consumer<Object, Object> consumer) {
+        var event = batch.get();
+        if (event != null) event.setFailedRecords(event.getFailedRecords() + 1);
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        var event = batch.get();
+        if (event == null) return;
+
+        batch.remove();
+        event.end();
+        if (event.shouldCommit()) event.commit();
+    }
+}
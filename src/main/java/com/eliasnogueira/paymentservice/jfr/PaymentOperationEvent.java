@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.Setter;
+
+@Setter
+@Name("com.eliasnogueira.payment.PaymentOperation")
+@Label("Payment Operation")
+@Category("Payment Service")
+@Description("A payment create or update, with the time spent in each stage")
+@StackTrace(false)
+public class PaymentOperationEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Payment ID")
+    private String paymentId;
+
+    @Label("From Status")
+    private String fromStatus;
+
+    @Label("To Status")
+    private String toStatus;
+
+    @Label("DB Read Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long dbReadTime;
+
+    @Label("Fraud Check Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long fraudCheckTime;
+
+    @Label("DB Write Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long dbWriteTime;
+
+    @Label("Kafka Send Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long kafkaSendTime;
+}
@@ -0,0 +1,344 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Meters of the payment pipeline. Every meter is registered up front so recording on the request path is a
+ * plain array lookup plus the meter update, without tag resolution or registry lookups.
+ */
+@Component
+public class PaymentMetrics {
+
+    public enum Stage {
+        DB_READ, FRAUD_CHECK, DB_WRITE, KAFKA_SEND
+    }
+
+    public enum Operation {
+        CREATE, UPDATE, GET, LIST, SETTLE
+    }
+
+    private final MeterRegistry registry;
+    private final Timer[] stages = new Timer[Stage.values().length];
+    private final Timer[] operations = new Timer[Operation.values().length];
+    private final Counter fraudClean;
+    private final Counter fraudDetected;
+    private final Counter fraudError;
+    private final Counter eventsPublished;
+    private final Counter eventsFailed;
+    private final Counter eventsSpooled;
+    private final Counter eventsDrained;
+    private final Counter eventsUnsendable;
+    private final Counter historyWritten;
+    private final Counter historyDropped;
+    private final Counter historyPurged;
+    private final Counter paymentsArchived;
+    private final Counter notModifiedFromIndex;
+    private final Counter notModifiedAfterRead;
+    private final Counter dedupNew;
+    private final Counter dedupDuplicates;
+    private final Counter dedupFalsePositives;
+    private final Counter eventsDeadLettered;
+    private final Counter eventsRedriven;
+    private final Counter paymentsReconciled;
+    private final Map<String, ConsumerMeters> consumers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, Counter> retries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hedges = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> responseBytes = new ConcurrentHashMap<>();
+    private final Map<String, Counter> divergences = new ConcurrentHashMap<>();
+
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (var stage : Stage.values()) {
+            stages[stage.ordinal()] = Timer.builder("payment.stage")
+                    .description("Time spent in each stage of a payment operation")
+                    .tag("stage", tagValue(stage))
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        for (var operation : Operation.values()) {
+            operations[operation.ordinal()] = Timer.builder("payment.operation")
+                    .description("End-to-end time of a payment operation")
+                    .tag("operation", tagValue(operation))
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        fraudClean = fraudVerdict("clean");
+        fraudDetected = fraudVerdict("fraudulent");
+        fraudError = fraudVerdict("error");
+        eventsPublished = publishedEvents("success");
+        eventsFailed = publishedEvents("failure");
+        eventsSpooled = Counter.builder("payment.spool.appended")
+                .description("Payment events written to the spool instead of Kafka")
+                .register(registry);
+        eventsDrained = Counter.builder("payment.spool.drained")
+                .description("Spooled payment events sent to Kafka")
+                .register(registry);
+        eventsUnsendable = Counter.builder("payment.spool.dead")
+                .description("Payment events Kafka rejected for good, dropped instead of spooled or skipped in the spool")
+                .register(registry);
+        historyWritten = historyEntries("written");
+        historyDropped = historyEntries("dropped");
+        historyPurged = historyEntries("purged");
+        paymentsArchived = Counter.builder("payment.archive.moved")
+                .description("Payments moved from the payments table to the archive")
+                .register(registry);
+        notModifiedFromIndex = notModified("index");
+        notModifiedAfterRead = notModified("read");
+        dedupNew = dedupEvents("new");
+        dedupDuplicates = dedupEvents("duplicate");
+        dedupFalsePositives = Counter.builder("payment.dedup.false-positives")
+                .description("New events the Bloom filters reported as seen, settled by the exact tiers")
+                .register(registry);
+        eventsDeadLettered = Counter.builder("payment.events.dead-lettered")
+                .description("Payment events that failed every attempt and reached the dead-letter topic")
+                .register(registry);
+        eventsRedriven = Counter.builder("payment.events.redriven")
+                .description("Dead-lettered payment events sent back to the payment events topic")
+                .register(registry);
+        paymentsReconciled = Counter.builder("payment.reconciliation.rows")
+                .description("Payment rows compared with the latest event published for them")
+                .register(registry);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stages[stage.ordinal()].record(nanos, NANOSECONDS);
+    }
+
+    public void recordOperation(Operation operation, long nanos) {
+        operations[operation.ordinal()].record(nanos, NANOSECONDS);
+    }
+
+    public void fraudVerdict(boolean fraudulent) {
+        (fraudulent ? fraudDetected : fraudClean).increment();
+    }
+
+    public void fraudCheckFailed() {
+        fraudError.increment();
+    }
+
+    public void fraudHedge(String outcome) {
+        hedges.computeIfAbsent(outcome, key -> Counter.builder("payment.fraud.hedges")
+                .description("Fraud checks sent again to another instance: sent, won, or skipped as over budget")
+                .tag("outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    public void eventPublished(boolean success) {
+        (success ? eventsPublished : eventsFailed).increment();
+    }
+
+    public void eventSpooled() {
+        eventsSpooled.increment();
+    }
+
+    public void eventsDrained(int count) {
+        eventsDrained.increment(count);
+    }
+
+    public void eventsUnsendable(int count) {
+        eventsUnsendable.increment(count);
+    }
+
+    public void historyWritten(int count) {
+        historyWritten.increment(count);
+    }
+
+    public void historyDropped(int count) {
+        historyDropped.increment(count);
+    }
+
+    public void historyPurged(int count) {
+        historyPurged.increment(count);
+    }
+
+    public void paymentsArchived(int count) {
+        paymentsArchived.increment(count);
+    }
+
+    public void notModified(boolean fromIndex) {
+        (fromIndex ? notModifiedFromIndex : notModifiedAfterRead).increment();
+    }
+
+    public void dedupEvent(boolean duplicate) {
+        (duplicate ? dedupDuplicates : dedupNew).increment();
+    }
+
+    public void dedupFalsePositive() {
+        dedupFalsePositives.increment();
+    }
+
+    public void eventConsumed(String consumer, Instant eventTimestamp, long processingNanos) {
+        consumers.computeIfAbsent(consumer, ConsumerMeters::new).consumed(eventTimestamp, processingNanos);
+    }
+
+    public void eventFailed(String consumer) {
+        consumers.computeIfAbsent(consumer, ConsumerMeters::new).failures.increment();
+    }
+
+    public void eventRetried(String topic) {
+        retries.computeIfAbsent(topic, key -> Counter.builder("payment.events.retried")
+                .description("Payment events processed again from a retry topic")
+                .tag("topic", topic)
+                .register(registry)).increment();
+    }
+
+    public void eventDeadLettered() {
+        eventsDeadLettered.increment();
+    }
+
+    public void eventsRedriven(int count) {
+        eventsRedriven.increment(count);
+    }
+
+    public void paymentsReconciled(int count) {
+        paymentsReconciled.increment(count);
+    }
+
+    public void divergence(String kind, boolean republished) {
+        String action = republished ? "republished" : "flagged";
+        divergences.computeIfAbsent(kind + ':' + action, key -> Counter.builder("payment.reconciliation.divergences")
+                .description("Payment rows that disagree with the latest event published for them")
+                .tag("kind", kind)
+                .tag("action", action)
+                .register(registry)).increment();
+    }
+
+    public void admissionRejected(String path, String reason) {
+        rejections.computeIfAbsent(path + ':' + reason, key -> Counter.builder("payment.admission.rejected")
+                .description("Requests shed by admission control")
+                .tag("path", path)
+                .tag("reason", reason)
+                .register(registry)).increment();
+    }
+
+    public void responseBytes(String format, String coding, long bytes) {
+        responseBytes.computeIfAbsent(format + ':' + coding, key -> DistributionSummary.builder("payment.response.bytes")
+                .description("API response bodies as sent, by format and content coding")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .tag("coding", coding)
+                .register(registry)).record(bytes);
+    }
+
+    public void warmupStep(String step, boolean completed, long nanos) {
+        Timer.builder("payment.warmup.step")
+                .description("Time spent in each warm-up step")
+                .tag("step", step)
+                .tag("completed", String.valueOf(completed))
+                .register(registry)
+                .record(nanos, NANOSECONDS);
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value).description(description).strongReference(true).register(registry);
+    }
+
+    private Counter fraudVerdict(String verdict) {
+        return Counter.builder("payment.fraud.verdicts")
+                .description("Fraud check results")
+                .tag("verdict", verdict)
+                .register(registry);
+    }
+
+    private Counter publishedEvents(String result) {
+        return Counter.builder("payment.events.published")
+                .description("Payment events sent to Kafka")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter historyEntries(String result) {
+        return Counter.builder("payment.history.entries")
+                .description("Payment status changes written to, dropped from or purged from the history")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter notModified(String source) {
+        return Counter.builder("payment.etag.not-modified")
+                .description("Conditional GETs answered with 304, from the version index or after reading the payments")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private Counter dedupEvents(String result) {
+        return Counter.builder("payment.dedup.events")
+                .description("Consumed payment events, processed as new or dropped as duplicates")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+
+    private final class ConsumerMeters {
+        private final Timer processing;
+        private final Counter failures;
+        private final AtomicLong lagMillis = new AtomicLong();
+
+        ConsumerMeters(String consumer) {
+            processing = Timer.builder("payment.events.consumed")
+                    .description("Time spent processing a consumed payment event")
+                    .tag("consumer", consumer)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            failures = Counter.builder("payment.events.consume.failures")
+                    .tag("consumer", consumer)
+                    .register(registry);
+            TimeGauge.builder("payment.events.consumer.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                    .description("Time between the last consumed event being published and being consumed")
+                    .tag("consumer", consumer)
+                    .register(registry);
+        }
+
+        void consumed(Instant eventTimestamp, long processingNanos) {
+            processing.record(processingNanos, NANOSECONDS);
+            if (eventTimestamp != null) {
+                lagMillis.set(Math.max(0, Duration.between(eventTimestamp, Instant.now()).toMillis()));
+            }
+        }
+    }
+}
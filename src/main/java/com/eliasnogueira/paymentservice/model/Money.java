@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact monetary amount held as a count of minor units (cents for the default scale of 2), so parsing, comparing,
+ * formatting and mapping amounts does not allocate {@link BigDecimal}s.
+ * <p>
+ * It is stored in a fixed-scale DECIMAL column through {@link MoneyConverter} and written to JSON as a plain number,
+ * so the API keeps its {@code "amount": 100.50} format.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(long minorUnits, int scale) implements Comparable<Money> {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    // any number of this many digits fits a long
+    private static final int MAX_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    public Money {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported scale: " + scale);
+        }
+    }
+
+    public static Money of(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_SCALE);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_SCALE);
+    }
+
+    /**
+     * @throws ArithmeticException when the amount has more decimals than {@code scale} or does not fit a long
+     */
+    public static Money of(BigDecimal amount, int scale) {
+        // checked before setScale, whose cost grows with the exponent: 1e1000000000 would otherwise take minutes
+        if (Math.abs(amount.scale()) > MAX_DIGITS || amount.precision() - amount.scale() > MAX_DIGITS) {
+            throw new ArithmeticException("Amount out of range");
+        }
+        return new Money(amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), scale);
+    }
+
+    public static Money parse(CharSequence text) {
+        return parse(text, DEFAULT_SCALE);
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 100.5} or {@code -3}, accepting trailing zeros beyond the scale.
+     *
+     * @throws NumberFormatException when the text is not a plain decimal, has more significant decimals than
+     *                               {@code scale} or does not fit a long
+     */
+    public static Money parse(CharSequence text, int scale) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int decimals = -1;
+        boolean hasDigits = false;
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && decimals < 0) {
+                    decimals = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException("Invalid amount: " + text);
+                }
+
+                hasDigits = true;
+                if (decimals == scale) {
+                    if (c != '0') throw new NumberFormatException("Amount has more than " + scale + " decimals: " + text);
+                    continue;
+                }
+                if (decimals >= 0) decimals++;
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            }
+            if (!hasDigits) throw new NumberFormatException("Invalid amount: " + text);
+
+            value = Math.multiplyExact(value, POWERS_OF_TEN[scale - Math.max(decimals, 0)]);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+        return new Money(negative ? -value : value, scale);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * Appends the plain decimal form, e.g. {@code 100.50}, without creating an intermediate string.
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        if (scale == 0) return builder.append(minorUnits);
+
+        long divisor = POWERS_OF_TEN[scale];
+        long integer = Math.abs(minorUnits / divisor);
+        long fraction = Math.abs(minorUnits % divisor);
+
+        if (minorUnits < 0) builder.append('-');
+        builder.append(integer).append('.');
+        for (long power = divisor / 10; power > 1 && fraction < power; power /= 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return scale == other.scale
+                ? Long.compare(minorUnits, other.minorUnits)
+                : toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(24)).toString();
+    }
+
+    static class Serializer extends StdSerializer<Money> {
+
+        // a long plus sign and decimal point always fits
+        private static final int MAX_LENGTH = 24;
+
+        private static final ThreadLocal<StringBuilder> TEXT = ThreadLocal.withInitial(() -> new StringBuilder(MAX_LENGTH));
+        private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+        Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            // binary formats such as CBOR and Smile need a typed number, text formats take the digits as they are
+            if (generator.canWriteBinaryNatively() && !generator.canWriteFormattedNumbers()) {
+                generator.writeNumber(money.toBigDecimal());
+                return;
+            }
+
+            var text = TEXT.get();
+            text.setLength(0);
+            money.appendTo(text);
+            var chars = CHARS.get();
+            text.getChars(0, text.length(), chars, 0);
+            generator.writeNumber(chars, 0, text.length());
+        }
+    }
+
+    static class Deserializer extends StdDeserializer<Money> {
+
+        Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            var token = parser.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    return new Money(Math.multiplyExact(parser.getLongValue(), POWERS_OF_TEN[DEFAULT_SCALE]), DEFAULT_SCALE);
+                }
+                if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+                    var text = parser.getText();
+                    return text.indexOf('e') >= 0 || text.indexOf('E') >= 0
+                            ? Money.of(new BigDecimal(text))
+                            : Money.parse(text);
+                }
+            } catch (ArithmeticException | NumberFormatException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
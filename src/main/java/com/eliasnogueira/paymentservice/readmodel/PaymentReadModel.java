@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.readmodel;
+
+import com.eliasnogueira.paymentservice.config.ReadModelConfig;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.dto.ReadModelStatus;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEventHandler;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Query side of the payments: a denormalized copy of every payment, materialized from the
+ * {@code payment-events} topic. Every instance uses its own consumer group so each one holds the full view.
+ * <p>
+ * Its lag is the time since it was last known to hold every published event: after a record that left no record
+ * pending on any partition, or an idle poll ({@code spring.kafka.listener.idle-event-interval}, or the in-process bus
+ * running out of events). A consumer that stalls, or falls behind, therefore stops serving reads once that time
+ * exceeds {@code payment.read-model.max-lag}, even when the last event it applied was fresh.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentReadModel implements PaymentEventHandler {
+
+    private static final String CONSUMER = "payment-read-model";
+
+    private final ReadModelConfig readModelConfig;
+    private final PaymentMetrics metrics;
+    private final Map<UUID, Entry> payments = new ConcurrentHashMap<>();
+
+    // records still to be read on each partition, as of the last record taken from it
+    private final Map<Integer, Long> pendingRecords = new ConcurrentHashMap<>();
+
+    private volatile Instant lastAppliedAt;
+    private volatile long lastPropagationDelayMillis;
+    private volatile long caughtUpAtMillis;
+
+    @KafkaListener(id = CONSUMER, topics = "payment-events",
+            groupId = "payment-read-model-#{T(java.util.UUID).randomUUID()}",
+            autoStartup = "${payment.read-model.enabled:false}")
+    public void consume(PaymentEvent event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition, Consumer<?, ?> consumer) {
+        apply(event);
+
+        // computed from the last fetch, without a call to the broker; unknown until the first fetch response
+        var lag = consumer.currentLag(new TopicPartition(topic, partition));
+        if (lag.isEmpty()) return;
+        pendingRecords.put(partition, lag.getAsLong());
+        if (getPendingRecords() == 0) caughtUpAtMillis = System.currentTimeMillis();
+    }
+
+    @EventListener(condition = "event.listenerId.startsWith('" + CONSUMER + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        caughtUp();
+    }
+
+    @Override
+    public void apply(PaymentEvent event) {
+        long start = System.nanoTime();
+        var payment = event.getPayment();
+        if (payment == null || payment.getId() == null) {
+            log.warn("Ignoring {} event without payment ID", event.getType());
+            metrics.eventFailed(CONSUMER);
+            return;
+        }
+
+        var incoming = new Entry(PaymentResponse.from(payment), event.getTimestamp());
+
+        // events are keyed by payment ID, so a stale copy can only show up after a redelivery
+        payments.merge(payment.getId(), incoming, (current, candidate) -> candidate.isOlderThan(current) ? current : candidate);
+
+        var now = Instant.now();
+        lastAppliedAt = now;
+        if (event.getTimestamp() != null) {
+            lastPropagationDelayMillis = Math.max(0, Duration.between(event.getTimestamp(), now).toMillis());
+        }
+        metrics.eventConsumed(CONSUMER, event.getTimestamp(), System.nanoTime() - start);
+    }
+
+    @Override
+    public String name() {
+        return CONSUMER;
+    }
+
+    @Override
+    public boolean isActive() {
+        return readModelConfig.isEnabled();
+    }
+
+    /**
+     * Every published event has been applied; called when the consumer polled and found nothing new.
+     */
+    @Override
+    public void caughtUp() {
+        pendingRecords.clear();
+        caughtUpAtMillis = System.currentTimeMillis();
+    }
+
+    public Optional<PaymentResponse> findById(UUID paymentId) {
+        return Optional.ofNullable(payments.get(paymentId)).map(Entry::payment);
+    }
+
+    public List<PaymentResponse> findAll() {
+        return payments.values().stream().map(Entry::payment).toList();
+    }
+
+    /**
+     * Whether reads can be answered from here instead of the primary database.
+     */
+    public boolean isServing() {
+        return readModelConfig.isEnabled() && caughtUpAtMillis != 0
+                && getLag().compareTo(readModelConfig.getMaxLag()) <= 0;
+    }
+
+    /**
+     * How far behind the events the read model may be: the time since it was last known to be caught up, and at
+     * least the time the last applied event took to get here.
+     */
+    public Duration getLag() {
+        long sinceCaughtUp = caughtUpAtMillis == 0 ? 0 : System.currentTimeMillis() - caughtUpAtMillis;
+        return Duration.ofMillis(Math.max(lastPropagationDelayMillis, sinceCaughtUp));
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public ReadModelStatus getStatus() {
+        return ReadModelStatus.builder()
+                .enabled(readModelConfig.isEnabled())
+                .serving(isServing())
+                .size(payments.size())
+                .lagMillis(getLag().toMillis())
+                .pendingRecords(getPendingRecords())
+                .lastAppliedAt(lastAppliedAt)
+                .build();
+    }
+
+    private record Entry(PaymentResponse payment, Instant eventTimestamp) {
+
+        boolean isOlderThan(Entry other) {
+            return eventTimestamp != null && other.eventTimestamp != null && eventTimestamp.isBefore(other.eventTimestamp);
+        }
+    }
+}
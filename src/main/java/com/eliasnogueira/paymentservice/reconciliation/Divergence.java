@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reconciliation;
+
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.model.Payment;
+
+import java.time.Instant;
+
+/**
+ * How a payment row disagrees with the latest event published for it.
+ */
+public enum Divergence {
+
+    // no event at all: the create event was lost
+    MISSING(true),
+    // no event at all, but the row was last changed before the oldest event left on the topic, so its events may
+    // have aged out of retention. Publishing it again would repeat every retention period, so it is only reported
+    EXPIRED(false),
+    // the latest event is of an older version: an update event was lost
+    STALE(true),
+    // the latest event is of a newer version than the row: the write that published it was rolled back, or the row
+    // was restored from older data. Publishing the row again would not help, consumers never go back a version
+    AHEAD(false),
+    // same version, another status
+    CONFLICT(false);
+
+    private final boolean repairable;
+
+    Divergence(boolean repairable) {
+        this.repairable = repairable;
+    }
+
+    /**
+     * Whether publishing the row again brings the consumers back in line with it.
+     */
+    public boolean isRepairable() {
+        return repairable;
+    }
+
+    /**
+     * The divergence of the row from its latest event, or null when they agree. {@code retainedSince} is the one of
+     * {@link PaymentEventView.Events}.
+     */
+    public static Divergence of(Payment row, PaymentEventView.LatestEvent latest, Instant retainedSince) {
+        if (latest == null) {
+            boolean agedOut = retainedSince != null
+                    && (row.getUpdatedAt() == null || row.getUpdatedAt().isBefore(retainedSince));
+            return agedOut ? EXPIRED : MISSING;
+        }
+        long version = PaymentResponse.versionOf(row);
+        if (latest.version() < version) return STALE;
+        if (latest.version() > version) return AHEAD;
+        return latest.status() == row.getStatus() ? null : CONFLICT;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reconciliation;
+
+import com.eliasnogueira.paymentservice.config.ReconciliationConfig;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentKafkaProducer;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Latest event of every payment on {@code payment-events}, as log compaction would leave the topic: read from the
+ * beginning up to the end offsets seen when reading started, keeping one entry per payment, the one of its highest
+ * version. Only the version and the status are kept.
+ * <p>
+ * The topic is not compacted, so events older than its retention are gone. The timestamp of the oldest event left on
+ * a partition that lost some is kept as well: a payment last changed before it may have had events that aged out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!in-process-events")
+@ConditionalOnProperty(prefix = "payment.reconciliation", name = "enabled", havingValue = "true")
+public class PaymentEventView {
+
+    private static final String TOPIC = PaymentKafkaProducer.TOPIC;
+
+    private final ReconciliationConfig config;
+    private final ConsumerFactory<String, PaymentEvent> consumerFactory;
+
+    public record LatestEvent(long version, PaymentStatus status) {
+    }
+
+    /**
+     * @param retainedSince the newest of the oldest event timestamps of the partitions that lost events to
+     *                      retention, or {@code null} when every event ever published is still there
+     */
+    public record Events(Map<UUID, LatestEvent> latest, Instant retainedSince) {
+    }
+
+    public Events read() {
+        try (var consumer = createConsumer()) {
+            var partitions = consumer.partitionsFor(TOPIC).stream()
+                    .map(info -> new TopicPartition(TOPIC, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            var beginningOffsets = consumer.beginningOffsets(partitions);
+            var endOffsets = consumer.endOffsets(partitions);
+            consumer.seekToBeginning(partitions);
+
+            Instant retainedSince = null;
+            Set<Integer> truncated = new HashSet<>();
+            for (var partition : partitions) {
+                if (beginningOffsets.get(partition) == 0) continue;
+                // every event of the partition aged out, none of its payments can be told apart from a lost event
+                if (beginningOffsets.get(partition) >= endOffsets.get(partition)) retainedSince = Instant.now();
+                else truncated.add(partition.partition());
+            }
+
+            Map<UUID, LatestEvent> latest = new HashMap<>();
+            long events = 0;
+            while (!caughtUp(consumer, endOffsets)) {
+                try {
+                    for (var record : consumer.poll(config.getPollTimeout())) {
+                        if (truncated.remove(record.partition())) {
+                            retainedSince = latestOf(retainedSince, Instant.ofEpochMilli(record.timestamp()));
+                        }
+                        var payment = record.value() == null ? null : record.value().getPayment();
+                        if (payment == null || payment.getId() == null) continue;
+                        events++;
+                        // a redelivered or re-published copy can come after a newer event
+                        latest.merge(payment.getId(),
+                                new LatestEvent(PaymentResponse.versionOf(payment), payment.getStatus()),
+                                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+                    }
+                } catch (RecordDeserializationException e) {
+                    log.warn("Skipping undeserializable record at {}-{}", e.topicPartition(), e.offset(), e);
+                    consumer.seek(e.topicPartition(), e.offset() + 1);
+                }
+            }
+            log.info("Read {} events of {} payments from {}, retained since {}", events, latest.size(), TOPIC,
+                    retainedSince == null ? "the start" : retainedSince);
+            return new Events(latest, retainedSince);
+        }
+    }
+
+    private static Instant latestOf(Instant current, Instant candidate) {
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private boolean caughtUp(Consumer<String, PaymentEvent> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private Consumer<String, PaymentEvent> createConsumer() {
+        var properties = new Properties();
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, config.getPollBatchSize());
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024 * 1024);
+        properties.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+        return consumerFactory.createConsumer("payment-reconciliation-" + UUID.randomUUID(), null, null, properties);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reconciliation;
+
+import com.eliasnogueira.paymentservice.config.ReconciliationConfig;
+import com.eliasnogueira.paymentservice.dto.ReconciliationReport;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.events.PaymentEventPublisher;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Payment;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares every row of {@code payments} with the latest event published for it, as read by
+ * {@link PaymentEventView}, to find the writes whose event never made it to the topic. Where the event is missing or
+ * stale the row is published again; the other divergences are only reported.
+ * <p>
+ * The table is cut into keyset chunks of {@code payment.reconciliation.chunk-size} payment IDs. One thread walks the
+ * primary key index for the chunk boundaries, and up to {@code payment.reconciliation.parallelism} chunks are read and
+ * compared at the same time, each on a virtual thread, paced to {@code payment.reconciliation.rows-per-second} in
+ * total. Rows changed within {@code payment.reconciliation.settle-time} of reading the topic are skipped: their event
+ * may still be on its way, or in the spool.
+ */
+@Slf4j
+@Component
+@Profile("!in-process-events")
+@ConditionalOnProperty(prefix = "payment.reconciliation", name = "enabled", havingValue = "true")
+public class PaymentReconciler {
+
+    private final ReconciliationConfig config;
+    private final SessionFactory sessionFactory;
+    private final PaymentEventView eventView;
+    private final PaymentEventPublisher publisher;
+    private final PaymentMetrics metrics;
+
+    private volatile long rowsPerSecond;
+
+    public PaymentReconciler(ReconciliationConfig config, EntityManagerFactory entityManagerFactory,
+                             PaymentEventView eventView, PaymentEventPublisher publisher, PaymentMetrics metrics) {
+        this.config = config;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.eventView = eventView;
+        this.publisher = publisher;
+        this.metrics = metrics;
+
+        metrics.gauge("payment.reconciliation.rate", "Rows per second compared by the last reconciliation",
+                () -> rowsPerSecond);
+    }
+
+    public synchronized ReconciliationReport reconcile() throws InterruptedException {
+        long start = System.nanoTime();
+        var settledBefore = Payment.now().minus(config.getSettleTime());
+        var run = new Run(eventView.read(), settledBefore);
+
+        var permits = new Semaphore(config.getParallelism());
+        try (var chunks = Executors.newVirtualThreadPerTaskExecutor()) {
+            UUID after = null;
+            List<UUID> ids;
+            do {
+                ids = nextChunk(after);
+                if (ids.isEmpty()) break;
+
+                UUID from = after;
+                UUID to = ids.getLast();
+                permits.acquire();
+                chunks.submit(() -> {
+                    try {
+                        reconcileChunk(run, from, to);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        run.failedChunks.incrementAndGet();
+                        log.error("Reconciling the payments after {} up to {} failed", from, to, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                after = to;
+            } while (ids.size() == config.getChunkSize());
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long rows = run.rows.sum();
+        rowsPerSecond = elapsedNanos == 0 ? 0 : (long) (rows * 1_000_000_000d / elapsedNanos);
+        var report = run.report(rows, NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond);
+        log.info("Reconciliation finished: {} rows in {} ms ({} rows/sec), {} skipped, divergences {}, {} republished",
+                rows, report.elapsedMillis(), rowsPerSecond, report.skipped(), report.divergences(),
+                report.republished());
+        return report;
+    }
+
+    // only the primary key index is read here, the rows are read by the chunk
+    private List<UUID> nextChunk(UUID after) {
+        try (var session = sessionFactory.openStatelessSession()) {
+            var query = after == null
+                    ? session.createSelectionQuery("select p.id from Payment p order by p.id", UUID.class)
+                    : session.createSelectionQuery("select p.id from Payment p where p.id > :after order by p.id",
+                            UUID.class).setParameter("after", after);
+            return query.setMaxResults(config.getChunkSize()).getResultList();
+        }
+    }
+
+    private void reconcileChunk(Run run, UUID from, UUID to) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Payment> rows;
+        try (var session = sessionFactory.openStatelessSession()) {
+            var query = from == null
+                    ? session.createSelectionQuery("from Payment p where p.id <= :to", Payment.class)
+                    : session.createSelectionQuery("from Payment p where p.id > :from and p.id <= :to", Payment.class)
+                            .setParameter("from", from);
+            rows = query.setParameter("to", to).getResultList();
+        }
+
+        var republish = new ArrayList<PaymentEvent>();
+        for (var row : rows) {
+            if (row.getUpdatedAt() != null && !row.getUpdatedAt().isBefore(run.settledBefore)) {
+                run.skipped.increment();
+                continue;
+            }
+            var divergence = Divergence.of(row, run.events.latest().get(row.getId()), run.events.retainedSince());
+            if (divergence == null) continue;
+
+            boolean repair = config.isRepublish() && divergence.isRepairable();
+            if (repair) {
+                var type = divergence == Divergence.MISSING ? EventType.CREATED : EventType.UPDATED;
+                republish.add(new PaymentEvent(Instant.now(), type, row));
+            } else {
+                log.warn("Payment {} diverges from its latest event: {}", row.getId(), divergence);
+                run.flag(row.getId(), config.getMaxReported());
+            }
+            run.divergences.get(divergence).increment();
+            metrics.divergence(divergence.name().toLowerCase(), repair);
+        }
+
+        publisher.sendAll(republish);
+        run.republished.add(republish.size());
+        run.rows.add(rows.size());
+        metrics.paymentsReconciled(rows.size());
+
+        // every chunk keeps to its share of the rate
+        long paced = (long) (rows.size() * 1_000_000_000d * config.getParallelism() / config.getRowsPerSecond());
+        NANOSECONDS.sleep(paced - (System.nanoTime() - start));
+    }
+
+    private static final class Run {
+
+        final PaymentEventView.Events events;
+        // rows changed at or after this are not compared yet
+        final Instant settledBefore;
+        final LongAdder rows = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder republished = new LongAdder();
+        final Map<Divergence, LongAdder> divergences = new EnumMap<>(Divergence.class);
+        final ConcurrentLinkedQueue<UUID> flagged = new ConcurrentLinkedQueue<>();
+        final AtomicInteger flaggedCount = new AtomicInteger();
+        final AtomicInteger failedChunks = new AtomicInteger();
+
+        Run(PaymentEventView.Events events, Instant settledBefore) {
+            this.events = events;
+            this.settledBefore = settledBefore;
+            for (var divergence : Divergence.values()) {
+                divergences.put(divergence, new LongAdder());
+            }
+        }
+
+        void flag(UUID paymentId, int max) {
+            if (flaggedCount.getAndIncrement() < max) flagged.add(paymentId);
+        }
+
+        ReconciliationReport report(long rows, long elapsedMillis, long rowsPerSecond) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            divergences.forEach((divergence, count) -> counts.put(divergence.name(), count.sum()));
+            return new ReconciliationReport(rows, skipped.sum(), counts, republished.sum(), List.copyOf(flagged),
+                    failedChunks.get(), elapsedMillis, rowsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.replay;
+
+import com.eliasnogueira.paymentservice.config.ReplayConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.model.Payment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the {@code payments} table from {@code payment-events}, reading the topic in large batches and
+ * upserting the latest state of each payment in the batch. Runs once at startup when {@code payment.replay.enabled}
+ * is set and stops at the end offsets seen when it started.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.replay", name = "enabled", havingValue = "true")
+public class PaymentEventReplayer implements ApplicationRunner {
+
+    private static final String TOPIC = "payment-events";
+
+    private final ReplayConfig replayConfig;
+    private final ConsumerFactory<String, PaymentEvent> consumerFactory;
+    private final PaymentUpserter upserter;
+    private final PaymentSnapshotStore snapshotStore;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        var report = replay();
+        log.info("Replay finished: {} events applied to {} payments in {} ({} events/sec), {} skipped",
+                report.events(), report.payments(), report.elapsed(), report.eventsPerSecond(), report.skipped());
+    }
+
+    public ReplayReport replay() throws IOException {
+        try (var consumer = createConsumer()) {
+            var partitions = consumer.partitionsFor(TOPIC).stream()
+                    .map(info -> new TopicPartition(TOPIC, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            var endOffsets = consumer.endOffsets(partitions);
+            seekToStart(consumer, partitions);
+
+            var progress = new ReplayProgress(replayConfig.getProgressInterval());
+            long eventsAtLastSnapshot = 0;
+
+            while (!caughtUp(consumer, endOffsets)) {
+                var latest = poll(consumer, progress);
+                upserter.upsert(latest.values());
+                progress.applied(latest.keySet());
+
+                if (progress.events() - eventsAtLastSnapshot >= replayConfig.getSnapshotInterval()) {
+                    snapshotStore.write(positions(consumer, partitions));
+                    eventsAtLastSnapshot = progress.events();
+                }
+            }
+
+            if (progress.events() > eventsAtLastSnapshot) {
+                snapshotStore.write(positions(consumer, partitions));
+            }
+            return progress.report();
+        }
+    }
+
+    // keeps only the newest state per payment, so each batch costs at most one write per payment
+    private Map<UUID, Payment> poll(Consumer<String, PaymentEvent> consumer, ReplayProgress progress) {
+        Map<UUID, ConsumerRecord<String, PaymentEvent>> latest = new LinkedHashMap<>();
+        try {
+            for (var record : consumer.poll(replayConfig.getPollTimeout())) {
+                progress.read();
+                var payment = record.value() == null ? null : record.value().getPayment();
+                if (payment == null || payment.getId() == null) {
+                    progress.skipped();
+                    continue;
+                }
+                latest.merge(payment.getId(), record, (current, candidate) ->
+                        PaymentUpserter.isNewer(candidate.value().getPayment().getVersion(),
+                                current.value().getPayment().getVersion())
+                                ? candidate : current);
+            }
+        } catch (RecordDeserializationException e) {
+            log.warn("Skipping undeserializable record at {}-{}", e.topicPartition(), e.offset(), e);
+            consumer.seek(e.topicPartition(), e.offset() + 1);
+            progress.skipped();
+        }
+
+        return latest.values().stream()
+                .map(record -> record.value().getPayment())
+                .collect(Collectors.toMap(Payment::getId, Function.identity(), (a, b) -> b, LinkedHashMap::new));
+    }
+
+    private void seekToStart(Consumer<String, PaymentEvent> consumer, List<TopicPartition> partitions) throws IOException {
+        if (replayConfig.getFromOffset() != null || !replayConfig.getFromOffsets().isEmpty()) {
+            log.info("Replaying {} from offset {}, per partition {}", TOPIC, replayConfig.getFromOffset(),
+                    replayConfig.getFromOffsets());
+            for (var partition : partitions) {
+                var offset = replayConfig.getFromOffsets().getOrDefault(partition.partition(), replayConfig.getFromOffset());
+                if (offset != null) {
+                    consumer.seek(partition, offset);
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+            return;
+        }
+
+        if (replayConfig.getFromTimestamp() != null) {
+            log.info("Replaying {} from {}", TOPIC, replayConfig.getFromTimestamp());
+            var timestamp = replayConfig.getFromTimestamp().toEpochMilli();
+            var offsets = consumer.offsetsForTimes(partitions.stream()
+                    .collect(Collectors.toMap(Function.identity(), partition -> timestamp)));
+            var endOffsets = consumer.endOffsets(partitions);
+            offsets.forEach((partition, offset) ->
+                    consumer.seek(partition, offset != null ? offset.offset() : endOffsets.get(partition)));
+            return;
+        }
+
+        var snapshot = snapshotStore.latest();
+        if (snapshot.isPresent()) {
+            var restored = snapshotStore.restore(snapshot.get(), replayConfig.getBatchSize(), upserter::upsert);
+            log.info("Restored {} payments from snapshot {}", restored, snapshot.get().file());
+            partitions.forEach(partition ->
+                    consumer.seek(partition, snapshot.get().offsets().getOrDefault(partition.partition(), 0L)));
+            return;
+        }
+
+        log.info("No snapshot found, replaying {} from the beginning", TOPIC);
+        consumer.seekToBeginning(partitions);
+    }
+
+    private boolean caughtUp(Consumer<String, PaymentEvent> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private Map<Integer, Long> positions(Consumer<String, PaymentEvent> consumer, List<TopicPartition> partitions) {
+        Map<Integer, Long> positions = new HashMap<>();
+        partitions.forEach(partition -> positions.put(partition.partition(), consumer.position(partition)));
+        return positions;
+    }
+
+    private Consumer<String, PaymentEvent> createConsumer() {
+        var properties = new Properties();
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, replayConfig.getBatchSize());
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024 * 1024);
+        properties.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+        return consumerFactory.createConsumer("payment-replay-" + UUID.randomUUID(), null, null, properties);
+    }
+}
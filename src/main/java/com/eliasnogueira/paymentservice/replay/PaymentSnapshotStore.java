@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.replay;
+
+import com.eliasnogueira.paymentservice.config.ReplayConfig;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Point-in-time copies of the {@code payments} table together with the {@code payment-events} offsets they
+ * reflect, so a replay can restore the copy and continue from those offsets instead of the beginning of the topic.
+ * <p>
+ * A snapshot is a gzip file holding a header line followed by one JSON payment per line.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.replay", name = "enabled", havingValue = "true")
+public class PaymentSnapshotStore {
+
+    private static final String PREFIX = "payments-";
+    private static final String SUFFIX = ".snapshot.gz";
+    private static final int SNAPSHOTS_TO_KEEP = 2;
+
+    private final ReplayConfig replayConfig;
+    private final ObjectMapper objectMapper;
+    private final SessionFactory sessionFactory;
+
+    public PaymentSnapshotStore(ReplayConfig replayConfig, ObjectMapper objectMapper,
+                                EntityManagerFactory entityManagerFactory) {
+        this.replayConfig = replayConfig;
+        this.objectMapper = objectMapper;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public Path write(Map<Integer, Long> offsets) throws IOException {
+        var dir = Files.createDirectories(replayConfig.getSnapshotDir());
+        var createdAt = Instant.now();
+        var file = dir.resolve(PREFIX + createdAt.toEpochMilli() + SUFFIX);
+        var temporary = dir.resolve(file.getFileName() + ".tmp");
+
+        long rows = 0;
+        try (var writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temporary)), UTF_8));
+             var session = sessionFactory.openStatelessSession();
+             var payments = session.createSelectionQuery("from Payment", Payment.class)
+                     .setFetchSize(1000).scroll(ScrollMode.FORWARD_ONLY)) {
+            writeLine(writer, new SnapshotHeader(createdAt, offsets));
+            while (payments.next()) {
+                writeLine(writer, payments.get());
+                rows++;
+            }
+        }
+
+        Files.move(temporary, file, ATOMIC_MOVE);
+        log.info("Snapshot {} written with {} payments at offsets {}", file, rows, offsets);
+        deleteOlderSnapshots();
+        return file;
+    }
+
+    public Optional<Snapshot> latest() throws IOException {
+        var files = list();
+        if (files.isEmpty()) return Optional.empty();
+
+        var file = files.getLast();
+        try (var reader = open(file)) {
+            var header = objectMapper.readValue(reader.readLine(), SnapshotHeader.class);
+            return Optional.of(new Snapshot(file, header.createdAt(), header.offsets()));
+        }
+    }
+
+    /**
+     * Streams the payments of a snapshot to {@code sink} in batches of {@code batchSize}.
+     */
+    public long restore(Snapshot snapshot, int batchSize, Consumer<List<Payment>> sink) throws IOException {
+        long restored = 0;
+        try (var reader = open(snapshot.file())) {
+            reader.readLine(); // header
+
+            var batch = new ArrayList<Payment>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(objectMapper.readValue(line, Payment.class));
+                if (batch.size() == batchSize) {
+                    sink.accept(batch);
+                    restored += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            sink.accept(batch);
+            restored += batch.size();
+        }
+        return restored;
+    }
+
+    private List<Path> list() throws IOException {
+        var dir = replayConfig.getSnapshotDir();
+        if (!Files.isDirectory(dir)) return List.of();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private void deleteOlderSnapshots() throws IOException {
+        var files = list();
+        for (var file : files.subList(0, Math.max(0, files.size() - SNAPSHOTS_TO_KEEP))) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private BufferedReader open(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), UTF_8));
+    }
+
+    private void writeLine(BufferedWriter writer, Object value) throws IOException {
+        writer.write(objectMapper.writeValueAsString(value));
+        writer.newLine();
+    }
+
+    public record Snapshot(Path file, Instant createdAt, Map<Integer, Long> offsets) {
+    }
+
+    record SnapshotHeader(Instant createdAt, Map<Integer, Long> offsets) {
+    }
+}
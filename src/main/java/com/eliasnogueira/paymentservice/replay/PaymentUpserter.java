@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.replay;
+
+import com.eliasnogueira.paymentservice.model.Payment;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes full payment states keyed by their ID, inserting or updating as needed, so applying the same state
+ * twice leaves the table unchanged. A state older than the stored one, by {@code version}, is skipped, so events
+ * applied out of order, such as a redriven dead letter, don't roll a payment back.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.replay", name = "enabled", havingValue = "true")
+public class PaymentUpserter {
+
+    // SQL Server takes at most 2100 parameters per statement
+    private static final int IDS_PER_QUERY = 1000;
+    private static final int ROWS_PER_INSERT = 300;
+
+    private final SessionFactory sessionFactory;
+
+    public PaymentUpserter(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Whether a state at version {@code candidate} is at least as recent as one at version {@code current}.
+     */
+    public static boolean isNewer(long candidate, long current) {
+        return candidate >= current;
+    }
+
+    public void upsert(Collection<Payment> payments) {
+        if (payments.isEmpty()) return;
+
+        try (var session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(payments.size());
+            var transaction = session.beginTransaction();
+            try {
+                var stored = versions(session, payments.stream().map(Payment::getId).toList());
+                var created = new ArrayList<Payment>();
+                for (var payment : payments) {
+                    if (!stored.containsKey(payment.getId())) {
+                        created.add(payment);
+                    } else if (isNewer(payment.getVersion(), stored.get(payment.getId()))) {
+                        update(session, payment);
+                    }
+                }
+                insert(session, created);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // StatelessSession.update() would expect the stored version to equal the event's and then increment it
+    private static void update(StatelessSession session, Payment payment) {
+        session.createMutationQuery("""
+                        update Payment p set p.transactionId = :transactionId, p.amount = :amount, p.status = :status,
+                        p.createdAt = :createdAt, p.updatedAt = :updatedAt, p.version = :version
+                        where p.id = :id and p.version <= :version""")
+                .setParameter("id", payment.getId())
+                .setParameter("transactionId", payment.getTransactionId())
+                .setParameter("amount", payment.getAmount())
+                .setParameter("status", payment.getStatus())
+                .setParameter("createdAt", payment.getCreatedAt())
+                .setParameter("updatedAt", payment.getUpdatedAt())
+                .setParameter("version", payment.getVersion())
+                .executeUpdate();
+    }
+
+    // StatelessSession.insert() would generate a new ID, and upsert() doesn't work with H2's enum columns
+    private static void insert(StatelessSession session, List<Payment> payments) {
+        for (int from = 0; from < payments.size(); from += ROWS_PER_INSERT) {
+            var rows = payments.subList(from, Math.min(payments.size(), from + ROWS_PER_INSERT));
+            var hql = new StringBuilder("insert into Payment (id, transactionId, amount, status, createdAt, updatedAt, version) values ");
+            for (int i = 0; i < rows.size(); i++) {
+                if (i > 0) hql.append(", ");
+                hql.append(("(:id%1$d, :transactionId%1$d, :amount%1$d, :status%1$d, :createdAt%1$d, :updatedAt%1$d, "
+                        + ":version%1$d)").formatted(i));
+            }
+
+            var insert = session.createMutationQuery(hql.toString());
+            for (int i = 0; i < rows.size(); i++) {
+                var payment = rows.get(i);
+                insert.setParameter("id" + i, payment.getId())
+                        .setParameter("transactionId" + i, payment.getTransactionId())
+                        // the column value: parameters in an insert aren't typed by the attribute's converter
+                        .setParameter("amount" + i, payment.getAmount().toBigDecimal())
+                        .setParameter("status" + i, payment.getStatus())
+                        .setParameter("createdAt" + i, payment.getCreatedAt())
+                        .setParameter("updatedAt" + i, payment.getUpdatedAt())
+                        .setParameter("version" + i, payment.getVersion());
+            }
+            insert.executeUpdate();
+        }
+    }
+
+    private static Map<UUID, Long> versions(StatelessSession session, List<UUID> ids) {
+        Map<UUID, Long> versions = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IDS_PER_QUERY) {
+            session.createSelectionQuery("select p.id, p.version from Payment p where p.id in :ids", Object[].class)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + IDS_PER_QUERY)))
+                    .getResultList()
+                    .forEach(row -> versions.put((UUID) row[0], (Long) row[1]));
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.replay;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Slf4j
+class ReplayProgress {
+
+    private final long startedAt = System.nanoTime();
+    private final long logIntervalNanos;
+
+    private long lastLoggedAt = startedAt;
+    private long eventsAtLastLog;
+    private long events;
+    // the same payment is usually written in many batches
+    private final Set<UUID> payments = new HashSet<>();
+    private long skipped;
+
+    ReplayProgress(Duration logInterval) {
+        this.logIntervalNanos = logInterval.toNanos();
+    }
+
+    void read() {
+        events++;
+    }
+
+    void skipped() {
+        skipped++;
+    }
+
+    void applied(Collection<UUID> paymentIds) {
+        payments.addAll(paymentIds);
+
+        var now = System.nanoTime();
+        if (now - lastLoggedAt >= logIntervalNanos) {
+            log.info("Replayed {} events ({} events/sec)", events, perSecond(events - eventsAtLastLog, now - lastLoggedAt));
+            lastLoggedAt = now;
+            eventsAtLastLog = events;
+        }
+    }
+
+    long events() {
+        return events;
+    }
+
+    ReplayReport report() {
+        var elapsed = System.nanoTime() - startedAt;
+        return new ReplayReport(events, payments.size(), skipped, Duration.ofNanos(elapsed), perSecond(events, elapsed));
+    }
+
+    private static long perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1_000_000_000L / nanos;
+    }
+}
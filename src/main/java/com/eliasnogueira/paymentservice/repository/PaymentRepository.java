@@ -31,4 +31,6 @@ import java.util.UUID;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+
+    boolean existsByTransactionId(String transactionId);
 }
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.repository;
+
+import com.eliasnogueira.paymentservice.model.Payment;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * {@link Sort} applied in memory, for the {@link PaymentRepository} implementations that can not sort in a query.
+ */
+public final class PaymentSort {
+
+    private static final Comparator<Instant> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private PaymentSort() {
+    }
+
+    public static Comparator<Payment> comparator(Sort sort) {
+        Comparator<Payment> comparator = (first, second) -> 0;
+        for (var order : sort) {
+            Comparator<Payment> property = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Payment::getId);
+                case "transactionId" -> Comparator.comparing(Payment::getTransactionId);
+                case "amount" -> Comparator.comparing(Payment::getAmount);
+                case "status" -> Comparator.comparing(Payment::getStatus);
+                case "createdAt" -> Comparator.comparing(Payment::getCreatedAt, NULLS_FIRST);
+                case "updatedAt" -> Comparator.comparing(Payment::getUpdatedAt, NULLS_FIRST);
+                default -> throw new InvalidDataAccessApiUsageException("Unknown payment property: " + order.getProperty());
+            };
+            comparator = comparator.thenComparing(order.isAscending() ? property : property.reversed());
+        }
+        return comparator;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.representation;
+
+import com.eliasnogueira.paymentservice.config.CompressionConfig;
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings applied to API responses.
+ */
+public enum ContentCoding {
+    ZSTD("zstd") {
+        @Override
+        public byte[] encode(byte[] body, CompressionConfig config) {
+            return Zstd.compress(body, config.getZstdLevel());
+        }
+    },
+    GZIP("gzip") {
+        @Override
+        public byte[] encode(byte[] body, CompressionConfig config) {
+            var output = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (var gzip = new GZIPOutputStream(output) {
+                {
+                    def.setLevel(config.getGzipLevel());
+                }
+            }) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return output.toByteArray();
+        }
+    };
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public abstract byte[] encode(byte[] body, CompressionConfig config);
+
+    public static ContentCoding of(String token) {
+        for (var coding : values()) {
+            if (coding.token.equalsIgnoreCase(token)) return coding;
+        }
+        throw new IllegalArgumentException("Unsupported content coding: " + token);
+    }
+
+    /**
+     * The first of {@code preferred} that {@code Accept-Encoding} allows, or null when none is.
+     */
+    public static ContentCoding negotiate(String acceptEncoding, List<String> preferred) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return null;
+        for (var token : preferred) {
+            if (accepts(acceptEncoding, token)) return of(token);
+        }
+        return null;
+    }
+
+    private static boolean accepts(String acceptEncoding, String token) {
+        Boolean wildcard = null;
+        for (var entry : acceptEncoding.split(",")) {
+            var parts = entry.split(";");
+            var name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean allowed = parts.length < 2 || !isZeroQuality(parts[1]);
+            if (name.equals(token)) return allowed;
+            if (name.equals("*")) wildcard = allowed;
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        var value = parameter.trim();
+        if (!value.startsWith("q=")) return false;
+        try {
+            return Double.parseDouble(value.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.representation;
+
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes and reads {@link PaymentResponse} as the {@code PaymentResponse} and {@code PaymentList} messages of
+ * {@code payment.proto}, field by field, so the DTO stays the one the JSON formats use instead of a generated class.
+ */
+public final class PaymentProtobufCodec {
+
+    private static final int PAYMENT_ID = 1;
+    private static final int PAYMENT_TRANSACTION_ID = 2;
+    private static final int PAYMENT_AMOUNT = 3;
+    private static final int PAYMENT_STATUS = 4;
+    private static final int MONEY_MINOR_UNITS = 1;
+    private static final int MONEY_SCALE = 2;
+    private static final int LIST_PAYMENTS = 1;
+    private static final int LIST_PAYMENTS_TAG = (LIST_PAYMENTS << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int UUID_BYTES = 2 * Long.BYTES;
+    private static final int ID_SIZE = CodedOutputStream.computeByteArraySize(PAYMENT_ID, new byte[UUID_BYTES]);
+
+    private PaymentProtobufCodec() {
+    }
+
+    public static void writeList(List<PaymentResponse> payments, CodedOutputStream output) throws IOException {
+        for (var payment : payments) {
+            output.writeTag(LIST_PAYMENTS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(size(payment));
+            write(payment, output);
+        }
+    }
+
+    public static void write(PaymentResponse payment, CodedOutputStream output) throws IOException {
+        if (payment.getId() != null) output.writeByteArray(PAYMENT_ID, bytes(payment.getId()));
+        if (payment.getTransactionId() != null) output.writeString(PAYMENT_TRANSACTION_ID, payment.getTransactionId());
+        if (payment.getAmount() != null) {
+            output.writeTag(PAYMENT_AMOUNT, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(size(payment.getAmount()));
+            output.writeSInt64(MONEY_MINOR_UNITS, payment.getAmount().minorUnits());
+            output.writeInt32(MONEY_SCALE, payment.getAmount().scale());
+        }
+        if (payment.getStatus() != null) output.writeEnum(PAYMENT_STATUS, number(payment.getStatus()));
+    }
+
+    public static List<PaymentResponse> readList(CodedInputStream input) throws IOException {
+        var payments = new ArrayList<PaymentResponse>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            if (tag == LIST_PAYMENTS_TAG) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                payments.add(read(input));
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return payments;
+    }
+
+    public static PaymentResponse read(CodedInputStream input) throws IOException {
+        var payment = new PaymentResponse();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case PAYMENT_ID -> payment.setId(uuid(input.readByteArray()));
+                case PAYMENT_TRANSACTION_ID -> payment.setTransactionId(input.readStringRequireUtf8());
+                case PAYMENT_AMOUNT -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    payment.setAmount(readMoney(input));
+                    input.popLimit(limit);
+                }
+                case PAYMENT_STATUS -> payment.setStatus(status(input.readEnum()));
+                default -> input.skipField(tag);
+            }
+        }
+        return payment;
+    }
+
+    private static Money readMoney(CodedInputStream input) throws IOException {
+        long minorUnits = 0;
+        int scale = 0;
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case MONEY_MINOR_UNITS -> minorUnits = input.readSInt64();
+                case MONEY_SCALE -> scale = input.readInt32();
+                default -> input.skipField(tag);
+            }
+        }
+        return new Money(minorUnits, scale);
+    }
+
+    private static int size(PaymentResponse payment) {
+        int size = 0;
+        if (payment.getId() != null) size += ID_SIZE;
+        if (payment.getTransactionId() != null) {
+            size += CodedOutputStream.computeStringSize(PAYMENT_TRANSACTION_ID, payment.getTransactionId());
+        }
+        if (payment.getAmount() != null) {
+            int money = size(payment.getAmount());
+            size += CodedOutputStream.computeTagSize(PAYMENT_AMOUNT) + CodedOutputStream.computeUInt32SizeNoTag(money) + money;
+        }
+        if (payment.getStatus() != null) size += CodedOutputStream.computeEnumSize(PAYMENT_STATUS, number(payment.getStatus()));
+        return size;
+    }
+
+    private static int size(Money money) {
+        return CodedOutputStream.computeSInt64Size(MONEY_MINOR_UNITS, money.minorUnits())
+                + CodedOutputStream.computeInt32Size(MONEY_SCALE, money.scale());
+    }
+
+    // 0 is PAYMENT_STATUS_UNSPECIFIED, as proto3 requires
+    private static int number(PaymentStatus status) {
+        return switch (status) {
+            case PENDING -> 1;
+            case PAID -> 2;
+            case FRAUD -> 3;
+        };
+    }
+
+    private static PaymentStatus status(int number) {
+        return switch (number) {
+            case 1 -> PaymentStatus.PENDING;
+            case 2 -> PaymentStatus.PAID;
+            case 3 -> PaymentStatus.FRAUD;
+            default -> null;
+        };
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(UUID_BYTES)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID uuid(byte[] bytes) {
+        var buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.representation;
+
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * {@code application/x-protobuf} for a payment and a list of payments, in the messages of {@code payment.proto}.
+ * Registered after the JSON converter, so a caller accepting anything still gets JSON.
+ */
+public class PaymentProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final ResolvableType PAYMENT_LIST = ResolvableType.forClassWithGenerics(List.class, PaymentResponse.class);
+
+    public PaymentProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    // lists are only recognized from their generic type, in canRead and canWrite below
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PaymentResponse.class == clazz;
+    }
+
+    // Spring lists the producible types from the raw class, so lists have to be announced here as well
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isPaymentOrList(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isPaymentOrList(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        var input = CodedInputStream.newInstance(inputMessage.getBody());
+        return isList(type) ? PaymentProtobufCodec.readList(input) : PaymentProtobufCodec.read(input);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return PaymentProtobufCodec.read(CodedInputStream.newInstance(inputMessage.getBody()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object payment, Type type, HttpOutputMessage outputMessage) throws IOException {
+        var output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (payment instanceof PaymentResponse single) {
+            PaymentProtobufCodec.write(single, output);
+        } else {
+            PaymentProtobufCodec.writeList((List<PaymentResponse>) payment, output);
+        }
+        output.flush();
+    }
+
+    private static boolean isPaymentOrList(Type type) {
+        return ResolvableType.forType(type).resolve() == PaymentResponse.class || isList(type);
+    }
+
+    private static boolean isList(Type type) {
+        return type != null && PAYMENT_LIST.isAssignableFrom(ResolvableType.forType(type));
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.representation;
+
+import com.eliasnogueira.paymentservice.config.CompressionConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compresses API responses over {@code payment.compression.min-response-size} with the coding the caller prefers,
+ * and gives each representation of a payment its own strong ETag: the controller's tag, then the format when it is
+ * not JSON and the coding when there is one, e.g. {@code "18f3a-cbor-zstd"}.
+ * <p>
+ * Tomcat's own compression skips responses with a strong ETag, which is every payment response here. Only the
+ * {@code If-None-Match} tags of the representation this request negotiates reach the controller, without their
+ * suffixes, and the suffixes are put back on the 304. A bare tag only stands for JSON, so it never validates CBOR,
+ * Smile or protobuf.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RepresentationFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/api/";
+    private static final String JSON = "json";
+    private static final String IDENTITY = "identity";
+
+    private static final Map<String, String> FORMATS = Map.of(
+            MediaType.APPLICATION_CBOR_VALUE, "cbor",
+            "application/x-jackson-smile", "smile",
+            PaymentProtobufHttpMessageConverter.PROTOBUF.toString(), "pb",
+            "application/yaml", "yaml");
+
+    // in the order of the message converters, which decides between types the caller accepts equally
+    private static final List<MediaType> PRODUCIBLE = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.parseMediaType("application/x-jackson-smile"),
+            MediaType.APPLICATION_CBOR,
+            MediaType.parseMediaType("application/yaml"),
+            PaymentProtobufHttpMessageConverter.PROTOBUF);
+
+    private final CompressionConfig config;
+    private final PaymentMetrics metrics;
+
+    public RepresentationFilter(CompressionConfig config, PaymentMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var coding = config.isEnabled()
+                ? ContentCoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING), config.getCodings())
+                : null;
+        var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        var buffered = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(ifNoneMatch == null ? request : new ValidatorRequest(request, coding), buffered);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                complete(request, buffered, response, coding, ifNoneMatch);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, ContentCachingResponseWrapper buffered,
+                          HttpServletResponse response, ContentCoding coding, String ifNoneMatch) throws IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (config.isEnabled()) response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        var etag = response.getHeader(HttpHeaders.ETAG);
+        if (buffered.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, taggedAsRequested(etag, ifNoneMatch, request, coding));
+            }
+            buffered.copyBodyToResponse();
+            return;
+        }
+
+        var format = format(buffered.getContentType());
+        var body = buffered.getContentAsByteArray();
+        boolean compress = coding != null
+                && buffered.getStatus() == HttpStatus.OK.value()
+                && body.length >= config.getMinResponseSize().toBytes()
+                && isCompressible(buffered.getContentType())
+                && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+        if (etag != null) response.setHeader(HttpHeaders.ETAG, tag(etag, format, compress ? coding : null));
+
+        if (!compress) {
+            metrics.responseBytes(format, IDENTITY, body.length);
+            buffered.copyBodyToResponse();
+            return;
+        }
+        var encoded = coding.encode(body, config);
+        metrics.responseBytes(format, coding.token(), encoded.length);
+        response.setContentType(buffered.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, coding.token());
+        response.setContentLength(encoded.length);
+        response.getOutputStream().write(encoded);
+        response.flushBuffer();
+    }
+
+    // the tag the caller sent with the one on the 304, so it knows which of its stored representations is current
+    private static String taggedAsRequested(String etag, String ifNoneMatch, HttpServletRequest request,
+                                            ContentCoding coding) {
+        for (var candidate : tags(ifNoneMatch)) {
+            var untagged = untagged(opaque(candidate), negotiatedFormat(request), coding);
+            if (untagged != null && (untagged + '"').equals(etag)) {
+                return candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            }
+        }
+        return etag;
+    }
+
+    private static String tag(String etag, String format, ContentCoding coding) {
+        if (!etag.endsWith("\"")) return etag;
+        var tagged = new StringBuilder(etag.length() + 12).append(etag, 0, etag.length() - 1);
+        if (!format.equals(JSON)) tagged.append('-').append(format);
+        if (coding != null) tagged.append('-').append(coding.token());
+        return tagged.append('"').toString();
+    }
+
+    /**
+     * The tag without its suffixes, or null when it is not a tag of the representation the request gets: the
+     * negotiated format, compressed with the negotiated coding or not at all. Whether a body is compressed only
+     * depends on its size, which is the same for every response carrying the same tag.
+     */
+    private static String untagged(String opaque, String format, ContentCoding coding) {
+        int dash = opaque.indexOf('-');
+        var suffix = dash < 0 ? "" : opaque.substring(dash + 1);
+        var expected = format.equals(JSON) ? "" : format;
+        var compressed = coding == null ? null : expected.isEmpty() ? coding.token() : expected + '-' + coding.token();
+        boolean matches = suffix.equals(expected) || suffix.equals(compressed);
+        return matches ? (dash < 0 ? opaque : opaque.substring(0, dash)) : null;
+    }
+
+    /**
+     * The format Spring's content negotiation picks for this request: the producible type the caller prefers, by
+     * quality and then specificity, with the converter order breaking ties.
+     */
+    private static String negotiatedFormat(HttpServletRequest request) {
+        var accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) return JSON;
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        var candidates = new ArrayList<MediaType>();
+        for (var acceptedType : accepted) {
+            for (var producible : PRODUCIBLE) {
+                if (acceptedType.isCompatibleWith(producible)) {
+                    candidates.add(producible.copyQualityValue(acceptedType));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(candidates);
+        return candidates.isEmpty() ? JSON : format(candidates.getFirst().toString());
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) return false;
+        var mediaType = MediaType.parseMediaType(contentType);
+        return config.getMimeTypes().stream().map(MediaType::parseMediaType).anyMatch(mediaType::isCompatibleWith);
+    }
+
+    private static String format(String contentType) {
+        if (contentType == null) return JSON;
+        var mediaType = MediaType.parseMediaType(contentType);
+        return FORMATS.getOrDefault(mediaType.getType() + '/' + mediaType.getSubtype(), JSON);
+    }
+
+    private static List<String> tags(String header) {
+        if (header == null) return List.of();
+        var tags = new ArrayList<String>();
+        for (var tag : header.split(",")) {
+            tags.add(tag.trim());
+        }
+        return tags;
+    }
+
+    // the tag with its W/ prefix, if any, and without the closing quote
+    private static String opaque(String tag) {
+        return tag.endsWith("\"") ? tag.substring(0, tag.length() - 1) : tag;
+    }
+
+    private final class ValidatorRequest extends HttpServletRequestWrapper {
+
+        private final String ifNoneMatch;
+
+        ValidatorRequest(HttpServletRequest request, ContentCoding coding) {
+            super(request);
+            var format = negotiatedFormat(request);
+            var untagged = new ArrayList<String>();
+            for (var tag : tags(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                if (!tag.endsWith("\"")) {
+                    untagged.add(tag);
+                    continue;
+                }
+                var opaque = untagged(opaque(tag), format, coding);
+                if (opaque != null) untagged.add(opaque + '"');
+            }
+            this.ifNoneMatch = untagged.isEmpty() ? null : String.join(", ", untagged);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) ? ifNoneMatch : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)
+                    ? Collections.enumeration(ifNoneMatch == null ? List.of() : List.of(ifNoneMatch))
+                    : super.getHeaders(name);
+        }
+    }
+}
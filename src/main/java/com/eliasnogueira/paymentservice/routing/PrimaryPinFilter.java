@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.routing;
+
+import com.eliasnogueira.paymentservice.admission.AdmissionControlFilter;
+import com.eliasnogueira.paymentservice.config.AdmissionControlConfig;
+import com.eliasnogueira.paymentservice.config.ReplicaConfig;
+import com.eliasnogueira.paymentservice.controller.PaymentController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pins to the primary the reads of a client that wrote within {@code payment.replicas.pin-after-write}, so a replica
+ * lagging behind never answers with data older than the client's own write. Requests sent with
+ * {@code X-Consistency: strong} are pinned too.
+ * <p>
+ * Clients are told apart the way admission control does it, see {@link AdmissionControlFilter#clientIdOf}. Up to
+ * {@code payment.replicas.max-pinned-clients} pins are kept; the one of the least recently seen client is dropped
+ * first, which only sends its next reads to a replica.
+ */
+@Component
+@ConditionalOnProperty(prefix = "payment.replicas", name = "enabled", havingValue = "true")
+public class PrimaryPinFilter extends OncePerRequestFilter {
+
+    private final ReplicaConfig replicaConfig;
+    private final AdmissionControlConfig admissionControlConfig;
+    private final Map<String, Long> pinnedUntil;
+
+    public PrimaryPinFilter(ReplicaConfig replicaConfig, AdmissionControlConfig admissionControlConfig) {
+        this.replicaConfig = replicaConfig;
+        this.admissionControlConfig = admissionControlConfig;
+        this.pinnedUntil = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > replicaConfig.getMaxPinnedClients();
+            }
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var clientId = AdmissionControlFilter.clientIdOf(request, admissionControlConfig.getClients());
+        if (isPinned(clientId) || PaymentController.STRONG_CONSISTENCY.equalsIgnoreCase(
+                request.getHeader(PaymentController.CONSISTENCY_HEADER))) {
+            PrimaryPin.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PrimaryPin.release();
+            if (isWrite(request.getMethod()) && response.getStatus() < 400) pin(clientId);
+        }
+    }
+
+    private boolean isPinned(String clientId) {
+        Long until;
+        synchronized (pinnedUntil) {
+            until = pinnedUntil.get(clientId);
+        }
+        return until != null && System.nanoTime() - until < 0;
+    }
+
+    private void pin(String clientId) {
+        long until = System.nanoTime() + replicaConfig.getPinAfterWrite().toNanos();
+        synchronized (pinnedUntil) {
+            pinnedUntil.put(clientId, until);
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+}
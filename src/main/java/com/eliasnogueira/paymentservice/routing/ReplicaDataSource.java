@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions, set as the read-only target of a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} whose default target is the primary.
+ * <p>
+ * Each connection comes from the healthy replica with the fewest connections in use, ties broken round-robin. A
+ * background check marks replicas down when they stop answering and up again when they recover; a replica that fails
+ * to hand out a connection is marked down right away. With no healthy replica, or when the request is
+ * {@link PrimaryPin pinned}, connections come from the primary.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements SmartLifecycle, DisposableBean {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration checkInterval;
+    private final int checkTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile boolean running;
+    private Thread checker;
+
+    public ReplicaDataSource(DataSource primary, Map<String, DataSource> replicas, Duration checkInterval,
+                             Duration checkTimeout) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.checkInterval = checkInterval;
+        this.checkTimeoutSeconds = (int) Math.max(1, checkTimeout.toSeconds());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PrimaryPin.isPinned()) return primary.getConnection();
+
+        var replica = choose();
+        if (replica == null) return primary.getConnection();
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            replica.markDown(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (PrimaryPin.isPinned()) return primary.getConnection(username, password);
+
+        var replica = choose();
+        if (replica == null) return primary.getConnection(username, password);
+        try {
+            return replica.dataSource.getConnection(username, password);
+        } catch (SQLException e) {
+            replica.markDown(e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    public int healthyReplicas() {
+        int healthy = 0;
+        for (var replica : replicas) {
+            if (replica.healthy) healthy++;
+        }
+        return healthy;
+    }
+
+    /**
+     * Checks every replica once, marking it up or down.
+     */
+    public void checkHealth() {
+        for (var replica : replicas) {
+            try (var connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(checkTimeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        checker = Thread.ofPlatform().name("replica-health-check").daemon().start(this::check);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        checker.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void destroy() {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    private Replica choose() {
+        int size = replicas.size();
+        if (size == 0) return null;
+
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica chosen = null;
+        int chosenActive = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            var replica = replicas.get((start + i) % size);
+            if (!replica.healthy) continue;
+            int active = replica.activeConnections();
+            if (active < chosenActive) {
+                chosen = replica;
+                chosenActive = active;
+            }
+        }
+        return chosen;
+    }
+
+    private void check() {
+        while (running) {
+            try {
+                checkHealth();
+            } catch (RuntimeException e) {
+                log.error("Replica health check failed", e);
+            }
+            try {
+                Thread.sleep(checkInterval.toMillis());
+            } catch (InterruptedException e) {
+                // stop() was called
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+                return hikari.getHikariPoolMXBean().getActiveConnections();
+            }
+            return 0;
+        }
+
+        private void markUp() {
+            if (!healthy) log.info("Replica {} is back, routing reads to it again", name);
+            healthy = true;
+        }
+
+        private void markDown(SQLException cause) {
+            if (healthy) log.warn("Replica {} is down, routing its reads elsewhere", name, cause);
+            healthy = false;
+        }
+    }
+}
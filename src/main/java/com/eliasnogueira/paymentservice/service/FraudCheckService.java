@@ -25,7 +25,15 @@ package com.eliasnogueira.paymentservice.service;
 
 import com.eliasnogueira.paymentservice.config.FraudCheckConfig;
 import com.eliasnogueira.paymentservice.dto.FraudCheckResponse;
+import com.eliasnogueira.paymentservice.dto.FraudVerdict;
+import com.eliasnogueira.paymentservice.fraud.FraudEndpoint;
+import com.eliasnogueira.paymentservice.fraud.FraudEndpointBalancer;
+import com.eliasnogueira.paymentservice.fraud.HedgeBudget;
+import com.eliasnogueira.paymentservice.fraud.LatencyWindow;
+import com.eliasnogueira.paymentservice.jfr.FraudCheckEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
 import com.eliasnogueira.paymentservice.model.Payment;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
@@ -34,8 +42,25 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.springframework.http.HttpMethod.GET;
 
+/**
+ * Checks payments against the fraud service, spread over {@code fraud.check.urls} by {@link FraudEndpointBalancer}.
+ * <p>
+ * With hedging on, a check still unanswered after the {@code fraud.check.hedge-percentile} latency of recent checks
+ * is sent again to another instance, within the {@code fraud.check.hedge-budget-percent} budget. The first answer
+ * wins and the other request is cancelled, which takes the slow tail of a single instance out of the response time.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -43,26 +68,129 @@ public class FraudCheckService {
 
     private final RestTemplate restTemplate;
     private final FraudCheckConfig fraudCheckConfig;
+    private final PaymentMetrics metrics;
+
+    private final FraudEndpointBalancer balancer = new FraudEndpointBalancer();
+    private final LatencyWindow latencies = new LatencyWindow(1024);
+    private final HedgeBudget hedgeBudget = new HedgeBudget();
+    private final ExecutorService attempts = Executors.newVirtualThreadPerTaskExecutor();
 
     public boolean checkForFraud(Payment payment) {
+        return check(payment).fraudulent();
+    }
+
+    public FraudVerdict check(Payment payment) {
+        var event = new FraudCheckEvent();
+        event.begin();
+        FraudEndpoint endpoint = null;
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-API-KEY", fraudCheckConfig.getApiKey());
+            var urls = fraudCheckConfig.getUrls().isEmpty() ? List.of(fraudCheckConfig.getUrl()) : fraudCheckConfig.getUrls();
+            var answer = fraudCheckConfig.isHedgeEnabled()
+                    ? hedged(urls, payment)
+                    : call(balancer.choose(urls, null), payment);
+            endpoint = answer.endpoint();
+            var response = answer.response();
+
+            log.info("Fraud check for payment ID {} returned: {}", payment.getId(), response.isFraudulent());
+
+            metrics.fraudVerdict(response.isFraudulent());
+            event.setFraudulent(response.isFraudulent());
+            return new FraudVerdict(response.isFraudulent(), false, response.getMessage());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.error("Error checking fraud for payment ID: {}", payment.getId(), e);
+            metrics.fraudCheckFailed();
+            event.setFailed(true);
+            event.setFraudulent(true);
+            return new FraudVerdict(true, true, e.getMessage());
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPaymentId(String.valueOf(payment.getId()));
+                event.setEndpoint(endpoint != null ? endpoint.url() : fraudCheckConfig.getUrl());
+                event.commit();
+            }
+        }
+    }
 
-            String url = fraudCheckConfig.getUrl() + "/check?amount=" + payment.getAmount() +
-                    "&transactionId=" + payment.getTransactionId();
+    @PreDestroy
+    void close() {
+        attempts.shutdownNow();
+    }
+
+    private Answer hedged(List<String> urls, Payment payment) throws Exception {
+        hedgeBudget.deposit(fraudCheckConfig.getHedgeBudgetPercent() / 100);
+        var primary = balancer.choose(urls, null);
+        var completion = new ExecutorCompletionService<Answer>(attempts);
+        List<Future<Answer>> sent = new ArrayList<>(2);
+        sent.add(completion.submit(() -> call(primary, payment)));
+        try {
+            long hedgeDelay = hedgeDelayNanos();
+            var done = hedgeDelay < 0 ? completion.take() : completion.poll(hedgeDelay, NANOSECONDS);
+            if (done == null) {
+                if (hedgeBudget.tryWithdraw()) {
+                    var secondary = balancer.choose(urls, primary);
+                    sent.add(completion.submit(() -> call(secondary, payment)));
+                    metrics.fraudHedge("sent");
+                } else {
+                    metrics.fraudHedge("over_budget");
+                }
+                done = completion.take();
+            }
 
-            ResponseEntity<FraudCheckResponse> response = restTemplate.exchange(url, GET, new HttpEntity<>(headers),
+            // a failed attempt leaves the other one to answer
+            for (int pending = sent.size(); ; done = completion.take()) {
+                try {
+                    var answer = done.get();
+                    if (sent.size() > 1 && done == sent.get(1)) metrics.fraudHedge("won");
+                    return answer;
+                } catch (ExecutionException e) {
+                    if (--pending == 0) throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        } finally {
+            // interrupting the slower attempt cancels its HTTP exchange
+            sent.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        long percentile = latencies.percentile(fraudCheckConfig.getHedgePercentile(), fraudCheckConfig.getHedgeMinSamples());
+        return percentile < 0 ? -1 : Math.max(percentile, fraudCheckConfig.getHedgeMinDelay().toNanos());
+    }
+
+    private Answer call(FraudEndpoint endpoint, Payment payment) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-API-KEY", fraudCheckConfig.getApiKey());
+
+        var url = new StringBuilder(endpoint.url().length() + 64)
+                .append(endpoint.url()).append("/check?amount=");
+        payment.getAmount().appendTo(url).append("&transactionId=").append(payment.getTransactionId());
+
+        endpoint.started();
+        long start = System.nanoTime();
+        boolean answered = false;
+        try {
+            ResponseEntity<FraudCheckResponse> response = restTemplate.exchange(url.toString(), GET, new HttpEntity<>(headers),
                     FraudCheckResponse.class
             );
-
             assert response.getBody() != null;
-            log.info("Fraud check for payment ID {} returned: {}", payment.getId(), response.getBody().isFraudulent());
 
-            return response.getBody().isFraudulent();
-        } catch (Exception e) {
-            log.error("Error checking fraud for payment ID: {}", payment.getId(), e);
-            return true;
+            long latency = System.nanoTime() - start;
+            endpoint.completed(latency);
+            latencies.record(latency);
+            answered = true;
+            return new Answer(endpoint, response.getBody());
+        } finally {
+            if (!answered && Thread.currentThread().isInterrupted()) {
+                endpoint.cancelled();
+            } else if (!answered) {
+                // counted as a timeout, so a failing instance doesn't look fast
+                endpoint.completed(MILLISECONDS.toNanos(fraudCheckConfig.getTimeout()));
+            }
         }
     }
+
+    private record Answer(FraudEndpoint endpoint, FraudCheckResponse response) {
+    }
 }
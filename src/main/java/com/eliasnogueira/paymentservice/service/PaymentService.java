@@ -23,26 +23,46 @@
  */
 package com.eliasnogueira.paymentservice.service;
 
+import com.eliasnogueira.paymentservice.admission.ExcludedLatency;
+import com.eliasnogueira.paymentservice.dto.FraudVerdict;
 import com.eliasnogueira.paymentservice.dto.PaymentRequest;
 import com.eliasnogueira.paymentservice.dto.PaymentResponse;
 import com.eliasnogueira.paymentservice.dto.PaymentUpdateRequest;
+import com.eliasnogueira.paymentservice.etag.PaymentVersionIndex;
 import com.eliasnogueira.paymentservice.events.PaymentEvent;
-import com.eliasnogueira.paymentservice.events.PaymentKafkaProducer;
+import com.eliasnogueira.paymentservice.events.PaymentEventPublisher;
 import com.eliasnogueira.paymentservice.exceptions.PaymentNotFoundException;
+import com.eliasnogueira.paymentservice.history.PaymentHistoryStore;
+import com.eliasnogueira.paymentservice.jfr.PaymentOperationEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.ArchivedPayment;
 import com.eliasnogueira.paymentservice.model.Payment;
 import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.readmodel.PaymentReadModel;
+import com.eliasnogueira.paymentservice.repository.ArchivedPaymentRepository;
 import com.eliasnogueira.paymentservice.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Operation.CREATE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Operation.GET;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Operation.LIST;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Operation.UPDATE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.DB_READ;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.DB_WRITE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.FRAUD_CHECK;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.KAFKA_SEND;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -50,64 +70,179 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final FraudCheckService fraudCheckService;
-    private final PaymentKafkaProducer kafkaProducer;
+    private final PaymentEventPublisher eventPublisher;
+    private final PaymentReadModel readModel;
+    private final PaymentMetrics metrics;
+    private final PaymentVersionIndex versionIndex;
+    private final ObjectProvider<PaymentHistoryStore> history;
+    private final ObjectProvider<ArchivedPaymentRepository> archivedPayments;
 
     @Transactional
     public PaymentResponse createPayment(PaymentRequest paymentRequest) {
+        var event = new PaymentOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        // the unique index on payments only covers live payments, so archived transaction IDs are checked here
+        var archive = archivedPayments.getIfAvailable();
+        if (archive != null && archive.existsByTransactionId(paymentRequest.getTransactionId())) {
+            throw new DataIntegrityViolationException("Duplicate transaction ID: " + paymentRequest.getTransactionId());
+        }
         var payment = Payment.builder()
                 .transactionId(paymentRequest.getTransactionId())
                 .amount(paymentRequest.getAmount())
                 .status(PaymentStatus.PENDING)
                 .build();
 
-        var savedPayment = paymentRepository.save(payment);
+        // flushed here so the insert is measured, instead of happening on commit
+        var savedPayment = paymentRepository.saveAndFlush(payment);
+        long written = System.nanoTime();
+        metrics.recordStage(DB_WRITE, written - start);
         log.info("Payment created with ID: {}", savedPayment.getId());
+        history.ifAvailable(store -> store.record(savedPayment.getId(), null, savedPayment.getStatus(), null));
 
-        kafkaProducer.send(new PaymentEvent(
+        eventPublisher.send(new PaymentEvent(
                 Instant.now(),
                 PaymentEvent.EventType.CREATED,
                 savedPayment
         ));
-
-        return new ModelMapper().map(savedPayment, PaymentResponse.class);
+        long sent = System.nanoTime();
+        metrics.recordStage(KAFKA_SEND, sent - written);
+
+        var response = toResponse(savedPayment);
+        versionIndex.recordAfterCommit(response.getId(), response.getVersion());
+        metrics.recordOperation(CREATE, System.nanoTime() - start);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation("create");
+            event.setPaymentId(String.valueOf(savedPayment.getId()));
+            event.setToStatus(savedPayment.getStatus().name());
+            event.setDbWriteTime(written - start);
+            event.setKafkaSendTime(sent - written);
+            event.commit();
+        }
+        return response;
     }
 
     @Transactional
     public PaymentResponse updatePayment(UUID paymentId, PaymentUpdateRequest updateRequest) {
+        var event = new PaymentOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
         var payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with ID: " + paymentId));
+        long read = System.nanoTime();
+        metrics.recordStage(DB_READ, read - start);
+        var previousStatus = payment.getStatus();
 
         var newStatus = updateRequest.getStatus();
 
         // when updating to PAID, perform fraud check
+        long checked = read;
+        FraudVerdict verdict = null;
         if (newStatus == PaymentStatus.PAID) {
-            boolean isFraudulent = fraudCheckService.checkForFraud(payment);
-            if (isFraudulent) newStatus = PaymentStatus.FRAUD;
+            verdict = fraudCheckService.check(payment);
+            if (verdict.fraudulent()) newStatus = PaymentStatus.FRAUD;
+            checked = System.nanoTime();
+            metrics.recordStage(FRAUD_CHECK, checked - read);
+            ExcludedLatency.add(checked - read);
         }
 
         payment.setStatus(newStatus);
-        var updatedPayment = paymentRepository.save(payment);
+        var updatedPayment = paymentRepository.saveAndFlush(payment);
+        long written = System.nanoTime();
+        metrics.recordStage(DB_WRITE, written - checked);
         log.info("Payment updated with ID: {}, new status: {}", paymentId, newStatus);
+        var fraudVerdict = verdict;
+        var status = newStatus;
+        history.ifAvailable(store -> store.record(paymentId, previousStatus, status, fraudVerdict));
 
-        kafkaProducer.send(new PaymentEvent(
+        eventPublisher.send(new PaymentEvent(
                 Instant.now(),
                 PaymentEvent.EventType.UPDATED,
                 updatedPayment
         ));
-
-
-        return new ModelMapper().map(updatedPayment, PaymentResponse.class);
+        long sent = System.nanoTime();
+        metrics.recordStage(KAFKA_SEND, sent - written);
+
+        var response = toResponse(updatedPayment);
+        versionIndex.recordAfterCommit(paymentId, response.getVersion());
+        metrics.recordOperation(UPDATE, System.nanoTime() - start);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation("update");
+            event.setPaymentId(paymentId.toString());
+            event.setFromStatus(previousStatus.name());
+            event.setToStatus(newStatus.name());
+            event.setDbReadTime(read - start);
+            event.setFraudCheckTime(checked - read);
+            event.setDbWriteTime(written - checked);
+            event.setKafkaSendTime(sent - written);
+            event.commit();
+        }
+        return response;
     }
 
+    @Transactional(readOnly = true)
     public PaymentResponse getPaymentById(UUID paymentId) {
+        return getPaymentById(paymentId, false);
+    }
+
+    // readYourWrites bypasses the read model, for clients that must observe their own writes
+    @Transactional(readOnly = true)
+    public PaymentResponse getPaymentById(UUID paymentId, boolean readYourWrites) {
+        long start = System.nanoTime();
+        if (!readYourWrites && readModel.isServing()) {
+            var materialized = readModel.findById(paymentId);
+            if (materialized.isPresent()) {
+                versionIndex.record(paymentId, materialized.get().getVersion());
+                metrics.recordOperation(GET, System.nanoTime() - start);
+                return materialized.get();
+            }
+        }
+
         var payment = paymentRepository.findById(paymentId)
+                .or(() -> findArchived(paymentId))
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found with ID: " + paymentId));
-        return new ModelMapper().map(payment, PaymentResponse.class);
+        var response = toResponse(payment);
+        versionIndex.record(paymentId, response.getVersion());
+        metrics.recordOperation(GET, System.nanoTime() - start);
+        return response;
     }
 
+    @Transactional(readOnly = true)
     public List<PaymentResponse> getAllPayments() {
-        return paymentRepository.findAll().stream()
-                .map(payment -> new ModelMapper().map(payment, PaymentResponse.class))
-                .collect(Collectors.toList());
+        return getAllPayments(false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getAllPayments(boolean readYourWrites) {
+        long start = System.nanoTime();
+        List<PaymentResponse> payments;
+        if (!readYourWrites && readModel.isServing()) {
+            payments = readModel.findAll();
+        } else {
+            payments = paymentRepository.findAll().stream()
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+        }
+        metrics.recordOperation(LIST, System.nanoTime() - start);
+        return payments;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean exists(UUID paymentId) {
+        return paymentRepository.existsById(paymentId) || findArchived(paymentId).isPresent();
+    }
+
+    // archived payments are read-only: updates only look at the payments table
+    private Optional<Payment> findArchived(UUID paymentId) {
+        var archive = archivedPayments.getIfAvailable();
+        return archive == null ? Optional.empty() : archive.findById(paymentId).map(ArchivedPayment::toPayment);
+    }
+
+    public PaymentResponse toResponse(Payment payment) {
+        return PaymentResponse.from(payment);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.settlement;
+
+import com.eliasnogueira.paymentservice.config.SettlementConfig;
+import com.eliasnogueira.paymentservice.dto.FraudVerdict;
+import com.eliasnogueira.paymentservice.dto.SettlementOutcome;
+import com.eliasnogueira.paymentservice.dto.SettlementOutcome.Result;
+import com.eliasnogueira.paymentservice.dto.SettlementRequest;
+import com.eliasnogueira.paymentservice.dto.SettlementResponse;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEventPublisher;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.service.FraudCheckService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Operation.SETTLE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.DB_READ;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.DB_WRITE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.FRAUD_CHECK;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.KAFKA_SEND;
+
+/**
+ * Moves many payments to one status, for end-of-day settlement. Payments go in batches of
+ * {@code payment.settlement.batch-size}: one {@code IN} query loads a batch, the fraud checks of the payments going
+ * to PAID run {@code payment.settlement.fraud-parallelism} at a time outside any transaction, and a second
+ * transaction re-reads the batch, applies the transitions with batched UPDATEs and commits before the events of the
+ * batch are published together.
+ * <p>
+ * A batch that fails is reported as FAILED and the settlement goes on with the next one, so the outcome of every
+ * payment is in the response and a retry with the same IDs only changes what was left behind.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SettlementService {
+
+    private final SettlementConfig config;
+    private final SettlementWriter writer;
+    private final FraudCheckService fraudCheckService;
+    private final PaymentEventPublisher eventPublisher;
+    private final PaymentMetrics metrics;
+
+    public SettlementResponse settle(SettlementRequest request) {
+        long start = System.nanoTime();
+        var paymentIds = List.copyOf(new LinkedHashSet<>(request.getPaymentIds()));
+        var outcomes = new ArrayList<SettlementOutcome>(paymentIds.size());
+
+        for (int from = 0; from < paymentIds.size(); from += config.getBatchSize()) {
+            var batch = paymentIds.subList(from, Math.min(from + config.getBatchSize(), paymentIds.size()));
+            try {
+                outcomes.addAll(settleBatch(batch, request.getStatus()));
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Settlement batch of {} payments failed", batch.size(), e);
+                for (var paymentId : batch) {
+                    outcomes.add(new SettlementOutcome(paymentId, Result.FAILED, null, e.getMessage()));
+                }
+            }
+        }
+
+        metrics.recordOperation(SETTLE, System.nanoTime() - start);
+        var response = SettlementResponse.of(outcomes);
+        log.info("Settled {} payments to {}: {}", paymentIds.size(), request.getStatus(), response.totals());
+        return response;
+    }
+
+    private List<SettlementOutcome> settleBatch(List<UUID> paymentIds, PaymentStatus target) {
+        long start = System.nanoTime();
+        Map<UUID, FraudVerdict> verdicts = Map.of();
+        if (target == PaymentStatus.PAID) {
+            var toCheck = writer.load(paymentIds).values().stream()
+                    .filter(payment -> payment.getStatus() != PaymentStatus.PAID)
+                    .toList();
+            long read = System.nanoTime();
+            metrics.recordStage(DB_READ, read - start);
+            verdicts = checkFraud(toCheck);
+            start = System.nanoTime();
+            metrics.recordStage(FRAUD_CHECK, start - read);
+        }
+
+        var batch = writer.apply(paymentIds, target, verdicts);
+        long written = System.nanoTime();
+        metrics.recordStage(DB_WRITE, written - start);
+
+        var now = Instant.now();
+        eventPublisher.sendAll(batch.changed().stream()
+                .map(payment -> new PaymentEvent(now, PaymentEvent.EventType.UPDATED, payment))
+                .toList());
+        metrics.recordStage(KAFKA_SEND, System.nanoTime() - written);
+        return batch.outcomes();
+    }
+
+    private Map<UUID, FraudVerdict> checkFraud(Collection<Payment> payments) {
+        var verdicts = new ConcurrentHashMap<UUID, FraudVerdict>(payments.size() * 2);
+        var permits = new Semaphore(config.getFraudParallelism());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var payment : payments) {
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        verdicts.put(payment.getId(), fraudCheckService.check(payment));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return verdicts;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.settlement;
+
+import com.eliasnogueira.paymentservice.dto.FraudVerdict;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.dto.SettlementOutcome;
+import com.eliasnogueira.paymentservice.dto.SettlementOutcome.Result;
+import com.eliasnogueira.paymentservice.etag.PaymentVersionIndex;
+import com.eliasnogueira.paymentservice.history.PaymentHistoryStore;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The database side of a settlement batch, kept apart from {@link SettlementService} so each call runs in its own
+ * transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class SettlementWriter {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentVersionIndex versionIndex;
+    private final ObjectProvider<PaymentHistoryStore> history;
+
+    @Transactional(readOnly = true)
+    public Map<UUID, Payment> load(Collection<UUID> paymentIds) {
+        return byId(paymentRepository.findAllById(paymentIds));
+    }
+
+    /**
+     * Re-reads the batch and moves every payment to {@code target}, or to FRAUD when its verdict says so. The
+     * changed payments are written with one flush, which Hibernate turns into batched UPDATE statements.
+     */
+    @Transactional
+    public Batch apply(List<UUID> paymentIds, PaymentStatus target, Map<UUID, FraudVerdict> verdicts) {
+        var payments = byId(paymentRepository.findAllById(paymentIds));
+        var outcomes = new ArrayList<SettlementOutcome>(paymentIds.size());
+        var changed = new ArrayList<Payment>();
+        var store = history.getIfAvailable();
+
+        for (var paymentId : paymentIds) {
+            var payment = payments.get(paymentId);
+            if (payment == null) {
+                outcomes.add(new SettlementOutcome(paymentId, Result.NOT_FOUND, null, "Payment not found"));
+                continue;
+            }
+            var from = payment.getStatus();
+            if (from == target) {
+                outcomes.add(new SettlementOutcome(paymentId, Result.UNCHANGED, from, null));
+                continue;
+            }
+
+            var to = target;
+            FraudVerdict verdict = null;
+            if (target == PaymentStatus.PAID) {
+                verdict = verdicts.get(paymentId);
+                if (verdict == null) {
+                    // it was PAID when the fraud checks were picked and changed since
+                    outcomes.add(new SettlementOutcome(paymentId, Result.FAILED, from,
+                            "Payment changed during the settlement"));
+                    continue;
+                }
+                if (verdict.fraudulent()) to = PaymentStatus.FRAUD;
+            }
+
+            outcomes.add(new SettlementOutcome(paymentId, to == PaymentStatus.FRAUD && target != to
+                    ? Result.FRAUD : Result.UPDATED, to, verdict == null ? null : verdict.message()));
+            if (from == to) continue;
+
+            payment.setStatus(to);
+            changed.add(payment);
+            if (store != null) store.record(paymentId, from, to, verdict);
+        }
+
+        var saved = paymentRepository.saveAllAndFlush(changed);
+        for (var payment : saved) {
+            versionIndex.recordAfterCommit(payment.getId(), PaymentResponse.versionOf(payment));
+        }
+        return new Batch(outcomes, saved);
+    }
+
+    private static Map<UUID, Payment> byId(List<Payment> payments) {
+        var byId = new HashMap<UUID, Payment>(payments.size() * 2);
+        for (var payment : payments) byId.put(payment.getId(), payment);
+        return byId;
+    }
+
+    public record Batch(List<SettlementOutcome> outcomes, List<Payment> changed) {
+    }
+}
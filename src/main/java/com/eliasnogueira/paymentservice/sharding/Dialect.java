@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.sharding;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The SQL that differs between the databases a shard or the index can be on. MySQL and H2 take {@code LIMIT} and
+ * {@code TIMESTAMP(6)}; SQL Server takes {@code OFFSET ... FETCH} and {@code DATETIME2(6)}, its {@code TIMESTAMP} being
+ * a row version.
+ */
+enum Dialect {
+
+    STANDARD("TIMESTAMP(6)", " LIMIT ?"),
+    SQL_SERVER("DATETIME2(6)", " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY");
+
+    private final String timestamp;
+    private final String limit;
+
+    Dialect(String timestamp, String limit) {
+        this.timestamp = timestamp;
+        this.limit = limit;
+    }
+
+    static Dialect of(JdbcTemplate jdbc) {
+        return jdbc.execute((ConnectionCallback<Dialect>) connection ->
+                connection.getMetaData().getDatabaseProductName().startsWith("Microsoft SQL Server")
+                        ? SQL_SERVER : STANDARD);
+    }
+
+    /**
+     * Type of a timestamp column with microseconds.
+     */
+    String timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * {@code query}, which must end with its {@code ORDER BY}, cut to as many rows as its last parameter.
+     */
+    String limit(String query) {
+        return query + limit;
+    }
+
+    /**
+     * Creates {@code table} unless it exists: not every database has {@code CREATE TABLE IF NOT EXISTS}.
+     */
+    static void createTable(JdbcTemplate jdbc, String table, String columns) {
+        jdbc.execute((Connection connection) -> {
+            if (exists(connection, table)) return null;
+            try (var statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE " + table + " (" + columns + ")");
+            } catch (SQLException e) {
+                // another instance created it first
+                if (!exists(connection, table)) throw e;
+            }
+            return null;
+        });
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        var metaData = connection.getMetaData();
+        var name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+        try (var tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name,
+                new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.sharding;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Which shard holds each bucket, kept in the index database and cached for {@code payment.sharding.map-refresh-interval}.
+ * <p>
+ * A payment's bucket is a hash of its ID, so finding a payment takes no lookup beyond this map, which only changes
+ * when {@link ShardRebalancer} moves a bucket. While a bucket is being moved its owner stays the source shard; writes
+ * to it only pause during the short {@link State#FROZEN} step at the end.
+ */
+final class ShardMap {
+
+    enum State {
+        ACTIVE, COPYING, FROZEN
+    }
+
+    private record Snapshot(int[] owners, State[] states, int[] movingTo) {
+    }
+
+    static final int NOT_MOVING = -1;
+
+    private final JdbcTemplate index;
+    private final int buckets;
+    private final long refreshNanos;
+
+    private volatile Snapshot snapshot;
+    private volatile long refreshedAt;
+
+    ShardMap(JdbcTemplate index, int buckets, int shards, Duration refreshInterval) {
+        this.index = index;
+        this.buckets = buckets;
+        this.refreshNanos = refreshInterval.toNanos();
+
+        Dialect.createTable(index, "payment_shard_buckets", """
+                bucket INT NOT NULL PRIMARY KEY,
+                shard INT NOT NULL,
+                state VARCHAR(16) NOT NULL,
+                moving_to INT NULL""");
+        if (count() == 0) seed(shards);
+
+        var loaded = refresh();
+        if (loaded.owners().length != buckets) {
+            throw new IllegalStateException("The shard index has " + loaded.owners().length
+                    + " buckets, payment.sharding.buckets is " + buckets);
+        }
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (loaded.owners()[bucket] >= shards || loaded.movingTo()[bucket] >= shards) {
+                throw new IllegalStateException("Bucket " + bucket + " is on a shard missing from payment.sharding.shards");
+            }
+        }
+    }
+
+    static int bucketOf(UUID id, int buckets) {
+        long hash = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) buckets);
+    }
+
+    int bucketOf(UUID id) {
+        return bucketOf(id, buckets);
+    }
+
+    int buckets() {
+        return buckets;
+    }
+
+    int ownerOf(int bucket) {
+        return current().owners()[bucket];
+    }
+
+    State stateOf(int bucket) {
+        return current().states()[bucket];
+    }
+
+    int movingTo(int bucket) {
+        return current().movingTo()[bucket];
+    }
+
+    /**
+     * The shard to write a bucket's payments to, waiting while the bucket is frozen for a move.
+     */
+    int ownerForWrite(int bucket, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        var current = current();
+        while (current.states()[bucket] == State.FROZEN) {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TransientDataAccessResourceException("Bucket " + bucket + " is being moved to another shard");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransientDataAccessResourceException("Interrupted waiting for bucket " + bucket + " to move");
+            }
+            current = refresh();
+        }
+        return current.owners()[bucket];
+    }
+
+    void update(int bucket, int owner, State state, int movingTo) {
+        index.update("UPDATE payment_shard_buckets SET shard = ?, state = ?, moving_to = ? WHERE bucket = ?",
+                owner, state.name(), movingTo == NOT_MOVING ? null : movingTo, bucket);
+        refresh();
+    }
+
+    private Snapshot current() {
+        if (System.nanoTime() - refreshedAt < refreshNanos) return snapshot;
+        synchronized (this) {
+            if (System.nanoTime() - refreshedAt < refreshNanos) return snapshot;
+            return refresh();
+        }
+    }
+
+    synchronized Snapshot refresh() {
+        var owners = new ArrayList<Integer>();
+        var states = new ArrayList<State>();
+        var movingTo = new ArrayList<Integer>();
+        index.query("SELECT shard, state, moving_to FROM payment_shard_buckets ORDER BY bucket", row -> {
+            owners.add(row.getInt(1));
+            states.add(State.valueOf(row.getString(2)));
+            int target = row.getInt(3);
+            movingTo.add(row.wasNull() ? NOT_MOVING : target);
+        });
+
+        var loaded = new Snapshot(owners.stream().mapToInt(Integer::intValue).toArray(),
+                states.toArray(State[]::new), movingTo.stream().mapToInt(Integer::intValue).toArray());
+        snapshot = loaded;
+        refreshedAt = System.nanoTime();
+        return loaded;
+    }
+
+    private int count() {
+        var count = index.queryForObject("SELECT COUNT(*) FROM payment_shard_buckets", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private void seed(int shards) {
+        var rows = new ArrayList<Object[]>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            rows.add(new Object[]{bucket, bucket % shards, State.ACTIVE.name()});
+        }
+        try {
+            index.batchUpdate("INSERT INTO payment_shard_buckets (bucket, shard, state) VALUES (?, ?, ?)", rows);
+        } catch (DuplicateKeyException e) {
+            // another instance seeded it first
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.sharding;
+
+import com.eliasnogueira.paymentservice.dto.ShardStatus;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.sharding.ShardMap.State;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.eliasnogueira.paymentservice.sharding.ShardedPaymentRepository.COLUMNS;
+import static com.eliasnogueira.paymentservice.sharding.ShardedPaymentRepository.INSERT;
+import static com.eliasnogueira.paymentservice.sharding.ShardedPaymentRepository.PAYMENT;
+import static com.eliasnogueira.paymentservice.sharding.ShardedPaymentRepository.insertArguments;
+import static com.eliasnogueira.paymentservice.sharding.ShardedPaymentRepository.toTimestamp;
+
+/**
+ * Online resharding: moves buckets between shards while the service keeps reading and writing them, typically after
+ * appending databases to {@code payment.sharding.shards}.
+ * <p>
+ * A bucket is copied while its source shard keeps serving it. It is then frozen, which holds its writes back, for
+ * twice the map refresh interval plus the time to copy what changed during the first copy; after that the target
+ * becomes the owner, and once every instance had time to notice, the source copy is deleted. An interrupted move is
+ * rolled back by the next {@link #rebalance()}.
+ */
+@Slf4j
+@Component
+@Profile("sharded")
+public class ShardRebalancer {
+
+    private final ShardedPaymentRepository repository;
+    private final ShardMap shardMap;
+
+    public ShardRebalancer(ShardedPaymentRepository repository) {
+        this.repository = repository;
+        this.shardMap = repository.shardMap();
+    }
+
+    public List<ShardStatus> status() {
+        var buckets = new int[repository.shardCount()];
+        for (int bucket = 0; bucket < shardMap.buckets(); bucket++) {
+            buckets[shardMap.ownerOf(bucket)]++;
+        }
+
+        var status = new ArrayList<ShardStatus>();
+        for (int shard = 0; shard < buckets.length; shard++) {
+            status.add(new ShardStatus(shard, buckets[shard], repository.countOwned(shard)));
+        }
+        return status;
+    }
+
+    /**
+     * Rolls back interrupted moves, deletes copies left on former owners, then moves buckets until every shard owns
+     * the same number of them, give or take one. Returns how many buckets were moved.
+     */
+    public synchronized int rebalance() throws InterruptedException {
+        recover();
+
+        int moved = 0;
+        for (var move : plan()) {
+            moveBucket(move[0], move[1]);
+            moved++;
+        }
+        log.info("Rebalanced {} buckets over {} shards", moved, repository.shardCount());
+        return moved;
+    }
+
+    public synchronized void moveBucket(int bucket, int target) throws InterruptedException {
+        int source = shardMap.ownerOf(bucket);
+        if (source == target) return;
+
+        long settleMillis = repository.config().getMapRefreshInterval().toMillis() * 2;
+        try {
+            shardMap.update(bucket, source, State.COPYING, target);
+            var copyStartedAt = Instant.now();
+            copy(source, target, bucket, null);
+
+            shardMap.update(bucket, source, State.FROZEN, target);
+            // writes routed with a map from before the freeze are done after this
+            Thread.sleep(settleMillis);
+            copy(source, target, bucket, copyStartedAt.minus(Duration.ofMillis(settleMillis)));
+            deleteMissing(repository.shard(source), repository.shard(target), bucket);
+        } catch (InterruptedException | RuntimeException e) {
+            abort(bucket, source, target);
+            throw e;
+        }
+
+        shardMap.update(bucket, target, State.ACTIVE, ShardMap.NOT_MOVING);
+        // reads routed with a map from before the switch are done after this
+        Thread.sleep(settleMillis);
+        deleteBucket(source, bucket);
+        log.info("Moved bucket {} from shard {} to shard {}", bucket, source, target);
+    }
+
+    private void recover() {
+        for (int bucket = 0; bucket < shardMap.buckets(); bucket++) {
+            if (shardMap.stateOf(bucket) != State.ACTIVE) {
+                log.warn("Rolling back the interrupted move of bucket {}", bucket);
+                abort(bucket, shardMap.ownerOf(bucket), shardMap.movingTo(bucket));
+            }
+        }
+        for (int shard = 0; shard < repository.shardCount(); shard++) {
+            var jdbc = repository.shard(shard);
+            for (var bucket : jdbc.queryForList("SELECT DISTINCT bucket FROM payments", Integer.class)) {
+                if (shardMap.ownerOf(bucket) != shard) {
+                    log.info("Deleting the copy of bucket {} left on shard {}", bucket, shard);
+                    deleteBucket(shard, bucket);
+                }
+            }
+        }
+    }
+
+    private void abort(int bucket, int source, int target) {
+        shardMap.update(bucket, source, State.ACTIVE, ShardMap.NOT_MOVING);
+        if (target != ShardMap.NOT_MOVING) deleteBucket(target, bucket);
+    }
+
+    // bucket and target shard of each move, taking buckets from the shards above their share
+    private List<int[]> plan() {
+        int shards = repository.shardCount();
+        var owned = new ArrayList<List<Integer>>();
+        for (int shard = 0; shard < shards; shard++) {
+            owned.add(new ArrayList<>());
+        }
+        for (int bucket = 0; bucket < shardMap.buckets(); bucket++) {
+            owned.get(shardMap.ownerOf(bucket)).add(bucket);
+        }
+
+        var surplus = new ArrayList<Integer>();
+        var share = new int[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            share[shard] = shardMap.buckets() / shards + (shard < shardMap.buckets() % shards ? 1 : 0);
+            var buckets = owned.get(shard);
+            while (buckets.size() > share[shard]) {
+                surplus.add(buckets.removeLast());
+            }
+        }
+
+        var moves = new ArrayList<int[]>();
+        for (int shard = 0; shard < shards; shard++) {
+            for (int missing = share[shard] - owned.get(shard).size(); missing > 0 && !surplus.isEmpty(); missing--) {
+                moves.add(new int[]{surplus.removeLast(), shard});
+            }
+        }
+        return moves;
+    }
+
+    // every row of the bucket, or only those updated since the given instant
+    private void copy(int source, int target, int bucket, Instant updatedSince) {
+        var from = repository.shard(source);
+        var to = repository.shard(target);
+        var dialect = repository.dialect(source);
+        var all = dialect.limit("SELECT " + COLUMNS + " FROM payments WHERE bucket = ? AND id > ? ORDER BY id");
+        var updated = dialect.limit("SELECT " + COLUMNS + " FROM payments WHERE bucket = ? AND id > ? "
+                + "AND updated_at >= ? ORDER BY id");
+        int batchSize = repository.config().getCopyBatchSize();
+        var cursor = "";
+        List<Payment> rows;
+        do {
+            rows = updatedSince == null
+                    ? from.query(all, PAYMENT, bucket, cursor, batchSize)
+                    : from.query(updated, PAYMENT, bucket, cursor, toTimestamp(updatedSince), batchSize);
+            if (rows.isEmpty()) return;
+
+            to.batchUpdate("DELETE FROM payments WHERE id = ?",
+                    rows.stream().map(payment -> new Object[]{payment.getId().toString()}).toList());
+            to.batchUpdate(INSERT, rows.stream().map(payment -> insertArguments(payment, bucket)).toList());
+            cursor = rows.getLast().getId().toString();
+        } while (rows.size() == batchSize);
+    }
+
+    // rows deleted from the source while the bucket was being copied
+    private void deleteMissing(JdbcTemplate from, JdbcTemplate to, int bucket) {
+        var present = new HashSet<>(from.queryForList("SELECT id FROM payments WHERE bucket = ?", String.class, bucket));
+        var deleted = to.queryForList("SELECT id FROM payments WHERE bucket = ?", String.class, bucket).stream()
+                .filter(id -> !present.contains(id))
+                .map(id -> new Object[]{id})
+                .toList();
+        if (!deleted.isEmpty()) to.batchUpdate("DELETE FROM payments WHERE id = ?", deleted);
+    }
+
+    private void deleteBucket(int shard, int bucket) {
+        var jdbc = repository.shard(shard);
+        var query = repository.dialect(shard).limit("SELECT id FROM payments WHERE bucket = ? ORDER BY id");
+        int batchSize = repository.config().getCopyBatchSize();
+        List<String> ids;
+        do {
+            ids = jdbc.queryForList(query, String.class, bucket, batchSize);
+            if (!ids.isEmpty()) {
+                jdbc.batchUpdate("DELETE FROM payments WHERE id = ?", ids.stream().map(id -> new Object[]{id}).toList());
+            }
+        } while (ids.size() == batchSize);
+    }
+}
@@ -0,0 +1,566 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.sharding;
+
+import com.eliasnogueira.paymentservice.config.ShardingConfig;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.eliasnogueira.paymentservice.repository.PaymentSort;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * {@link PaymentRepository} spreading payments over the databases in {@code payment.sharding.shards}
+ * ({@code sharded} profile).
+ * <p>
+ * A payment lives on the shard that owns the bucket its ID hashes to (see {@link ShardMap}). Transaction IDs are
+ * claimed in the index database before the payment is written, which keeps them unique across shards; a claim left
+ * behind by a crash between the two writes is taken over once older than {@code payment.sharding.orphan-claim-age}.
+ * <p>
+ * Listing queries every shard in parallel for the next page after a keyset cursor and merges the pages by ID. Rows
+ * still present on a bucket's previous shard after a move are skipped. There are no transactions across shards, and
+ * query by example is not supported.
+ */
+@Slf4j
+@Component
+@Profile("sharded")
+public class ShardedPaymentRepository implements PaymentRepository, DisposableBean {
+
+    static final String COLUMNS = "id, transaction_id, amount, status, created_at, updated_at, version";
+    static final String INSERT = "INSERT INTO payments (" + COLUMNS + ", bucket) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final RowMapper<Payment> PAYMENT = (row, number) -> Payment.builder()
+            .id(UUID.fromString(row.getString(1)))
+            .transactionId(row.getString(2))
+            .amount(Money.of(row.getBigDecimal(3)))
+            .status(PaymentStatus.valueOf(row.getString(4)))
+            .createdAt(toInstant(row.getTimestamp(5)))
+            .updatedAt(toInstant(row.getTimestamp(6)))
+            .version(row.getLong(7))
+            .build();
+
+    private final ShardingConfig config;
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final List<Dialect> dialects = new ArrayList<>();
+    private final JdbcTemplate index;
+    private final ShardMap shardMap;
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedPaymentRepository(ShardingConfig config) {
+        this.config = config;
+        if (config.getShards().isEmpty()) throw new IllegalStateException("payment.sharding.shards is empty");
+
+        for (int i = 0; i < config.getShards().size(); i++) {
+            var shard = new JdbcTemplate(open(config.getShards().get(i), "shard-" + i));
+            var dialect = Dialect.of(shard);
+            createPaymentsTable(shard, dialect);
+            shards.add(shard);
+            dialects.add(dialect);
+        }
+        index = new JdbcTemplate(open(config.getIndex(), "shard-index"));
+        Dialect.createTable(index, "payment_transaction_ids", """
+                transaction_id VARCHAR(255) NOT NULL PRIMARY KEY,
+                payment_id CHAR(36) NOT NULL,
+                claimed_at %s NOT NULL""".formatted(Dialect.of(index).timestamp()));
+        shardMap = new ShardMap(index, config.getBuckets(), shards.size(), config.getMapRefreshInterval());
+        log.info("Payments sharded over {} databases in {} buckets", shards.size(), config.getBuckets());
+    }
+
+    @Override
+    public <S extends Payment> S save(S payment) {
+        if (payment.getTransactionId() == null || payment.getAmount() == null || payment.getStatus() == null) {
+            throw new DataIntegrityViolationException("Payment has null transaction ID, amount or status");
+        }
+        if (payment.getId() == null) {
+            payment.setId(UUID.randomUUID());
+        }
+        // what the entity callbacks do on the JPA store
+        var now = Payment.now();
+        if (payment.getCreatedAt() == null) payment.setCreatedAt(now);
+        payment.setUpdatedAt(now);
+
+        var id = payment.getId().toString();
+        int bucket = shardMap.bucketOf(payment.getId());
+        var shard = shards.get(shardMap.ownerForWrite(bucket, config.getFrozenWriteTimeout()));
+        var current = shard.query("SELECT transaction_id, version FROM payments WHERE id = ?",
+                (row, number) -> new StoredRow(row.getString(1), row.getLong(2)), id);
+        var transactionId = payment.getTransactionId();
+
+        if (current.isEmpty()) {
+            claim(transactionId, id);
+            payment.setVersion(0);
+            try {
+                shard.update(INSERT, insertArguments(payment, bucket));
+            } catch (RuntimeException e) {
+                release(transactionId, id);
+                throw e;
+            }
+        } else {
+            var previous = current.getFirst();
+            if (!previous.transactionId().equals(transactionId)) claim(transactionId, id);
+            // compared and set in one statement, so two writers never both move the version to the same value
+            int updated = shard.update("""
+                            UPDATE payments SET transaction_id = ?, amount = ?, status = ?, created_at = ?, updated_at = ?,
+                            version = ? WHERE id = ? AND version = ?""",
+                    transactionId, payment.getAmount().toBigDecimal(), payment.getStatus().name(),
+                    toTimestamp(payment.getCreatedAt()), toTimestamp(payment.getUpdatedAt()), previous.version() + 1,
+                    id, previous.version());
+            if (updated == 0) {
+                if (!previous.transactionId().equals(transactionId)) release(transactionId, id);
+                throw new OptimisticLockingFailureException("Payment " + id + " was changed by another writer");
+            }
+            if (!previous.transactionId().equals(transactionId)) release(previous.transactionId(), id);
+            payment.setVersion(previous.version() + 1);
+        }
+        return payment;
+    }
+
+    @Override
+    public <S extends Payment> S saveAndFlush(S payment) {
+        return save(payment);
+    }
+
+    @Override
+    public <S extends Payment> List<S> saveAll(Iterable<S> payments) {
+        var saved = new ArrayList<S>();
+        for (var payment : payments) {
+            saved.add(save(payment));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends Payment> List<S> saveAllAndFlush(Iterable<S> payments) {
+        return saveAll(payments);
+    }
+
+    @Override
+    public Optional<Payment> findById(UUID id) {
+        var shard = shards.get(shardMap.ownerOf(shardMap.bucketOf(id)));
+        return shard.query("SELECT " + COLUMNS + " FROM payments WHERE id = ?", PAYMENT, id.toString())
+                .stream().findFirst();
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        // a claim can outlive a payment that never reached its shard
+        return index.queryForList("SELECT payment_id FROM payment_transaction_ids WHERE transaction_id = ?",
+                String.class, transactionId).stream().anyMatch(owner -> existsById(UUID.fromString(owner)));
+    }
+
+    /**
+     * Up to {@code limit} payments with an ID after {@code afterId} (all when {@code null}), ordered by ID as text.
+     * Pass the last ID of a page to get the next one.
+     */
+    public List<Payment> findPage(String afterId, int limit) {
+        var page = new ArrayList<Payment>(limit);
+        var cursor = afterId == null ? "" : afterId;
+        while (page.size() < limit) {
+            var pages = scatter(cursor, limit);
+
+            // a shard that returned a full page may have more rows past its last one, so the merge is only
+            // complete up to the smallest such last ID
+            String boundary = null;
+            var merged = new ArrayList<Payment>();
+            for (int shard = 0; shard < pages.size(); shard++) {
+                var rows = pages.get(shard);
+                if (rows.size() == limit) {
+                    var last = rows.getLast().getId().toString();
+                    if (boundary == null || last.compareTo(boundary) < 0) boundary = last;
+                }
+                for (var payment : rows) {
+                    if (shardMap.ownerOf(shardMap.bucketOf(payment.getId())) == shard) merged.add(payment);
+                }
+            }
+            merged.sort(Comparator.comparing(payment -> payment.getId().toString()));
+
+            for (var payment : merged) {
+                if (boundary != null && payment.getId().toString().compareTo(boundary) > 0) break;
+                page.add(payment);
+                if (page.size() == limit) return page;
+            }
+            if (boundary == null) return page;
+            cursor = boundary;
+        }
+        return page;
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        var payments = new ArrayList<Payment>();
+        List<Payment> page;
+        String cursor = null;
+        do {
+            page = findPage(cursor, config.getPageSize());
+            payments.addAll(page);
+            if (!page.isEmpty()) cursor = page.getLast().getId().toString();
+        } while (page.size() == config.getPageSize());
+        return payments;
+    }
+
+    @Override
+    public List<Payment> findAllById(Iterable<UUID> ids) {
+        var payments = new ArrayList<Payment>();
+        for (var id : ids) {
+            findById(id).ifPresent(payments::add);
+        }
+        return payments;
+    }
+
+    @Override
+    public List<Payment> findAll(Sort sort) {
+        var payments = findAll();
+        if (sort.isSorted()) payments.sort(PaymentSort.comparator(sort));
+        return payments;
+    }
+
+    @Override
+    public Page<Payment> findAll(Pageable pageable) {
+        var payments = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) return new PageImpl<>(payments);
+
+        int from = (int) Math.min(pageable.getOffset(), payments.size());
+        int to = Math.min(from + pageable.getPageSize(), payments.size());
+        return new PageImpl<>(new ArrayList<>(payments.subList(from, to)), pageable, payments.size());
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            count += countOwned(shard);
+        }
+        return count;
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        var key = id.toString();
+        var shard = shards.get(shardMap.ownerForWrite(shardMap.bucketOf(id), config.getFrozenWriteTimeout()));
+        var transactionIds = shard.queryForList("SELECT transaction_id FROM payments WHERE id = ?", String.class, key);
+        if (transactionIds.isEmpty()) return;
+
+        shard.update("DELETE FROM payments WHERE id = ?", key);
+        release(transactionIds.getFirst(), key);
+    }
+
+    @Override
+    public void delete(Payment payment) {
+        if (payment.getId() != null) deleteById(payment.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends UUID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Payment> payments) {
+        payments.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        for (var shard : shards) {
+            shard.update("DELETE FROM payments");
+        }
+        index.update("DELETE FROM payment_transaction_ids");
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Payment> payments) {
+        deleteAll(payments);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<UUID> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public void flush() {
+        // every write is committed when it returns
+    }
+
+    @Override
+    @Deprecated
+    public Payment getOne(UUID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Payment getById(UUID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Payment getReferenceById(UUID id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Payment not found: " + id));
+    }
+
+    @Override
+    public <S extends Payment> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> List<S> findAll(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> long count(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment> boolean exists(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends Payment, R> R findBy(Example<S> example,
+                                            Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public void destroy() {
+        scatter.close();
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    int shardCount() {
+        return shards.size();
+    }
+
+    JdbcTemplate shard(int shard) {
+        return shards.get(shard);
+    }
+
+    Dialect dialect(int shard) {
+        return dialects.get(shard);
+    }
+
+    JdbcTemplate index() {
+        return index;
+    }
+
+    ShardMap shardMap() {
+        return shardMap;
+    }
+
+    ShardingConfig config() {
+        return config;
+    }
+
+    /**
+     * Payments on {@code shard} in the buckets it owns, leaving out copies of moved buckets not cleaned up yet.
+     */
+    long countOwned(int shard) {
+        long[] count = {0};
+        shards.get(shard).query("SELECT bucket, COUNT(*) FROM payments GROUP BY bucket", row -> {
+            if (shardMap.ownerOf(row.getInt(1)) == shard) count[0] += row.getLong(2);
+        });
+        return count[0];
+    }
+
+    private List<List<Payment>> scatter(String afterId, int limit) {
+        var futures = new ArrayList<Future<List<Payment>>>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            var shard = shards.get(i);
+            var query = dialects.get(i).limit("SELECT " + COLUMNS + " FROM payments WHERE id > ? ORDER BY id");
+            futures.add(scatter.submit(() -> shard.query(query, PAYMENT, afterId, limit)));
+        }
+
+        var pages = new ArrayList<List<Payment>>(shards.size());
+        try {
+            for (var future : futures) {
+                pages.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while listing payments", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof DataAccessException dataAccess) throw dataAccess;
+            throw new IllegalStateException("Listing payments failed", e.getCause());
+        }
+        return pages;
+    }
+
+    private void claim(String transactionId, String paymentId) {
+        try {
+            index.update("INSERT INTO payment_transaction_ids (transaction_id, payment_id, claimed_at) VALUES (?, ?, ?)",
+                    transactionId, paymentId, toTimestamp(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            var owners = index.queryForList("SELECT payment_id FROM payment_transaction_ids WHERE transaction_id = ?",
+                    String.class, transactionId);
+            if (owners.isEmpty()) {
+                claim(transactionId, paymentId);
+                return;
+            }
+            var owner = owners.getFirst();
+            if (owner.equals(paymentId)) return;
+
+            // a claim whose payment never reached its shard, left by a crash between the two writes
+            var claimedBefore = toTimestamp(Instant.now().minus(config.getOrphanClaimAge()));
+            if (!existsById(UUID.fromString(owner)) && index.update("""
+                            UPDATE payment_transaction_ids SET payment_id = ?, claimed_at = ?
+                            WHERE transaction_id = ? AND payment_id = ? AND claimed_at < ?""",
+                    paymentId, toTimestamp(Instant.now()), transactionId, owner, claimedBefore) == 1) {
+                log.warn("Took over transaction ID {} from payment {}, which is on no shard", transactionId, owner);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private void release(String transactionId, String paymentId) {
+        index.update("DELETE FROM payment_transaction_ids WHERE transaction_id = ? AND payment_id = ?",
+                transactionId, paymentId);
+    }
+
+    private HikariDataSource open(ShardingConfig.Database database, String poolName) {
+        var dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(database.getUrl())
+                .username(database.getUsername())
+                .password(database.getPassword())
+                .driverClassName(database.getDriverClassName())
+                .build();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(database.getMaximumPoolSize());
+        dataSources.add(dataSource);
+        return dataSource;
+    }
+
+    private static void createPaymentsTable(JdbcTemplate shard, Dialect dialect) {
+        Dialect.createTable(shard, "payments", """
+                id CHAR(36) NOT NULL PRIMARY KEY,
+                transaction_id VARCHAR(255) NOT NULL,
+                amount DECIMAL(19, 2) NOT NULL,
+                status VARCHAR(16) NOT NULL,
+                created_at %1$s NULL,
+                updated_at %1$s NULL,
+                version BIGINT DEFAULT 0 NOT NULL,
+                bucket INT NOT NULL""".formatted(dialect.timestamp()));
+        // not every database has CREATE INDEX IF NOT EXISTS
+        shard.execute((Connection connection) -> {
+            var metaData = connection.getMetaData();
+            var table = metaData.storesUpperCaseIdentifiers() ? "PAYMENTS" : "payments";
+            // tables created before payments had versions
+            var version = metaData.storesUpperCaseIdentifiers() ? "VERSION" : "version";
+            try (var columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, version);
+                 var statement = connection.createStatement()) {
+                if (!columns.next()) statement.execute("ALTER TABLE payments ADD version BIGINT DEFAULT 0 NOT NULL");
+            }
+            try (var indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+                while (indexes.next()) {
+                    if ("idx_payments_bucket".equalsIgnoreCase(indexes.getString("INDEX_NAME"))) return null;
+                }
+            }
+            try (var statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX idx_payments_bucket ON payments (bucket, id)");
+            }
+            return null;
+        });
+    }
+
+    static Object[] insertArguments(Payment payment, int bucket) {
+        return new Object[]{payment.getId().toString(), payment.getTransactionId(), payment.getAmount().toBigDecimal(),
+                payment.getStatus().name(), toTimestamp(payment.getCreatedAt()), toTimestamp(payment.getUpdatedAt()),
+                payment.getVersion(), bucket};
+    }
+
+    static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private record StoredRow(String transactionId, long version) {
+    }
+
+    private static UnsupportedOperationException queryByExampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the sharded payment store");
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.shutdown;
+
+import java.time.Duration;
+
+/**
+ * What a shutdown drained and what it had to abandon at a deadline.
+ *
+ * @param requestsDrained    requests in flight when draining began that completed
+ * @param requestsAbandoned  requests still running at the deadline
+ * @param requestsRefused    requests refused with 503 while draining
+ * @param producerFlushed    whether every buffered Kafka record was acknowledged
+ * @param consumersStopped   listener containers that finished their batch and committed it
+ * @param consumersAbandoned listener containers still running at the deadline
+ */
+public record DrainReport(Duration elapsed, int requestsDrained, int requestsAbandoned, long requestsRefused,
+                          boolean producerFlushed, int consumersStopped, int consumersAbandoned) {
+
+    public boolean clean() {
+        return requestsAbandoned == 0 && producerFlushed && consumersAbandoned == 0;
+    }
+}
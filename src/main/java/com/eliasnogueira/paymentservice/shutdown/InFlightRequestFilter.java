@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.shutdown;
+
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the API requests in flight, and refuses new ones with 503 once the service is draining, so callers retry on
+ * another instance instead of being cut off halfway. Runs before every other filter, admission control included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/api/";
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PaymentMetrics metrics;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder refused = new LongAdder();
+    private final Object idle = new Object();
+    private volatile boolean draining;
+
+    public InFlightRequestFilter(PaymentMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // counted before checking, so a request that got past the check is always waited for
+        inFlight.incrementAndGet();
+        try {
+            if (draining) {
+                refuse(request, response);
+                return;
+            }
+            chain.doFilter(request, response);
+        } finally {
+            if (inFlight.decrementAndGet() == 0 && draining) {
+                synchronized (idle) {
+                    idle.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Refuses every request from now on.
+     *
+     * @return the requests in flight at that moment
+     */
+    public int startDraining() {
+        draining = true;
+        return inFlight.get();
+    }
+
+    /**
+     * Waits until no request is in flight, or the timeout elapsed.
+     *
+     * @return whether every request completed
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idle) {
+            while (inFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+            }
+        }
+        return true;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long refused() {
+        return refused.sum();
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    private void refuse(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        refused.increment();
+        metrics.admissionRejected(HttpMethod.GET.matches(request.getMethod()) ? "read" : "write", "shutting_down");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        // a keep-alive connection would bring the caller's next request back here
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType("text/plain");
+        response.getWriter().write(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+    }
+}
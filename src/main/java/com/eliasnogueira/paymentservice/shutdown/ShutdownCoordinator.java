@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.shutdown;
+
+import com.eliasnogueira.paymentservice.config.ShutdownConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEventPublisher;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the service when the application context closes, before anything else is stopped:
+ * <ol>
+ *     <li>readiness turns to {@code REFUSING_TRAFFIC}, and after {@code payment.shutdown.readiness-delay} new API
+ *     requests are refused with 503;</li>
+ *     <li>requests in flight, with their fraud checks and event sends, get up to
+ *     {@code payment.shutdown.request-timeout} to complete;</li>
+ *     <li>the Kafka producer is flushed, or with {@code in-process-events} the bus is delivered;</li>
+ *     <li>the listener containers finish the records of their current poll and commit them.</li>
+ * </ol>
+ * Each step has its own deadline; whatever missed it is reported as abandoned in the {@link DrainReport}. The web
+ * server, the Kafka clients and the background writers are only stopped afterwards, in their own phases; the writers
+ * last, in {@link #BACKGROUND_WRITER_PHASE}, since everything stopped before them may still hand them work.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShutdownCoordinator implements SmartLifecycle {
+
+    /**
+     * Phase of the components writing in the background, such as the history writer and the spool drainer: below the
+     * web server, the listener containers and the in-process bus, so they stop once nothing can hand them work.
+     */
+    public static final int BACKGROUND_WRITER_PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final ShutdownConfig config;
+    private final InFlightRequestFilter requests;
+    private final PaymentEventPublisher publisher;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listeners;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean running;
+
+    @Getter
+    private volatile DrainReport lastReport;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            if (config.isEnabled()) lastReport = drain();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while draining, shutting down without waiting");
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped first, before the web server and the Kafka listener containers; DEFAULT_PHASE is the same value, so
+    // nothing that has to outlive the drain may keep it
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    DrainReport drain() throws InterruptedException {
+        long start = System.nanoTime();
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        if (config.getReadinessDelay().isPositive()) Thread.sleep(config.getReadinessDelay());
+
+        int inFlight = requests.startDraining();
+        requests.awaitIdle(config.getRequestTimeout());
+        int requestsAbandoned = requests.inFlight();
+
+        boolean producerFlushed = publisher.flush(config.getProducerFlushTimeout());
+
+        var registry = listeners.getIfAvailable();
+        var containers = registry == null ? List.<MessageListenerContainer>of()
+                : registry.getListenerContainers().stream().filter(MessageListenerContainer::isRunning).toList();
+        var stopped = new CountDownLatch(containers.size());
+        containers.forEach(container -> container.stop(stopped::countDown));
+        stopped.await(config.getConsumerTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        int consumersAbandoned = (int) stopped.getCount();
+
+        var report = new DrainReport(Duration.ofNanos(System.nanoTime() - start),
+                Math.max(0, inFlight - requestsAbandoned), requestsAbandoned, requests.refused(), producerFlushed,
+                containers.size() - consumersAbandoned, consumersAbandoned);
+        if (report.clean()) {
+            log.info("Drained in {}: {}", report.elapsed(), report);
+        } else {
+            log.warn("Drained in {} with losses: {}", report.elapsed(), report);
+        }
+        return report;
+    }
+}
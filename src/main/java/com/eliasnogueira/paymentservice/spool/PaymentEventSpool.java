@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.spool;
+
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.storage.MappedFileLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Durable local queue of payment events that could not be sent to Kafka, kept in a {@link MappedFileLog}.
+ * <p>
+ * Events are read back in the order they were spooled, starting at a cursor that is persisted once they were sent;
+ * a crash between sending and persisting the cursor sends them again, so delivery is at least once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "payment.spool", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentEventSpool implements DisposableBean {
+
+    public record SpooledEvent(PaymentEvent event, long nextPosition) {
+    }
+
+    private static final String LOG_NAME = "spool";
+
+    private final ObjectMapper objectMapper;
+    private final MappedFileLog spool;
+    private final Path cursorFile;
+    private final AtomicLong pending = new AtomicLong();
+    private volatile long cursor;
+
+    public PaymentEventSpool(SpoolConfig config, ObjectMapper objectMapper, PaymentMetrics metrics) throws IOException {
+        this.objectMapper = objectMapper;
+        this.spool = new MappedFileLog(config.getDir(), LOG_NAME, (int) config.getSegmentSize().toBytes(),
+                config.isSyncOnWrite());
+        this.cursorFile = config.getDir().resolve(LOG_NAME + ".cursor");
+        this.cursor = Files.exists(cursorFile) ? ByteBuffer.wrap(Files.readAllBytes(cursorFile)).getLong() : 0;
+        this.pending.set(spool.read(cursor, Integer.MAX_VALUE, (position, payload) -> { }));
+
+        if (pending.get() > 0) log.warn("{} payment events are waiting in the spool", pending.get());
+        metrics.gauge("payment.spool.pending", "Payment events waiting in the spool to be sent", pending::get);
+    }
+
+    /**
+     * Whether a failed send is worth spooling: the broker was unreachable or slow. A serialization error or a record
+     * the broker refuses ({@code RecordTooLargeException}) fails the same way on every attempt, so spooling it would
+     * block every event behind it.
+     */
+    public static boolean isRetriable(Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof TimeoutException) return true;
+        }
+        return false;
+    }
+
+    public void append(PaymentEvent event) {
+        try {
+            spool.append(ByteBuffer.wrap(objectMapper.writeValueAsBytes(event)));
+            pending.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spool the payment event", e);
+        }
+    }
+
+    /**
+     * Whether events are still waiting; new events must then be spooled too, to stay behind them.
+     */
+    public boolean hasBacklog() {
+        return pending.get() > 0;
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * The next events to send, oldest first, without removing them.
+     */
+    public List<SpooledEvent> peek(int maxEvents) {
+        var events = new ArrayList<SpooledEvent>();
+        try {
+            spool.read(cursor, maxEvents, (position, payload) -> {
+                long next = MappedFileLog.positionAfter(position, payload.remaining());
+                try {
+                    events.add(new SpooledEvent(objectMapper.readValue(toArray(payload), PaymentEvent.class), next));
+                } catch (IOException e) {
+                    // the record passed its CRC check, so it was written by an incompatible version
+                    log.error("Skipping unreadable spooled event at position {}", position, e);
+                    events.add(new SpooledEvent(null, next));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the payment event spool", e);
+        }
+        return events;
+    }
+
+    /**
+     * Marks the first {@code count} events returned by {@link #peek(int)}, up to {@code nextPosition}, as sent.
+     */
+    public synchronized void commit(long nextPosition, int count) {
+        try {
+            var temporary = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+            Files.write(temporary, ByteBuffer.allocate(Long.BYTES).putLong(nextPosition).array());
+            Files.move(temporary, cursorFile, ATOMIC_MOVE, REPLACE_EXISTING);
+            cursor = nextPosition;
+            pending.addAndGet(-count);
+            spool.deleteBefore(nextPosition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not persist the payment event spool cursor", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        spool.close();
+    }
+
+    private static byte[] toArray(ByteBuffer payload) {
+        var bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.spool;
+
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentKafkaProducer;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.shutdown.ShutdownCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the spooled payment events to {@code payment-events} in the order they were spooled, once Kafka is reachable
+ * again, backing off exponentially while it is not.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.spool", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SpoolDrainer implements SmartLifecycle {
+
+    private final PaymentEventSpool spool;
+    private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final SpoolConfig spoolConfig;
+    private final PaymentMetrics metrics;
+
+    private volatile Thread drainer;
+
+    @Override
+    public void start() {
+        drainer = Thread.ofPlatform().name("payment-spool-drainer").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        var thread = drainer;
+        drainer = null;
+        if (thread == null) return;
+
+        thread.interrupt();
+        try {
+            thread.join(spoolConfig.getSendTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return drainer != null;
+    }
+
+    // stopped after the drain, which may still spool the events whose send failed
+    @Override
+    public int getPhase() {
+        return ShutdownCoordinator.BACKGROUND_WRITER_PHASE;
+    }
+
+    private void drain() {
+        long backoff = spoolConfig.getRetryBackoff().toMillis();
+        while (drainer != null) {
+            try {
+                if (!spool.hasBacklog()) {
+                    Thread.sleep(spoolConfig.getDrainInterval().toMillis());
+                } else if (drainOnce()) {
+                    backoff = spoolConfig.getRetryBackoff().toMillis();
+                } else {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, spoolConfig.getMaxRetryBackoff().toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Spool drainer failed, retrying", e);
+            }
+        }
+    }
+
+    /**
+     * Sends the next batch of spooled events and commits the ones sent before the first failure. An event Kafka
+     * rejects for good is committed too, as dead, instead of blocking the spool behind it.
+     *
+     * @return whether the whole batch was sent
+     */
+    boolean drainOnce() throws InterruptedException {
+        var batch = spool.peek(spoolConfig.getDrainBatchSize());
+        if (batch.isEmpty()) return true;
+
+        // all in flight at once; the idempotent producer keeps them in order within each partition
+        var sends = new ArrayList<CompletableFuture<SendResult<String, PaymentEvent>>>(batch.size());
+        for (var spooled : batch) {
+            sends.add(spooled.event() == null ? CompletableFuture.completedFuture(null) : send(spooled.event()));
+        }
+
+        int done = 0;
+        int dead = 0;
+        try {
+            for (var send : sends) {
+                try {
+                    send.get(spoolConfig.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    if (PaymentEventSpool.isRetriable(e)) throw e;
+                    log.error("Dropping spooled payment event {}, Kafka will never accept it",
+                            PaymentKafkaProducer.keyOf(batch.get(done).event()), e.getCause());
+                    dead++;
+                }
+                done++;
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Kafka still unavailable, {} spooled events waiting: {}", spool.pending() - done, e.getMessage());
+        }
+
+        if (done > 0) {
+            spool.commit(batch.get(done - 1).nextPosition(), done);
+            metrics.eventsDrained(done - dead);
+            if (dead > 0) metrics.eventsUnsendable(dead);
+        }
+        return done == batch.size();
+    }
+
+    private CompletableFuture<SendResult<String, PaymentEvent>> send(PaymentEvent event) {
+        try {
+            return kafkaTemplate.send(PaymentKafkaProducer.TOPIC, PaymentKafkaProducer.keyOf(event), event);
+        } catch (RuntimeException e) {
+            // serialization errors are thrown instead of failing the future
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of binary records stored in fixed-size, memory-mapped segment files ({@code <name>-000001.log},
+ * {@code <name>-000002.log}, ...).
+ * <p>
+ * Each record is framed as {@code [length][crc32c][payload]}; the length is written last, so a record torn by a crash
+ * is detected on open and the log continues right before it. A record's position encodes its segment in the high 32
+ * bits and its offset in the low 32 bits.
+ * <p>
+ * Appends survive a process crash as soon as they return, because the pages belong to the OS page cache; surviving an
+ * OS crash or power loss requires {@code syncOnWrite} or explicit {@link #force()} calls.
+ */
+public class MappedFileLog implements Closeable {
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(long position, ByteBuffer payload) throws IOException;
+    }
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+
+    private final Path directory;
+    private final String name;
+    private final int segmentSize;
+    private final boolean syncOnWrite;
+    private final CRC32C crc = new CRC32C();
+
+    private int segmentIndex;
+    private Arena arena;
+    private MemorySegment memory;
+    private int writeOffset;
+
+    public MappedFileLog(Path directory, String name, int segmentSize, boolean syncOnWrite) throws IOException {
+        if (segmentSize <= HEADER_SIZE) throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.syncOnWrite = syncOnWrite;
+
+        Files.createDirectories(directory);
+        var segments = segments();
+        openSegment(segments.isEmpty() ? 1 : segments.getLast());
+        writeOffset = scan(memory, segmentIndex, Integer.MAX_VALUE, null);
+        memory.asSlice(writeOffset).fill((byte) 0);
+    }
+
+    public static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    /**
+     * Position right after the record at {@code position}, to resume reading from.
+     */
+    public static long positionAfter(long position, int payloadLength) {
+        return position + HEADER_SIZE + payloadLength;
+    }
+
+    /**
+     * Appends the remaining bytes of {@code payload} and returns the record position.
+     */
+    public synchronized long append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (length == 0 || length > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit a segment");
+        }
+        if (writeOffset + HEADER_SIZE + length > memory.byteSize()) {
+            rollOver();
+        }
+
+        crc.reset();
+        crc.update(payload.duplicate());
+        MemorySegment.copy(MemorySegment.ofBuffer(payload), 0, memory, writeOffset + HEADER_SIZE, length);
+        memory.set(INT, writeOffset + Integer.BYTES, (int) crc.getValue());
+        memory.set(INT, writeOffset, length);
+        if (syncOnWrite) memory.asSlice(writeOffset, HEADER_SIZE + length).force();
+
+        long position = (long) segmentIndex << 32 | writeOffset;
+        writeOffset += HEADER_SIZE + length;
+        return position;
+    }
+
+    /**
+     * Calls {@code handler} for up to {@code maxRecords} records from {@code fromPosition} (inclusive), in order, and
+     * returns how many it read.
+     */
+    public int read(long fromPosition, int maxRecords, RecordHandler handler) throws IOException {
+        int fromSegment = segmentOf(fromPosition);
+        int records = 0;
+        for (int index : segments()) {
+            if (index < fromSegment) continue;
+            if (records == maxRecords) break;
+
+            try (var readArena = Arena.ofConfined(); var channel = FileChannel.open(segmentPath(index), READ)) {
+                var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), readArena);
+                int offset = index == fromSegment ? (int) fromPosition : 0;
+                int[] read = {0};
+                scan(segment.asSlice(offset), index, maxRecords - records, (position, payload) -> {
+                    read[0]++;
+                    handler.accept(position + offset, payload);
+                });
+                records += read[0];
+            }
+        }
+        return records;
+    }
+
+    public void read(RecordHandler handler) throws IOException {
+        read(0, Integer.MAX_VALUE, handler);
+    }
+
+    /**
+     * Position the next appended record will get, unless it has to roll over to a new segment.
+     */
+    public synchronized long endPosition() {
+        return (long) segmentIndex << 32 | writeOffset;
+    }
+
+    /**
+     * Deletes the segments that only hold records before {@code position}; the active segment is always kept.
+     */
+    public synchronized void deleteBefore(long position) throws IOException {
+        int keepFrom = Math.min(segmentOf(position), segmentIndex);
+        for (int index : segments()) {
+            if (index < keepFrom) Files.deleteIfExists(segmentPath(index));
+        }
+    }
+
+    public synchronized void force() {
+        memory.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (arena != null) {
+            memory.force();
+            arena.close();
+            arena = null;
+        }
+    }
+
+    private int scan(MemorySegment segment, int index, int maxRecords, RecordHandler handler) throws IOException {
+        var checksum = new CRC32C();
+        long offset = 0;
+        for (int records = 0; records < maxRecords && offset + HEADER_SIZE <= segment.byteSize(); records++) {
+            int length = segment.get(INT, offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > segment.byteSize()) break;
+
+            var payload = segment.asSlice(offset + HEADER_SIZE, length).asByteBuffer();
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != segment.get(INT, offset + Integer.BYTES)) break;
+
+            if (handler != null) handler.accept((long) index << 32 | offset, payload.asReadOnlyBuffer());
+            offset += HEADER_SIZE + length;
+        }
+        return (int) offset;
+    }
+
+    private void rollOver() throws IOException {
+        memory.force();
+        arena.close();
+        openSegment(segmentIndex + 1);
+        writeOffset = 0;
+    }
+
+    private void openSegment(int index) throws IOException {
+        var segmentArena = Arena.ofShared();
+        try (var channel = FileChannel.open(segmentPath(index), CREATE, READ, WRITE)) {
+            // mapping past the end of the file grows it to the segment size
+            long size = Math.max(channel.size(), segmentSize);
+            memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, segmentArena);
+        } catch (IOException | RuntimeException e) {
+            segmentArena.close();
+            throw e;
+        }
+        arena = segmentArena;
+        segmentIndex = index;
+    }
+
+    private List<Integer> segments() throws IOException {
+        var prefix = name + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(file -> file.startsWith(prefix) && file.endsWith(".log"))
+                    .map(file -> Integer.parseInt(file, prefix.length(), file.length() - 4, 10))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve("%s-%06d.log".formatted(name, index));
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.warmup;
+
+import com.eliasnogueira.paymentservice.config.FraudCheckConfig;
+import com.eliasnogueira.paymentservice.config.WarmupConfig;
+import com.eliasnogueira.paymentservice.dto.PaymentRequest;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.springframework.http.HttpMethod.HEAD;
+
+/**
+ * Warms up the service before it reports itself ready. Spring Boot only switches readiness to
+ * {@code ACCEPTING_TRAFFIC} after all application runners completed, so traffic is held back until this is done.
+ * <p>
+ * Each external step is bounded by {@code payment.warmup.step-timeout}; a failed step is logged and skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "payment.warmup", name = "enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final String TOPIC = "payment-events";
+    private static final byte[] REQUEST_JSON = """
+            {"transactionId": "txn_warmup", "amount": 100.50}""".getBytes();
+    private static final Executor VIRTUAL_THREADS = command -> Thread.ofVirtual().name("warmup").start(command);
+
+    private final WarmupConfig warmupConfig;
+    private final ObjectProvider<DataSource> dataSource;
+    private final RestTemplate restTemplate;
+    private final FraudCheckConfig fraudCheckConfig;
+    private final ObjectProvider<KafkaTemplate<String, PaymentEvent>> kafkaTemplate;
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PaymentMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile double jitSpeedup;
+    private volatile double durationSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        metrics.gauge("payment.warmup.duration", "Seconds spent warming up before readiness", () -> durationSeconds);
+        metrics.gauge("payment.warmup.jit.speedup", "Cost of the first hot path round over the last one", () -> jitSpeedup);
+
+        long start = System.nanoTime();
+        var database = step("database", this::openConnectionPool);
+        var fraudService = step("fraud-service", this::connectToFraudService);
+        var kafka = step("kafka", this::connectToKafka);
+        CompletableFuture.allOf(database, fraudService, kafka).join();
+
+        timed("jit", this::warmUpHotPaths);
+        durationSeconds = (System.nanoTime() - start) / 1e9;
+        log.info("Warm-up finished in {} s, hot path speed-up {}x", String.format("%.2f", durationSeconds),
+                String.format("%.1f", jitSpeedup));
+    }
+
+    private void openConnectionPool() throws Exception {
+        var dataSource = this.dataSource.getIfAvailable();
+        if (dataSource == null) return;
+
+        int connections = dataSource.isWrapperFor(HikariDataSource.class)
+                ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle()) : 1;
+
+        // hold them all at once, otherwise the pool hands out the same connection again
+        List<Connection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                var connection = dataSource.getConnection();
+                opened.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (var connection : opened) connection.close();
+        }
+    }
+
+    private void connectToKafka() {
+        var kafkaTemplate = this.kafkaTemplate.getIfAvailable();
+        if (kafkaTemplate != null) kafkaTemplate.partitionsFor(TOPIC);
+    }
+
+    private void connectToFraudService() {
+        var requests = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < warmupConfig.getFraudConnections(); i++) {
+            requests.add(CompletableFuture.runAsync(() -> {
+                try {
+                    restTemplate.execute(fraudCheckConfig.getUrl(), HEAD, null, null);
+                } catch (Exception e) {
+                    // any answer, even an error status, leaves a warm keep-alive connection behind
+                    log.debug("Fraud service warm-up request answered with {}", e.getMessage());
+                }
+            }, VIRTUAL_THREADS));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+    }
+
+    // runs the request mapping and serialization paths on throwaway payments until the JIT stops compiling
+    private void warmUpHotPaths() throws Exception {
+        var compilation = ManagementFactory.getCompilationMXBean();
+        boolean canMonitor = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long deadline = System.nanoTime() + warmupConfig.getMaxJitTime().toNanos();
+        long previousCompilationTime = -1;
+        long firstRound = 0;
+        long lastRound = 0;
+        long sink = 0;
+
+        for (int round = 0; round < warmupConfig.getMaxRounds() && System.nanoTime() < deadline; round++) {
+            long roundStart = System.nanoTime();
+            for (int i = 0; i < warmupConfig.getIterationsPerRound(); i++) {
+                sink += exerciseHotPath(round, i);
+            }
+            lastRound = System.nanoTime() - roundStart;
+            if (round == 0) firstRound = lastRound;
+
+            if (canMonitor) {
+                long compilationTime = compilation.getTotalCompilationTime();
+                if (compilationTime == previousCompilationTime) break;
+                previousCompilationTime = compilationTime;
+            }
+        }
+
+        jitSpeedup = lastRound == 0 ? 1 : (double) firstRound / lastRound;
+        log.debug("Hot path warm-up checksum {}", sink);
+    }
+
+    private int exerciseHotPath(int round, int iteration) throws Exception {
+        var request = objectMapper.readValue(REQUEST_JSON, PaymentRequest.class);
+        validator.validate(request);
+
+        var payment = Payment.builder()
+                .id(new UUID(round, iteration))
+                .transactionId(request.getTransactionId())
+                .amount(request.getAmount())
+                .status(PENDING)
+                .build();
+
+        var response = paymentService.toResponse(payment);
+        var event = new PaymentEvent(Instant.now(), PaymentEvent.EventType.CREATED, payment);
+        return objectMapper.writeValueAsBytes(response).length + objectMapper.writeValueAsBytes(event).length;
+    }
+
+    private CompletableFuture<Void> step(String name, WarmupStep step) {
+        return CompletableFuture.runAsync(() -> timed(name, step), VIRTUAL_THREADS)
+                .orTimeout(warmupConfig.getStepTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Warm-up step {} did not complete: {}", name, e.getMessage());
+                    return null;
+                });
+    }
+
+    private void timed(String name, WarmupStep step) {
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            step.run();
+            completed = true;
+        } catch (Exception e) {
+            log.warn("Warm-up step {} failed", name, e);
+        } finally {
+            metrics.warmupStep(name, completed, System.nanoTime() - start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.admission;
+
+import com.eliasnogueira.paymentservice.config.AdmissionControlConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Should reject requests once the concurrency limit is reached")
+    void shouldRejectAboveLimit() {
+        var limiter = limiter(2);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(MILLISECONDS.toNanos(10), false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays close to the best latency")
+    void shouldGrowLimitWhenHealthy() {
+        var limiter = limiter(4);
+
+        for (int i = 0; i < 100; i++) {
+            fill(limiter);
+            releaseAll(limiter, MILLISECONDS.toNanos(10), false);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency degrades")
+    void shouldShrinkLimitWhenSlow() {
+        var limiter = limiter(20);
+        limiter.tryAcquire();
+        limiter.release(MILLISECONDS.toNanos(10), false);
+
+        for (int i = 0; i < 10; i++) {
+            clock.addAndGet(MILLISECONDS.toNanos(100));
+            limiter.tryAcquire();
+            limiter.release(MILLISECONDS.toNanos(100), false);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Should rate limit each client independently")
+    void shouldRateLimitPerClient() {
+        var rateLimiter = new ClientRateLimiter(1, 2, 100, clock::get);
+
+        assertThat(rateLimiter.tryAcquire("client-a")).isZero();
+        assertThat(rateLimiter.tryAcquire("client-a")).isZero();
+        assertThat(rateLimiter.tryAcquire("client-a")).isPositive();
+        assertThat(rateLimiter.tryAcquire("client-b")).isZero();
+
+        clock.addAndGet(SECONDS.toNanos(1));
+        assertThat(rateLimiter.tryAcquire("client-a")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should forget the least recently seen client once more than the tracked maximum are known")
+    void shouldBoundTrackedClients() {
+        var rateLimiter = new ClientRateLimiter(1, 1, 2, clock::get);
+
+        assertThat(rateLimiter.tryAcquire("client-a")).isZero();
+        assertThat(rateLimiter.tryAcquire("client-b")).isZero();
+        assertThat(rateLimiter.tryAcquire("client-a")).isPositive();
+        assertThat(rateLimiter.tryAcquire("client-c")).isZero();
+
+        assertThat(rateLimiter.tryAcquire("client-a")).isPositive();
+        assertThat(rateLimiter.tryAcquire("client-b")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should key the client rate limit on the remote address unless the client ID header is trusted")
+    void shouldIgnoreUntrustedClientIdHeader() throws Exception {
+        var config = new AdmissionControlConfig();
+        config.getClients().setEnabled(true);
+        config.getClients().setBurst(1);
+        var filter = new AdmissionControlFilter(config, new PaymentMetrics(new SimpleMeterRegistry()));
+
+        assertThat(create(filter, "client-a").getStatus()).isEqualTo(200);
+        assertThat(create(filter, "client-b").getStatus()).isEqualTo(429);
+
+        config.getClients().setTrustIdHeader(true);
+        assertThat(create(filter, "client-c").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should leave the fraud check and client errors out of the latency the write limit follows")
+    void shouldIgnoreFraudCheckAndClientErrors() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var filter = new AdmissionControlFilter(new AdmissionControlConfig(), new PaymentMetrics(registry));
+        int initialLimit = new AdmissionControlConfig().getWrites().getInitialLimit();
+
+        for (int i = 0; i < 5; i++) {
+            update(filter, (request, response) -> sleep(10));
+        }
+        for (int i = 0; i < 5; i++) {
+            update(filter, (request, response) -> {
+                // a PAID update: the usual work plus a slow fraud check
+                sleep(70);
+                ExcludedLatency.add(MILLISECONDS.toNanos(60));
+            });
+            update(filter, (request, response) -> {
+                sleep(60);
+                ((MockHttpServletResponse) response).setStatus(404);
+            });
+        }
+
+        assertThat(registry.get("payment.admission.write.limit").gauge().value()).isEqualTo(initialLimit);
+    }
+
+    @Test
+    @DisplayName("Should count settlements against the write limit without following their latency")
+    void shouldLimitSettlementsAsWrites() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var config = new AdmissionControlConfig();
+        config.getWrites().setInitialLimit(1);
+        config.getWrites().setMinLimit(1);
+        var filter = new AdmissionControlFilter(config, new PaymentMetrics(registry));
+        int[] createWhileSettling = new int[1];
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/settlements"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    try {
+                        createWhileSettling[0] = create(filter, "client-a").getStatus();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    sleep(50);
+                });
+
+        assertThat(createWhileSettling[0]).isEqualTo(503);
+        assertThat(registry.get("payment.admission.write.in_flight").gauge().value()).isZero();
+        assertThat(registry.get("payment.admission.write.limit").gauge().value()).isEqualTo(1);
+    }
+
+    private static MockHttpServletResponse create(AdmissionControlFilter filter, String clientId) throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/payments");
+        request.addHeader("X-Client-Id", clientId);
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private static void update(AdmissionControlFilter filter, FilterChain chain) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/payments/42"), new MockHttpServletResponse(), chain);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 100, 2.0, 0.9, SECONDS.toNanos(30), clock::get);
+    }
+
+    private void fill(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // take every permit
+        }
+    }
+
+    private void releaseAll(AdaptiveConcurrencyLimiter limiter, long latencyNanos, boolean failed) {
+        while (limiter.getInFlight() > 0) {
+            clock.addAndGet(latencyNanos);
+            limiter.release(latencyNanos, failed);
+        }
+    }
+}
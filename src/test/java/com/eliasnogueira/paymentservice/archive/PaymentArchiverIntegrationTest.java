@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.archive;
+
+import com.eliasnogueira.paymentservice.dto.PaymentRequest;
+import com.eliasnogueira.paymentservice.model.ArchivedPayment;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.ArchivedPaymentRepository;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.eliasnogueira.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.FRAUD;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("${spring.profiles.active}")
+// the background run happens once at startup, on an empty table, then waits for an hour
+@TestPropertySource(properties = {"payment.archive.enabled=true", "payment.archive.interval=1h"})
+class PaymentArchiverIntegrationTest {
+
+    private static final Instant OLD = Payment.now().minus(Duration.ofDays(365));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+
+    @Autowired
+    private PaymentArchiver archiver;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void cleanDatabase() {
+        paymentRepository.deleteAll();
+        archivedPaymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should move only the terminal payments older than the horizon")
+    void shouldArchiveOldTerminalPayments() {
+        var oldPaid = save("txn_old_paid", PAID, OLD);
+        var oldFraud = save("txn_old_fraud", FRAUD, OLD);
+        var oldPending = save("txn_old_pending", PENDING, OLD);
+        var recentPaid = save("txn_recent_paid", PAID, Instant.now());
+
+        assertThat(archiver.archiveBatch(Instant.now().minus(Duration.ofDays(30)), 100)).isEqualTo(2);
+
+        assertThat(paymentRepository.findAll()).extracting(Payment::getId)
+                .containsExactlyInAnyOrder(oldPending.getId(), recentPaid.getId());
+        assertThat(archivedPaymentRepository.findAll()).extracting(ArchivedPayment::getId)
+                .containsExactlyInAnyOrder(oldPaid.getId(), oldFraud.getId());
+        assertThat(archivedPaymentRepository.findById(oldPaid.getId()).orElseThrow().getUpdatedAt())
+                .isEqualTo(oldPaid.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Should move at most one batch per call")
+    void shouldArchiveInBatches() {
+        for (int i = 0; i < 5; i++) {
+            save("txn_batch_" + i, PAID, OLD);
+        }
+
+        var cutoff = Instant.now().minus(Duration.ofDays(30));
+        assertThat(archiver.archiveBatch(cutoff, 2)).isEqualTo(2);
+        assertThat(archiver.archiveBatch(cutoff, 2)).isEqualTo(2);
+        assertThat(archiver.archiveBatch(cutoff, 2)).isEqualTo(1);
+        assertThat(archiver.archiveBatch(cutoff, 2)).isZero();
+        assertThat(archivedPaymentRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should not copy a payment twice when the archive already has it")
+    void shouldSkipAlreadyArchivedPayments() {
+        var payment = save("txn_replayed", PAID, OLD);
+        archivedPaymentRepository.save(ArchivedPayment.of(payment, Instant.now()));
+
+        assertThat(archiver.archiveBatch(Instant.now().minus(Duration.ofDays(30)), 100)).isEqualTo(1);
+
+        assertThat(paymentRepository.count()).isZero();
+        assertThat(archivedPaymentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return an archived payment by ID")
+    void shouldReadArchivedPaymentById() throws Exception {
+        var payment = save("txn_archived_read", PAID, OLD);
+        archiver.archiveBatch(Instant.now().minus(Duration.ofDays(30)), 100);
+
+        mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId", is("txn_archived_read")))
+                .andExpect(jsonPath("$.status", is("PAID")));
+    }
+
+    @Test
+    @DisplayName("Should reject an update to an archived payment")
+    void shouldNotUpdateArchivedPayment() throws Exception {
+        var payment = save("txn_archived_update", PAID, OLD);
+        archiver.archiveBatch(Instant.now().minus(Duration.ofDays(30)), 100);
+
+        mockMvc.perform(put("/api/payments/{paymentId}", payment.getId())
+                        .contentType(APPLICATION_JSON)
+                        .content("""
+                                {"status": "FRAUD"}"""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should reject a new payment reusing the transaction ID of an archived one")
+    void shouldRejectArchivedTransactionId() {
+        save("txn_archived_duplicate", PAID, OLD);
+        archiver.archiveBatch(Instant.now().minus(Duration.ofDays(30)), 100);
+
+        var request = PaymentRequest.builder()
+                .transactionId("txn_archived_duplicate")
+                .amount(Money.parse("10.00"))
+                .build();
+
+        assertThatThrownBy(() -> paymentService.createPayment(request))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(paymentRepository.count()).isZero();
+    }
+
+    private Payment save(String transactionId, PaymentStatus status, Instant updatedAt) {
+        return paymentRepository.save(Payment.builder()
+                .transactionId(transactionId)
+                .amount(Money.parse("10.00"))
+                .status(status)
+                .createdAt(updatedAt)
+                .updatedAt(updatedAt)
+                .build());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BigDecimal} against {@link Money} on the operations a payment goes through: parsing the request amount,
+ * comparing it, building the fraud check query and serializing the response. Run it with the GC profiler (enabled by
+ * the {@code jmh} profile) to compare the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    public record DecimalAmount(BigDecimal amount) {
+    }
+
+    public record MoneyAmount(Money amount) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringBuilder url = new StringBuilder(128);
+
+    private String text;
+    private BigDecimal decimal;
+    private BigDecimal otherDecimal;
+    private Money money;
+    private Money otherMoney;
+
+    @Setup
+    public void setUp() {
+        text = "9999.99";
+        decimal = new BigDecimal(text);
+        otherDecimal = new BigDecimal("100.50");
+        money = Money.parse(text);
+        otherMoney = Money.parse("100.50");
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(text).setScale(2);
+    }
+
+    @Benchmark
+    public Money parseMoney() {
+        return Money.parse(text);
+    }
+
+    @Benchmark
+    public int compareBigDecimal() {
+        return decimal.compareTo(otherDecimal);
+    }
+
+    @Benchmark
+    public int compareMoney() {
+        return money.compareTo(otherMoney);
+    }
+
+    @Benchmark
+    public String fraudQueryBigDecimal() {
+        return "http://localhost:8087/check?amount=" + decimal + "&transactionId=txn_1";
+    }
+
+    @Benchmark
+    public int fraudQueryMoney() {
+        url.setLength(0);
+        url.append("http://localhost:8087/check?amount=");
+        money.appendTo(url).append("&transactionId=txn_1");
+        return url.length();
+    }
+
+    @Benchmark
+    public String serializeBigDecimal() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new DecimalAmount(decimal));
+    }
+
+    @Benchmark
+    public String serializeMoney() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new MoneyAmount(money));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.PaymentServiceApplication;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.eliasnogueira.paymentservice.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+
+/**
+ * Latency of the payments table with and without archival, on a file-backed H2 database holding {@code rows}
+ * payments, of which one in ten was updated within the archive horizon.
+ * <p>
+ * Without archival all of them sit in {@code payments}; with archival only the recent ones do and the rest are in
+ * {@code payments_archive}, the state {@code PaymentArchiver} converges to. The rows are generated in SQL rather
+ * than archived through the job, which would take hours at this size by design.
+ * <p>
+ * Loading 50M rows takes a while and about 10 GB of disk; {@code -Djmh.includes=PaymentArchiveBenchmark -p
+ * rows=1000000} gives a quick run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Threads(4)
+public class PaymentArchiveBenchmark {
+
+    private static final int LOAD_CHUNK = 1_000_000;
+    private static final int SAMPLED_IDS = 100_000;
+
+    @Param({"50000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean archived;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private PaymentRepository repository;
+    private PaymentService service;
+    private UUID[] recentIds;
+    private UUID[] oldIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var database = Files.createTempDirectory("payment-archive-bench").resolve("payments");
+        context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:" + database + ";CACHE_SIZE=1048576",
+                        "spring.kafka.listener.auto-startup=false",
+                        "spring.jpa.show-sql=false",
+                        "payment.history.enabled=false",
+                        "payment.read-model.enabled=false")
+                .run();
+        repository = context.getBean(PaymentRepository.class);
+        service = context.getBean(PaymentService.class);
+        var jdbc = context.getBean(JdbcTemplate.class);
+
+        int recent = rows / 10;
+        load(jdbc, "payments", 0, recent, 0);
+        load(jdbc, archived ? "payments_archive" : "payments", recent, rows, 365);
+        jdbc.execute("ANALYZE");
+
+        recentIds = sample(jdbc, "payments", 0, recent);
+        oldIds = sample(jdbc, archived ? "payments_archive" : "payments", recent, rows);
+        System.out.printf("%n[archived=%s] payments table: %d rows%n", archived, repository.count());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Payment insert() {
+        return repository.save(Payment.builder()
+                .transactionId("txn_bench_" + sequence.incrementAndGet())
+                .amount(Money.of(1050))
+                .status(PENDING)
+                .build());
+    }
+
+    @Benchmark
+    public Optional<Payment> findRecentById() {
+        return repository.findById(recentIds[ThreadLocalRandom.current().nextInt(recentIds.length)]);
+    }
+
+    // through the service, which falls through to the archive when archival is on
+    @Benchmark
+    public PaymentResponse findOldById() {
+        return service.getPaymentById(oldIds[ThreadLocalRandom.current().nextInt(oldIds.length)], true);
+    }
+
+    private static void load(JdbcTemplate jdbc, String table, int from, int to, int daysOld) {
+        var extraColumns = table.equals("payments_archive") ? ", archived_at" : "";
+        var extraValues = table.equals("payments_archive") ? ", CURRENT_TIMESTAMP" : "";
+        for (int start = from; start < to; start += LOAD_CHUNK) {
+            int end = Math.min(start + LOAD_CHUNK, to);
+            jdbc.update("INSERT INTO " + table + " (id, transaction_id, amount, status, created_at, updated_at"
+                    + extraColumns + ") SELECT RANDOM_UUID(), 'txn_load_' || X, 10.50, 'PAID', "
+                    + "DATEADD('DAY', -" + daysOld + ", CURRENT_TIMESTAMP), "
+                    + "DATEADD('DAY', -" + daysOld + ", CURRENT_TIMESTAMP)" + extraValues
+                    + " FROM SYSTEM_RANGE(?, ?)", start, end - 1);
+        }
+    }
+
+    // spread over the whole range, so lookups are not served from the few pages written first
+    private static UUID[] sample(JdbcTemplate jdbc, String table, int from, int to) {
+        var age = from == 0 ? ">=" : "<";
+        return jdbc.queryForList("SELECT id FROM " + table + " WHERE updated_at " + age
+                        + " DATEADD('DAY', -1, CURRENT_TIMESTAMP) AND RAND() < ? FETCH FIRST ? ROWS ONLY",
+                UUID.class, 2d * SAMPLED_IDS / (to - from), SAMPLED_IDS).toArray(UUID[]::new);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.spool.PaymentEventSpool;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.eliasnogueira.paymentservice.events.PaymentEvent.EventType.CREATED;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+
+/**
+ * Events per second the spool accepts while Kafka is down, with and without forcing each one to disk, and the rate at
+ * which the drainer can read them back. Every iteration starts from an empty spool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentEventSpoolBenchmark {
+
+    @Param({"false", "true"})
+    public boolean syncOnWrite;
+
+    private final PaymentEvent event = new PaymentEvent(Instant.now(), CREATED, Payment.builder()
+            .id(UUID.randomUUID()).transactionId("txn_spool").amount(Money.of(10050)).status(PENDING).build());
+
+    private Path dir;
+    private PaymentEventSpool spool;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("payment-spool");
+        var config = new SpoolConfig();
+        config.setDir(dir);
+        config.setSyncOnWrite(syncOnWrite);
+        spool = new PaymentEventSpool(config, JsonMapper.builder().findAndAddModules().build(),
+                new PaymentMetrics(new SimpleMeterRegistry()));
+        for (int i = 0; i < 10_000; i++) {
+            spool.append(event);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        spool.destroy();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void append() {
+        spool.append(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        spool.append(event);
+    }
+
+    // the first 500 events, read and deserialized the way the drainer does before sending them
+    @Benchmark
+    public List<PaymentEventSpool.SpooledEvent> peekBatch() {
+        return spool.peek(500);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.config.CompressionConfig;
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.representation.ContentCoding;
+import com.eliasnogueira.paymentservice.representation.PaymentProtobufCodec;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.Zstd;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Cost of a {@code GET /api/payments} body in each format and content coding: {@code encode} is what the service
+ * spends per response, {@code decode} what a caller spends. The bytes sent for each combination are printed before
+ * the run; the GC profiler of the {@code jmh} profile adds the bytes allocated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentFormatBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"identity", "gzip", "zstd"})
+    public String coding;
+
+    @Param({"1000"})
+    public int payments;
+
+    private final CompressionConfig config = new CompressionConfig();
+    private List<PaymentResponse> list;
+    private ObjectMapper mapper;
+    private JavaType listType;
+    private ContentCoding contentCoding;
+    private byte[] sent;
+    private int encodedSize;
+
+    @Setup
+    public void setUp() throws IOException {
+        var random = ThreadLocalRandom.current();
+        list = new ArrayList<>(payments);
+        for (int i = 0; i < payments; i++) {
+            list.add(new PaymentResponse(UUID.randomUUID(), "txn_" + UUID.randomUUID(),
+                    Money.of(random.nextLong(1, 1_000_000)), PaymentStatus.values()[i % PaymentStatus.values().length],
+                    random.nextLong()));
+        }
+        mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "cbor" -> new ObjectMapper(new CBORFactory());
+            case "smile" -> new ObjectMapper(new SmileFactory());
+            default -> null;
+        };
+        listType = new ObjectMapper().getTypeFactory().constructCollectionType(List.class, PaymentResponse.class);
+        contentCoding = coding.equals("identity") ? null : ContentCoding.of(coding);
+
+        var encoded = serialize();
+        encodedSize = encoded.length;
+        sent = contentCoding == null ? encoded : contentCoding.encode(encoded, config);
+        System.out.printf("%n[%s, %s] %d payments: %d bytes sent, %.1f per payment%n",
+                format, coding, payments, sent.length, (double) sent.length / payments);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        var encoded = serialize();
+        return contentCoding == null ? encoded : contentCoding.encode(encoded, config);
+    }
+
+    @Benchmark
+    public List<PaymentResponse> decode() throws IOException {
+        byte[] encoded = switch (coding) {
+            case "gzip" -> {
+                try (var input = new GZIPInputStream(new ByteArrayInputStream(sent))) {
+                    yield input.readAllBytes();
+                }
+            }
+            case "zstd" -> Zstd.decompress(sent, encodedSize);
+            default -> sent;
+        };
+        return mapper == null
+                ? PaymentProtobufCodec.readList(CodedInputStream.newInstance(encoded))
+                : mapper.readValue(encoded, listType);
+    }
+
+    private byte[] serialize() throws IOException {
+        if (mapper != null) return mapper.writeValueAsBytes(list);
+        var bytes = new ByteArrayOutputStream(64 * payments);
+        var output = CodedOutputStream.newInstance(bytes);
+        PaymentProtobufCodec.writeList(list, output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Operation.UPDATE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.DB_READ;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.DB_WRITE;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.FRAUD_CHECK;
+import static com.eliasnogueira.paymentservice.metrics.PaymentMetrics.Stage.KAFKA_SEND;
+
+/**
+ * Cost of the instrumentation added to one {@code updatePayment} call: five clock reads, four stage timers, the
+ * operation timer and the fraud verdict counter. The budget is 1 µs per call, single-threaded and under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentMetricsBenchmark {
+
+    private PaymentMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        metrics = new PaymentMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    public long clockReadsOnly() {
+        long start = System.nanoTime();
+        long read = System.nanoTime();
+        long checked = System.nanoTime();
+        long written = System.nanoTime();
+        long sent = System.nanoTime();
+        return sent - written + checked - read + start;
+    }
+
+    @Benchmark
+    public void instrumentedUpdate() {
+        recordUpdate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void instrumentedUpdateContended() {
+        recordUpdate();
+    }
+
+    private void recordUpdate() {
+        long start = System.nanoTime();
+        long read = System.nanoTime();
+        metrics.recordStage(DB_READ, read - start);
+        long checked = System.nanoTime();
+        metrics.recordStage(FRAUD_CHECK, checked - read);
+        metrics.fraudVerdict(false);
+        long written = System.nanoTime();
+        metrics.recordStage(DB_WRITE, written - checked);
+        long sent = System.nanoTime();
+        metrics.recordStage(KAFKA_SEND, sent - written);
+        metrics.recordOperation(UPDATE, System.nanoTime() - start);
+    }
+}
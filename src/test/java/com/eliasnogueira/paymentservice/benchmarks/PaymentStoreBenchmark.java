@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.PaymentServiceApplication;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+
+/**
+ * Operations per second of the in-memory payment store against H2 in memory, both driven through the
+ * {@link PaymentRepository} bean of an application context started with the given profile.
+ * <p>
+ * The trial setup also prints the heap retained per payment after loading {@value #PAYMENTS} of them. The in-memory
+ * store's write-ahead log is memory-mapped, so it is not part of that figure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(4)
+public class PaymentStoreBenchmark {
+
+    private static final int PAYMENTS = 100_000;
+
+    @Param({"in-memory", "h2"})
+    public String profile;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private PaymentRepository repository;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties(
+                        "spring.kafka.listener.auto-startup=false",
+                        "spring.jpa.show-sql=false",
+                        "payment.in-memory.wal-dir=" + Files.createTempDirectory("payment-wal"))
+                .run();
+        repository = context.getBean(PaymentRepository.class);
+
+        long empty = usedHeap();
+        ids = new UUID[PAYMENTS];
+        for (int i = 0; i < PAYMENTS; i++) {
+            ids[i] = repository.save(payment("txn_load_" + i)).getId();
+        }
+        System.out.printf("%n[%s] retained heap per payment: %d bytes%n", profile, (usedHeap() - empty) / PAYMENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Payment> findById() {
+        return repository.findById(randomId());
+    }
+
+    @Benchmark
+    public Payment updateStatus() {
+        var payment = repository.findById(randomId()).orElseThrow();
+        payment.setStatus(payment.getStatus() == PENDING ? PAID : PENDING);
+        return repository.save(payment);
+    }
+
+    // paired with a delete so the store keeps its size during the measurement
+    @Benchmark
+    public void insertAndDelete() {
+        var payment = repository.save(payment("txn_bench_" + sequence.incrementAndGet()));
+        repository.deleteById(payment.getId());
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(PAYMENTS)];
+    }
+
+    private static Payment payment(String transactionId) {
+        return Payment.builder().transactionId(transactionId).amount(Money.of(10050)).status(PENDING).build();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.benchmarks;
+
+import com.eliasnogueira.paymentservice.PaymentServiceApplication;
+import com.eliasnogueira.paymentservice.dto.PaymentUpdateRequest;
+import com.eliasnogueira.paymentservice.dto.SettlementRequest;
+import com.eliasnogueira.paymentservice.dto.SettlementResponse;
+import com.eliasnogueira.paymentservice.service.PaymentService;
+import com.eliasnogueira.paymentservice.settlement.SettlementService;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+
+/**
+ * Payments per second moved from PENDING to PAID through {@code PUT /api/payments/{id}}'s service method, one
+ * after the other the way a settlement client would call it, against one {@code POST /api/settlements}.
+ * <p>
+ * Both run on H2 against a Testcontainers Kafka and a local fraud-service stub answering after
+ * {@code fraudLatencyMillis}, so the fraud round trips and the event sends weigh what they would in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(SettlementBenchmark.PAYMENTS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(1)
+public class SettlementBenchmark {
+
+    static final int PAYMENTS = 1_000;
+    private static final byte[] CLEAN = "{\"fraudulent\": false}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"1", "20"})
+    public int fraudLatencyMillis;
+
+    private ConfluentKafkaContainer kafka;
+    private HttpServer fraudService;
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private SettlementService settlementService;
+    private JdbcTemplate jdbc;
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        kafka = new ConfluentKafkaContainer("confluentinc/cp-kafka:latest");
+        kafka.start();
+
+        fraudService = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        fraudService.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        fraudService.createContext("/api/fraud/check", exchange -> {
+            try (exchange) {
+                Thread.sleep(fraudLatencyMillis);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, CLEAN.length);
+                exchange.getResponseBody().write(CLEAN);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        fraudService.start();
+
+        context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties(
+                        "spring.kafka.bootstrap-servers=" + kafka.getBootstrapServers(),
+                        "spring.kafka.listener.auto-startup=false",
+                        "spring.jpa.show-sql=false",
+                        "fraud.check.url=http://localhost:" + fraudService.getAddress().getPort() + "/api/fraud",
+                        "payment.read-model.enabled=false")
+                .run();
+        paymentService = context.getBean(PaymentService.class);
+        settlementService = context.getBean(SettlementService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void createPendingPayments() {
+        jdbc.update("DELETE FROM payments");
+        jdbc.update("INSERT INTO payments (id, transaction_id, amount, status, created_at, updated_at) "
+                + "SELECT RANDOM_UUID(), 'txn_settle_' || RANDOM_UUID(), 10.50, 'PENDING', CURRENT_TIMESTAMP, "
+                + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?)", PAYMENTS);
+        ids = jdbc.queryForList("SELECT id FROM payments", UUID.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        fraudService.stop(0);
+        kafka.stop();
+    }
+
+    @Benchmark
+    public int singleItem() {
+        var request = PaymentUpdateRequest.builder().status(PAID).build();
+        int updated = 0;
+        for (var id : ids) {
+            if (paymentService.updatePayment(id, request).getStatus() == PAID) updated++;
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public SettlementResponse bulk() {
+        return settlementService.settle(SettlementRequest.builder().paymentIds(ids).status(PAID).build());
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.bus;
+
+import com.eliasnogueira.paymentservice.config.EventBusConfig;
+import com.eliasnogueira.paymentservice.config.EventRetryConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.events.PaymentEventHandler;
+import com.eliasnogueira.paymentservice.exceptions.InvalidPaymentEventException;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class InProcessEventBusTest {
+
+    private EventBusConfig config;
+    private EventRetryConfig retryConfig;
+    private SimpleMeterRegistry registry;
+    private InProcessEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        config = new EventBusConfig();
+        config.setRingSize(1024);
+        config.setBatchSize(64);
+        retryConfig = new EventRetryConfig();
+        retryConfig.setInitialDelay(Duration.ofMillis(10));
+        retryConfig.setMaxDelay(Duration.ofMillis(50));
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null && bus.isRunning()) bus.stop();
+    }
+
+    @Test
+    @DisplayName("Should deliver every event to every subscriber, in the order each publisher sent them")
+    void shouldDeliverInOrderFromManyPublishers() throws Exception {
+        var first = new Recorder("first", event -> {
+        });
+        var second = new Recorder("second", event -> {
+        });
+        bus = start(first, second);
+
+        int publishers = 4;
+        int eventsPerPublisher = 20_000;
+        var threads = new ArrayList<Thread>();
+        for (int p = 0; p < publishers; p++) {
+            var paymentId = UUID.randomUUID();
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < eventsPerPublisher; i += 10) {
+                    var batch = new ArrayList<PaymentEvent>();
+                    for (int j = i; j < i + 10; j++) batch.add(event(paymentId, j));
+                    bus.sendAll(batch);
+                }
+            }));
+        }
+        for (var thread : threads) thread.join();
+
+        assertThat(bus.flush(Duration.ofSeconds(10))).isTrue();
+        for (var recorder : List.of(first, second)) {
+            assertThat(recorder.events).hasSize(publishers * eventsPerPublisher);
+            assertThat(recorder.sequences.values()).allMatch(last -> last == eventsPerPublisher - 1);
+        }
+        assertThat(registry.get("payment.events.published").tag("result", "success").counter().count())
+                .isEqualTo(publishers * eventsPerPublisher);
+        assertThat(registry.get("payment.bus.backlog").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not subscribe an inactive handler")
+    void shouldSkipInactiveHandlers() throws Exception {
+        var active = new Recorder("active", event -> {
+        });
+        var inactive = new Recorder("inactive", event -> {
+        }) {
+            @Override
+            public boolean isActive() {
+                return false;
+            }
+        };
+        bus = start(active, inactive);
+
+        bus.send(event(UUID.randomUUID(), 0));
+
+        assertThat(bus.flush(Duration.ofSeconds(5))).isTrue();
+        assertThat(active.events).hasSize(1);
+        assertThat(inactive.events).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should retry a failed event without holding up the next ones, and dead-letter an invalid one")
+    void shouldRetryAndDeadLetter() {
+        var failures = new AtomicInteger();
+        var failingOnce = UUID.randomUUID();
+        var invalid = UUID.randomUUID();
+        var recorder = new Recorder("consumer", event -> {
+            var paymentId = event.getPayment().getId();
+            if (paymentId.equals(invalid)) throw new InvalidPaymentEventException("invalid");
+            if (paymentId.equals(failingOnce) && failures.getAndIncrement() == 0) {
+                throw new IllegalStateException("temporary");
+            }
+        });
+        bus = start(recorder);
+
+        bus.send(event(failingOnce, 0));
+        bus.send(event(invalid, 0));
+        var after = UUID.randomUUID();
+        bus.send(event(after, 0));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> recorder.sequences.containsKey(failingOnce));
+        assertThat(recorder.events).extracting(event -> event.getPayment().getId()).containsExactly(after, failingOnce);
+        assertThat(registry.get("payment.events.retried").tag("topic", "consumer-retry-0").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("payment.events.dead-lettered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail a publish once a stuck subscriber left no room for the publish timeout")
+    void shouldFailWhenRingStaysFull() throws Exception {
+        config.setRingSize(16);
+        config.setPublishTimeout(Duration.ofMillis(100));
+        var release = new CountDownLatch(1);
+        var stuck = new Recorder("stuck", event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        bus = start(stuck);
+
+        var paymentId = UUID.randomUUID();
+        for (int i = 0; i < 20; i++) bus.send(event(paymentId, i));
+
+        // 16 fit in the ring while the first one is being handled
+        assertThat(registry.get("payment.events.published").tag("result", "failure").counter().count())
+                .isEqualTo(4);
+        assertThat(bus.flush(Duration.ofMillis(50))).isFalse();
+
+        release.countDown();
+        assertThat(bus.flush(Duration.ofSeconds(5))).isTrue();
+    }
+
+    private InProcessEventBus start(PaymentEventHandler... handlers) {
+        var bus = new InProcessEventBus(config, retryConfig, List.of(handlers), new PaymentMetrics(registry));
+        bus.start();
+        return bus;
+    }
+
+    private static PaymentEvent event(UUID paymentId, int sequence) {
+        var payment = Payment.builder().id(paymentId).transactionId("txn_" + sequence).amount(Money.parse("10.00"))
+                .build();
+        return new PaymentEvent(Instant.now(), EventType.UPDATED, payment);
+    }
+
+    private static class Recorder implements PaymentEventHandler {
+
+        final List<PaymentEvent> events = new CopyOnWriteArrayList<>();
+        // last sequence seen per payment, which must only grow
+        final Map<UUID, Integer> sequences = new ConcurrentHashMap<>();
+        private final String name;
+        private final Consumer<PaymentEvent> action;
+
+        Recorder(String name, Consumer<PaymentEvent> action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void apply(PaymentEvent event) {
+            action.accept(event);
+            int sequence = Integer.parseInt(event.getPayment().getTransactionId().substring("txn_".length()));
+            sequences.merge(event.getPayment().getId(), sequence, (last, next) -> {
+                if (next != last + 1) throw new AssertionError("Out of order: " + last + " then " + next);
+                return next;
+            });
+            events.add(event);
+        }
+    }
+}
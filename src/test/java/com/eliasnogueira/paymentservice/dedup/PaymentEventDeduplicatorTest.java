@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.dedup;
+
+import com.eliasnogueira.paymentservice.config.DedupConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentEventDeduplicatorTest {
+
+    private DedupConfig config;
+    private EventWatermarkStore store;
+    private ObjectProvider<EventWatermarkStore> watermarks;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        config = new DedupConfig();
+        config.setGenerationSize(1_000);
+        config.setConfirmationCapacity(100);
+        store = mock(EventWatermarkStore.class);
+        when(store.find(any())).thenReturn(OptionalLong.empty());
+        watermarks = mock(ObjectProvider.class);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should drop a redelivered copy without reading the watermarks")
+    void shouldDropRecentDuplicateInMemory() {
+        var deduplicator = deduplicator(store);
+        var event = event(UUID.randomUUID(), PENDING, 0);
+
+        assertThat(deduplicator.isDuplicate(event)).isFalse();
+        deduplicator.processed(event);
+
+        assertThat(deduplicator.isDuplicate(copyOf(event))).isTrue();
+        verify(store, never()).find(any());
+        assertThat(registry.get("payment.dedup.events").tag("result", "duplicate").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should process the next version of a payment and an event whose processing failed")
+    void shouldProcessNewVersionsAndRetries() {
+        var deduplicator = deduplicator(null);
+        var paymentId = UUID.randomUUID();
+        var created = event(paymentId, PENDING, 0);
+        deduplicator.processed(created);
+
+        var paid = event(paymentId, PAID, 1);
+        assertThat(deduplicator.isDuplicate(paid)).isFalse();
+        // not marked as processed, as when the listener threw: the retry must go through
+        assertThat(deduplicator.isDuplicate(copyOf(paid))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should confirm an old duplicate with the watermark once the exact set forgot it")
+    void shouldFallBackToWatermark() {
+        config.setConfirmationCapacity(1);
+        var deduplicator = deduplicator(store);
+        var first = event(UUID.randomUUID(), PENDING, 0);
+        deduplicator.processed(first);
+        deduplicator.processed(event(UUID.randomUUID(), PENDING, 0));
+
+        when(store.find(first.getPayment().getId())).thenReturn(OptionalLong.of(Long.MAX_VALUE));
+
+        assertThat(deduplicator.isDuplicate(copyOf(first))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should check the watermarks of events published before the partitions were assigned")
+    void shouldCheckWatermarksAfterRebalance() {
+        var deduplicator = deduplicator(store);
+        var processedElsewhere = event(UUID.randomUUID(), PAID, 1);
+        when(store.find(processedElsewhere.getPayment().getId())).thenReturn(OptionalLong.of(Long.MAX_VALUE));
+
+        deduplicator.partitionsAssigned();
+
+        assertThat(deduplicator.isDuplicate(processedElsewhere)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep its memory bounded and its false positives near the configured rate")
+    void shouldStayBounded() {
+        var deduplicator = deduplicator(null);
+        for (int i = 0; i < 10_000; i++) {
+            deduplicator.processed(event(UUID.randomUUID(), PENDING, 0));
+        }
+        long memory = deduplicator.memoryInBytes();
+
+        for (int i = 0; i < 10_000; i++) {
+            var event = event(UUID.randomUUID(), PENDING, 0);
+            assertThat(deduplicator.isDuplicate(event)).isFalse();
+            deduplicator.processed(event);
+        }
+
+        assertThat(deduplicator.memoryInBytes()).isEqualTo(memory);
+        // two generations are probed, so up to twice the rate of one filter
+        assertThat(registry.get("payment.dedup.false-positive.ratio").gauge().value())
+                .isLessThan(2.5 * config.getFalsePositiveRate());
+    }
+
+    private PaymentEventDeduplicator deduplicator(EventWatermarkStore watermarkStore) {
+        when(watermarks.getIfAvailable()).thenReturn(watermarkStore);
+        return new PaymentEventDeduplicator(config, watermarks, new PaymentMetrics(registry));
+    }
+
+    private static PaymentEvent event(UUID paymentId, PaymentStatus status, long version) {
+        var payment = Payment.builder().id(paymentId).transactionId("txn_" + paymentId).amount(Money.parse("10.00"))
+                .status(status).updatedAt(Payment.now()).version(version).build();
+        return new PaymentEvent(Instant.now(), EventType.UPDATED, payment);
+    }
+
+    // a redelivered copy is deserialized again, so it shares nothing with the original but its content
+    private static PaymentEvent copyOf(PaymentEvent event) {
+        var payment = event.getPayment();
+        return new PaymentEvent(event.getTimestamp(), event.getType(), Payment.builder().id(payment.getId())
+                .transactionId(payment.getTransactionId()).amount(payment.getAmount()).status(payment.getStatus())
+                .updatedAt(payment.getUpdatedAt()).version(payment.getVersion()).build());
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.etag;
+
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("${spring.profiles.active}")
+class PaymentETagIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentVersionIndex versionIndex;
+
+    @BeforeEach
+    void cleanDatabase() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should answer a conditional GET with 304 from the version index without reading the payment")
+    void shouldRevalidateFromIndex() throws Exception {
+        var payment = paymentRepository.save(Payment.builder().transactionId("txn_etag_1")
+                .amount(Money.parse("10.00")).status(PENDING).build());
+
+        var etag = mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ETAG))
+                .andReturn().getResponse().getHeader(ETAG);
+
+        // gone from the database: only the index can still answer
+        paymentRepository.deleteById(payment.getId());
+
+        mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()).header(IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should return the new state and ETag once the payment is updated")
+    void shouldChangeETagOnUpdate() throws Exception {
+        var created = mockMvc.perform(post("/api/payments").contentType(APPLICATION_JSON)
+                        .content("{\"transactionId\": \"txn_etag_2\", \"amount\": 20.00}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ETAG))
+                .andReturn().getResponse();
+        var id = created.getContentAsString().replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+        var createdETag = created.getHeader(ETAG);
+
+        mockMvc.perform(get("/api/payments/{paymentId}", id).header(IF_NONE_MATCH, createdETag))
+                .andExpect(status().isNotModified());
+
+        var updatedETag = mockMvc.perform(put("/api/payments/{paymentId}", id).contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"FRAUD\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ETAG);
+        assertThat(updatedETag).isNotEqualTo(createdETag);
+
+        mockMvc.perform(get("/api/payments/{paymentId}", id).header(IF_NONE_MATCH, createdETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, updatedETag));
+    }
+
+    @Test
+    @DisplayName("Should revalidate the payment list until a payment is added")
+    void shouldRevalidateList() throws Exception {
+        paymentRepository.save(Payment.builder().transactionId("txn_etag_3")
+                .amount(Money.parse("30.00")).status(PENDING).build());
+
+        var etag = mockMvc.perform(get("/api/payments"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ETAG);
+
+        mockMvc.perform(get("/api/payments").header(IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        paymentRepository.save(Payment.builder().transactionId("txn_etag_4")
+                .amount(Money.parse("40.00")).status(PENDING).build());
+
+        mockMvc.perform(get("/api/payments").header(IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, not(etag)));
+    }
+
+    @Test
+    @DisplayName("Should keep the newest version when an older one is recorded later")
+    void shouldNotRollBackVersions() {
+        var paymentId = UUID.randomUUID();
+
+        versionIndex.record(paymentId, 2_000);
+        versionIndex.record(paymentId, 1_000);
+
+        assertThat(versionIndex.currentETag(paymentId)).isEqualTo(ETags.of(2_000));
+    }
+
+    @Test
+    @DisplayName("Should match an If-None-Match list, weak tags and the wildcard")
+    void shouldMatchIfNoneMatch() {
+        var etag = ETags.of(42);
+
+        assertThat(ETags.matches("\"1\", " + etag, etag)).isTrue();
+        assertThat(ETags.matches("W/" + etag, etag)).isTrue();
+        assertThat(ETags.matches("*", etag)).isTrue();
+        assertThat(ETags.matches("\"1\"", etag)).isFalse();
+        assertThat(ETags.matches(null, etag)).isFalse();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.events;
+
+import com.eliasnogueira.paymentservice.dedup.PaymentEventDeduplicator;
+import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"payment.retry.initial-delay=200ms", "payment.retry.max-delay=1s"})
+@AutoConfigureMockMvc
+@DirtiesContext
+class PaymentEventRetryIntegrationTest {
+
+    private static final ConfluentKafkaContainer KAFKA_CONTAINER =
+            new ConfluentKafkaContainer("confluentinc/cp-kafka:latest");
+
+    @Autowired
+    private PaymentKafkaProducer producer;
+
+    @Autowired
+    private PaymentKafkaConsumer consumer;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private PaymentEventDeduplicator deduplicator;
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        KAFKA_CONTAINER.start();
+        registry.add("spring.kafka.bootstrap-servers", KAFKA_CONTAINER::getBootstrapServers);
+    }
+
+    @Test
+    @DisplayName("Should process an event from a retry topic after a transient failure")
+    void shouldRetryTransientFailure() {
+        var event = event(UUID.randomUUID());
+        doThrow(new IllegalStateException("watermarks unavailable")).doCallRealMethod()
+                .when(deduplicator).isDuplicate(argThat(candidate -> isOf(candidate, event)));
+
+        producer.send(event);
+
+        Awaitility.await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+            assertThat(consumer.getConsumedEvents()).anySatisfy(consumed -> assertThat(isOf(consumed, event)).isTrue());
+            assertThat(registry.get("payment.events.retried").tag("topic", PaymentKafkaProducer.TOPIC + "-retry-0")
+                    .counter().count()).isGreaterThanOrEqualTo(1);
+        });
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an undeserializable record with its bytes while later events keep flowing")
+    void shouldDeadLetterPoisonMessage() throws Exception {
+        var poison = "{not a payment event".getBytes(StandardCharsets.UTF_8);
+        var rawProducerFactory = new DefaultKafkaProducerFactory<String, byte[]>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_CONTAINER.getBootstrapServers(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        new KafkaTemplate<>(rawProducerFactory).send(PaymentKafkaProducer.TOPIC, "poison", poison).get(10, SECONDS);
+        rawProducerFactory.destroy();
+
+        var next = event(UUID.randomUUID());
+        producer.send(next);
+
+        Awaitility.await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(consumer.getConsumedEvents()).anySatisfy(consumed -> assertThat(isOf(consumed, next)).isTrue()));
+        Awaitility.await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(deadLetters()).anySatisfy(record -> {
+                    assertThat(record.value()).isEqualTo(poison);
+                    assertThat(record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN)).isNotNull();
+                }));
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an invalid event without retrying it and re-drive it on request")
+    void shouldRedriveDeadLetters() throws Exception {
+        var deadLettered = registry.get("payment.events.dead-lettered").counter();
+        double before = deadLettered.count();
+
+        producer.send(new PaymentEvent(Instant.now(), EventType.CREATED, null));
+
+        Awaitility.await().atMost(Duration.ofSeconds(30))
+                .untilAsserted(() -> assertThat(deadLettered.count()).isGreaterThanOrEqualTo(before + 1));
+        double deadLetteredBeforeRedrive = deadLettered.count();
+
+        mockMvc.perform(post("/api/dead-letters/redrive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.redriven", greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.remaining").isNumber());
+
+        // still invalid, so it comes straight back
+        Awaitility.await().atMost(Duration.ofSeconds(30))
+                .untilAsserted(() -> assertThat(deadLettered.count()).isGreaterThan(deadLetteredBeforeRedrive));
+    }
+
+    private static List<ConsumerRecord<String, byte[]>> deadLetters() {
+        try (var dltConsumer = new KafkaConsumer<String, byte[]>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA_CONTAINER.getBootstrapServers(),
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class))) {
+            var partitions = dltConsumer.partitionsFor(PaymentKafkaConsumer.DEAD_LETTER_TOPIC).stream()
+                    .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                    .toList();
+            dltConsumer.assign(partitions);
+            dltConsumer.seekToBeginning(partitions);
+            var records = new ArrayList<ConsumerRecord<String, byte[]>>();
+            dltConsumer.poll(Duration.ofSeconds(5)).forEach(records::add);
+            return records;
+        }
+    }
+
+    private static PaymentEvent event(UUID paymentId) {
+        return new PaymentEvent(Instant.now(), EventType.CREATED, Payment.builder().id(paymentId)
+                .transactionId("txn_" + paymentId).amount(Money.parse("30.00")).status(PENDING).build());
+    }
+
+    private static boolean isOf(PaymentEvent candidate, PaymentEvent event) {
+        return candidate != null && candidate.getPayment() != null
+                && event.getPayment().getId().equals(candidate.getPayment().getId());
+    }
+}
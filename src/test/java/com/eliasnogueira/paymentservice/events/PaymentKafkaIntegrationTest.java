@@ -24,6 +24,7 @@
 package com.eliasnogueira.paymentservice.events;
 
 import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.model.Money;
 import com.eliasnogueira.paymentservice.model.Payment;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -37,7 +38,6 @@ import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.kafka.ConfluentKafkaContainer;
 import org.testcontainers.shaded.org.awaitility.Awaitility;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
@@ -70,7 +70,7 @@ class PaymentKafkaIntegrationTest {
     @BeforeAll
     static void beforeAll() {
         payment = Payment.builder().id(UUID.randomUUID())
-                .amount(new BigDecimal("200.00")).status(PENDING).build();
+                .amount(Money.parse("200.00")).status(PENDING).build();
     }
 
     @Test
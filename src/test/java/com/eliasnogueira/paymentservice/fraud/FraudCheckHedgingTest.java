@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.fraud;
+
+import com.eliasnogueira.paymentservice.config.FraudCheckConfig;
+import com.eliasnogueira.paymentservice.config.RestTemplateConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.service.FraudCheckService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudCheckHedgingTest {
+
+    private static final Duration STALL = Duration.ofSeconds(2);
+
+    private final Set<String> stalled = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private SimpleMeterRegistry registry;
+    private FraudCheckConfig config;
+    private FraudCheckService fraudCheckService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/fraud/check", this::handle);
+        server.start();
+
+        config = new FraudCheckConfig();
+        // two URLs for the same stub, so the balancer has two instances to choose from
+        config.setUrls(List.of("http://localhost:" + server.getAddress().getPort() + "/api/fraud",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/fraud"));
+        config.setApiKey("test-api-key");
+        config.setHedgeMinSamples(10);
+        config.setHedgeMinDelay(Duration.ofMillis(20));
+        config.setHedgeBudgetPercent(100);
+
+        registry = new SimpleMeterRegistry();
+        fraudCheckService = new FraudCheckService(new RestTemplateConfig().restTemplate(config), config,
+                new PaymentMetrics(registry));
+        for (int i = 0; i < config.getHedgeMinSamples(); i++) {
+            fraudCheckService.check(payment("txn_fast_" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should answer from a hedged request when the first one stalls")
+    void shouldHedgeStalledCheck() {
+        long start = System.nanoTime();
+        var verdict = fraudCheckService.check(payment("txn_slow_1"));
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(verdict.failed()).isFalse();
+        assertThat(elapsed).isLessThan(STALL);
+        assertThat(registry.get("payment.fraud.hedges").tag("outcome", "sent").counter().count()).isEqualTo(1);
+        assertThat(registry.get("payment.fraud.hedges").tag("outcome", "won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should wait for the first request when the hedge budget is spent")
+    void shouldRespectHedgeBudget() {
+        config.setHedgeBudgetPercent(0);
+        // spend what the warm-up checks saved up
+        for (int i = 0; i < 10; i++) {
+            fraudCheckService.check(payment("txn_slow_budget_" + i));
+        }
+
+        long start = System.nanoTime();
+        var verdict = fraudCheckService.check(payment("txn_slow_2"));
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(verdict.failed()).isFalse();
+        assertThat(elapsed).isGreaterThanOrEqualTo(STALL);
+        assertThat(registry.get("payment.fraud.hedges").tag("outcome", "over_budget").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    private static Payment payment(String transactionId) {
+        return Payment.builder().id(UUID.randomUUID()).transactionId(transactionId)
+                .amount(Money.parse("10.00")).status(PENDING).build();
+    }
+
+    // the first request for a slow transaction stalls, any later one answers at once
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var query = exchange.getRequestURI().getQuery();
+            var transactionId = query.substring(query.indexOf("transactionId=") + "transactionId=".length());
+            if (transactionId.startsWith("txn_slow") && stalled.add(transactionId)) {
+                Thread.sleep(STALL);
+            }
+            var body = "{\"fraudulent\": false, \"message\": \"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.eliasnogueira.paymentservice.fraud;
 
+import com.eliasnogueira.paymentservice.model.Money;
 import com.eliasnogueira.paymentservice.model.Payment;
 import com.eliasnogueira.paymentservice.service.FraudCheckService;
 import org.junit.jupiter.api.DisplayName;
@@ -8,8 +9,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
-import java.math.BigDecimal;
-
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -26,7 +25,7 @@ class FraudCheckIntegrationTest {
     @DisplayName("Should return not fraudulent for a valid payment")
     void shouldReturnNotFraudulent() {
         var payment = Payment.builder()
-                .amount(new BigDecimal("123.56")).transactionId("txn_123").build();
+                .amount(Money.parse("123.56")).transactionId("txn_123").build();
 
         boolean result = fraudCheckService.checkForFraud(payment);
         assertFalse(result);
@@ -36,7 +35,7 @@ class FraudCheckIntegrationTest {
     @DisplayName("Should return fraudulent for a suspicious payment")
     void shouldReturnFraudulent() {
         var payment = Payment.builder()
-                .amount(new BigDecimal("9999.99")).transactionId("txn_987").build();
+                .amount(Money.parse("9999.99")).transactionId("txn_987").build();
 
         boolean result = fraudCheckService.checkForFraud(payment);
         assertTrue(result);
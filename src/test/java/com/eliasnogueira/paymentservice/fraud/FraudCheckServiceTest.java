@@ -25,6 +25,8 @@ package com.eliasnogueira.paymentservice.fraud;
 
 import com.eliasnogueira.paymentservice.config.FraudCheckConfig;
 import com.eliasnogueira.paymentservice.dto.FraudCheckResponse;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
 import com.eliasnogueira.paymentservice.model.Payment;
 import com.eliasnogueira.paymentservice.service.FraudCheckService;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,7 +39,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
@@ -59,6 +60,9 @@ class FraudCheckServiceTest {
     @Mock
     private FraudCheckConfig fraudCheckConfig;
 
+    @Mock
+    private PaymentMetrics metrics;
+
     @InjectMocks
     private FraudCheckService fraudCheckService;
 
@@ -67,7 +71,7 @@ class FraudCheckServiceTest {
     @BeforeEach
     void setUp() {
         payment = Payment.builder().id(UUID.randomUUID()).transactionId("txn_test_123")
-                .amount(BigDecimal.valueOf(100.50)).status(PENDING).build();
+                .amount(Money.parse("100.50")).status(PENDING).build();
 
         when(fraudCheckConfig.getUrl()).thenReturn("http://fraud-check-service/api");
         when(fraudCheckConfig.getApiKey()).thenReturn("test-api-key");
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.history;
+
+import com.eliasnogueira.paymentservice.model.PaymentStatusHistory;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.eliasnogueira.paymentservice.repository.PaymentStatusHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.FRAUD;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("${spring.profiles.active}")
+// nothing listens there, so the fraud check fails and the payment is flagged as fraud
+@TestPropertySource(properties = "fraud.check.url=http://localhost:1/api/fraud")
+class PaymentHistoryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentStatusHistoryRepository historyRepository;
+
+    @Autowired
+    private PaymentHistoryStore historyStore;
+
+    @BeforeEach
+    void cleanDatabase() {
+        paymentRepository.deleteAll();
+        historyRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should return the status timeline with the fraud check details")
+    void shouldReturnStatusTimeline() throws Exception {
+        var created = mockMvc.perform(post("/api/payments")
+                        .contentType(APPLICATION_JSON)
+                        .content("""
+                                {"transactionId": "txn_history", "amount": 42.00}"""))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        var paymentId = objectMapper.readTree(created).get("id").asText();
+
+        mockMvc.perform(put("/api/payments/{paymentId}", paymentId)
+                        .contentType(APPLICATION_JSON)
+                        .content("""
+                                {"status": "PAID"}"""))
+                .andExpect(jsonPath("$.status", is("FRAUD")));
+
+        mockMvc.perform(get("/api/payments/{paymentId}/history", paymentId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].toStatus", is("PENDING")))
+                .andExpect(jsonPath("$[1].fromStatus", is("PENDING")))
+                .andExpect(jsonPath("$[1].toStatus", is("FRAUD")))
+                .andExpect(jsonPath("$[1].fraudulent", is(true)))
+                .andExpect(jsonPath("$[1].fraudCheckFailed", is(true)));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(
+                historyRepository.findByPaymentIdOrderByChangedAtAscIdAsc(UUID.fromString(paymentId)))
+                .extracting(PaymentStatusHistory::getToStatus)
+                .containsExactly(PENDING, FRAUD));
+    }
+
+    @Test
+    @DisplayName("Should return 404 for the history of an unknown payment")
+    void shouldReturn404ForUnknownPayment() throws Exception {
+        mockMvc.perform(get("/api/payments/{paymentId}/history", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should purge the entries older than the retention period")
+    void shouldPurgeExpiredEntries() {
+        var paymentId = UUID.randomUUID();
+        historyRepository.save(entry(paymentId, Instant.now().minus(Duration.ofDays(365))));
+        var recent = historyRepository.save(entry(paymentId, Instant.now()));
+
+        assertThat(historyStore.purgeExpired()).isEqualTo(1);
+        assertThat(historyRepository.findAll()).extracting(PaymentStatusHistory::getId).containsExactly(recent.getId());
+    }
+
+    private static PaymentStatusHistory entry(UUID paymentId, Instant changedAt) {
+        return PaymentStatusHistory.builder().id(TimeOrderedUuid.next()).paymentId(paymentId)
+                .toStatus(PENDING).changedAt(changedAt).build();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.inmemory;
+
+import com.eliasnogueira.paymentservice.config.InMemoryStoreConfig;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.storage.MappedFileLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryPaymentRepositoryTest {
+
+    @TempDir
+    Path walDir;
+
+    private InMemoryStoreConfig config;
+    private InMemoryPaymentRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        config = new InMemoryStoreConfig();
+        config.setWalDir(walDir);
+        config.setWalSegmentSize(DataSize.ofKilobytes(4));
+        config.setStripes(2);
+        config.setInitialCapacityPerStripe(4);
+        repository = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.destroy();
+    }
+
+    @Test
+    @DisplayName("Should save, update and delete payments")
+    void shouldSaveUpdateAndDelete() {
+        var payment = repository.save(payment("txn_1", "100.50"));
+
+        assertThat(payment.getId()).isNotNull();
+        assertThat(repository.findById(payment.getId())).contains(payment);
+
+        payment.setStatus(PAID);
+        repository.save(payment);
+        assertThat(repository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo(PAID);
+        assertThat(repository.count()).isEqualTo(1);
+
+        repository.deleteById(payment.getId());
+        assertThat(repository.findById(payment.getId())).isEmpty();
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject a transaction ID owned by another payment")
+    void shouldRejectDuplicateTransactionId() {
+        var first = repository.save(payment("txn_dup", "10.00"));
+
+        assertThatThrownBy(() -> repository.save(payment("txn_dup", "20.00")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        first.setStatus(PAID);
+        repository.save(first);
+        assertThat(repository.count()).isEqualTo(1);
+
+        repository.delete(first);
+        assertThat(repository.save(payment("txn_dup", "20.00")).getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    @DisplayName("Should keep every payment reachable across resizes and deletions")
+    void shouldKeepPaymentsReachableAcrossResizesAndDeletions() {
+        var payments = new ArrayList<Payment>();
+        for (int i = 0; i < 5_000; i++) {
+            payments.add(repository.save(payment("txn_" + i, i + ".01")));
+        }
+        for (int i = 0; i < payments.size(); i += 2) {
+            repository.deleteById(payments.get(i).getId());
+        }
+
+        for (int i = 0; i < payments.size(); i++) {
+            var found = repository.findById(payments.get(i).getId());
+            if (i % 2 == 0) {
+                assertThat(found).isEmpty();
+            } else {
+                assertThat(found).contains(payments.get(i));
+            }
+        }
+        assertThat(repository.count()).isEqualTo(2_500);
+    }
+
+    @Test
+    @DisplayName("Should recover payments from the log on restart and compact it")
+    void shouldRecoverAndCompactOnRestart() throws Exception {
+        var kept = repository.save(payment("txn_kept", "1.00"));
+        var deleted = repository.save(payment("txn_deleted", "2.00"));
+        kept.setStatus(PAID);
+        repository.save(kept);
+        repository.deleteById(deleted.getId());
+
+        repository.destroy();
+        repository = open();
+
+        assertThat(repository.findAll()).containsExactly(kept);
+        assertThat(records()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should ignore a record torn by a crash and keep appending after the last complete one")
+    void shouldIgnoreTornRecord() throws Exception {
+        var payment = repository.save(payment("txn_before_crash", "5.00"));
+        repository.destroy();
+
+        long end;
+        try (var log = new MappedFileLog(walDir, "wal", (int) config.getWalSegmentSize().toBytes(), false)) {
+            end = log.endPosition();
+        }
+        var segment = walDir.resolve("wal-%06d.log".formatted(MappedFileLog.segmentOf(end)));
+        try (var channel = FileChannel.open(segment, WRITE)) {
+            channel.write(ByteBuffer.allocate(12).putInt(28).putInt(0xBADC0DE).putInt(42).flip(), (int) end);
+        }
+
+        repository = open();
+        assertThat(repository.findAll()).containsExactly(payment);
+
+        var next = repository.save(payment("txn_after_crash", "6.00"));
+        repository.destroy();
+        repository = open();
+        assertThat(repository.findAll()).containsExactlyInAnyOrder(payment, next);
+    }
+
+    @Test
+    @DisplayName("Should accept concurrent writers without losing payments")
+    void shouldAcceptConcurrentWriters() throws Exception {
+        var ids = new ArrayList<Future<List<UUID>>>();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int writer = 0; writer < 8; writer++) {
+                int id = writer;
+                ids.add(executor.submit(() -> {
+                    var saved = new ArrayList<UUID>();
+                    for (int i = 0; i < 500; i++) {
+                        saved.add(repository.save(payment("txn_" + id + "_" + i, "3.00")).getId());
+                    }
+                    return saved;
+                }));
+            }
+        }
+
+        assertThat(repository.count()).isEqualTo(4_000);
+        for (var future : ids) {
+            for (var id : future.get()) {
+                assertThat(repository.findById(id)).isPresent();
+            }
+        }
+    }
+
+    private InMemoryPaymentRepository open() {
+        return new InMemoryPaymentRepository(config, new PaymentMetrics(new SimpleMeterRegistry()));
+    }
+
+    private long records() throws Exception {
+        long[] records = {0};
+        try (var log = new MappedFileLog(walDir, "wal", (int) config.getWalSegmentSize().toBytes(), false)) {
+            log.read((position, payload) -> records[0]++);
+        }
+        return records[0];
+    }
+
+    private static Payment payment(String transactionId, String amount) {
+        return Payment.builder().transactionId(transactionId).amount(Money.parse(amount)).status(PENDING).build();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the fraud service answering {@code GET /api/fraud/check} like the WireMock stubs do, but
+ * after a delay drawn from a {@link LatencyDistribution}, failing with a 500 at {@code errorRate} and hanging for
+ * {@code stall} at {@code stallRate}, so the service's timeouts, circuit breaker and bulkheads see a realistic
+ * dependency.
+ */
+final class FraudServiceStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double stallRate;
+    private final Duration stall;
+    private final double fraudRate;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+
+    FraudServiceStub(LoadTestSettings settings, int port) throws IOException {
+        this.latency = settings.fraudLatency();
+        this.errorRate = settings.fraudErrorRate();
+        this.stallRate = settings.fraudStallRate();
+        this.stall = settings.fraudStall();
+        this.fraudRate = settings.fraudRate();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/api/fraud/check", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api/fraud";
+    }
+
+    Map<String, Object> stats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("calls", calls.sum());
+        stats.put("injectedErrors", errors.sum());
+        stats.put("injectedStalls", stalls.sum());
+        return stats;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.increment();
+        var random = ThreadLocalRandom.current();
+        try (exchange) {
+            long delay;
+            if (random.nextDouble() < stallRate) {
+                stalls.increment();
+                delay = stall.toNanos();
+            } else {
+                delay = latency.sampleNanos(random);
+            }
+            if (delay > 0) {
+                Thread.sleep(Duration.ofNanos(delay));
+            }
+
+            if (random.nextDouble() < errorRate) {
+                errors.increment();
+                respond(exchange, 500, "{\"error\":\"injected failure\"}");
+            } else {
+                boolean fraudulent = random.nextDouble() < fraudRate;
+                respond(exchange, 200, "{\"fraudulent\":" + fraudulent + ",\"message\":\"load-test stub\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
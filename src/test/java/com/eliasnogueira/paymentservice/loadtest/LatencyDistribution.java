@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribution the {@link FraudServiceStub} draws its response delays from, written as {@code none},
+ * {@code fixed:<d>}, {@code uniform:<min>:<max>}, {@code exponential:<mean>} or {@code lognormal:<median>:<sigma>},
+ * where durations use the Spring format ({@code 20ms}, {@code 1s}).
+ */
+@FunctionalInterface
+interface LatencyDistribution {
+
+    long sampleNanos(RandomGenerator random);
+
+    static LatencyDistribution parse(String spec) {
+        var parts = spec.split(":");
+        try {
+            return switch (parts[0]) {
+                case "none" -> random -> 0;
+                case "fixed" -> {
+                    long delay = nanos(parts[1]);
+                    yield random -> delay;
+                }
+                case "uniform" -> {
+                    long min = nanos(parts[1]);
+                    long max = nanos(parts[2]);
+                    yield random -> random.nextLong(min, max + 1);
+                }
+                case "exponential" -> {
+                    double mean = nanos(parts[1]);
+                    yield random -> (long) (-mean * Math.log(1 - random.nextDouble()));
+                }
+                case "lognormal" -> {
+                    double median = nanos(parts[1]);
+                    double sigma = Double.parseDouble(parts[2]);
+                    yield random -> (long) (median * Math.exp(sigma * random.nextGaussian()));
+                }
+                default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Missing parameters in latency distribution: " + spec, e);
+        }
+    }
+
+    private static long nanos(String duration) {
+        return DurationStyle.detectAndParse(duration).toNanos();
+    }
+}
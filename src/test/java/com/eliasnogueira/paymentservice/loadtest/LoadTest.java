@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.loadtest;
+
+import com.eliasnogueira.paymentservice.PaymentServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local load test: starts the service on the {@code h2} profile against a Testcontainers Kafka and
+ * {@code fraud.instances} {@link FraudServiceStub}s, drives it with {@link OpenModelDriver} and writes a
+ * {@link LoadTestReport}. With {@code target=<url>} it drives a service that is already running instead, e.g.
+ * payment-service-reactive, and only starts the stubs.
+ * <p>
+ * Run it with {@code ./mvnw -Ploadtest verify -Dloadtest.args="rate=500 duration=2m fraud.latency=fixed:50ms"};
+ * see {@link LoadTestSettings} for the accepted arguments.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = LoadTestSettings.parse(args);
+
+        var fraudServices = new ArrayList<FraudServiceStub>();
+        try {
+            for (int i = 0; i < settings.fraudInstances(); i++) {
+                fraudServices.add(new FraudServiceStub(settings, settings.fraudPort() == 0 ? 0 : settings.fraudPort() + i));
+            }
+            if (settings.startsService()) {
+                runAgainstLocalService(settings, fraudServices);
+            } else {
+                System.out.println("Fraud stubs listening on " + fraudServices.stream().map(FraudServiceStub::url).toList());
+                run(URI.create(settings.target()), settings, fraudServices);
+            }
+        } finally {
+            fraudServices.forEach(FraudServiceStub::close);
+        }
+    }
+
+    private static void runAgainstLocalService(LoadTestSettings settings, List<FraudServiceStub> fraudServices)
+            throws Exception {
+        ConfluentKafkaContainer kafka = null;
+        String bootstrapServers = settings.kafka();
+        if (LoadTestSettings.TESTCONTAINERS.equals(bootstrapServers)) {
+            kafka = new ConfluentKafkaContainer("confluentinc/cp-kafka:latest");
+            kafka.start();
+            bootstrapServers = kafka.getBootstrapServers();
+        }
+
+        try {
+            var properties = new HashMap<String, Object>();
+            properties.put("server.port", "0");
+            properties.put("spring.kafka.bootstrap-servers", bootstrapServers);
+            properties.put("fraud.check.url", fraudServices.getFirst().url());
+            properties.put("fraud.check.urls", String.join(",", fraudServices.stream().map(FraudServiceStub::url).toList()));
+            properties.put("spring.jpa.show-sql", "false");
+            // the per-client rate limit would reject most of a single-client open-model run
+            properties.put("payment.admission.enabled", "false");
+            properties.putAll(settings.appProperties());
+
+            var application = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                    .profiles("h2")
+                    .properties(properties)
+                    .run();
+            try {
+                int port = application.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                run(URI.create("http://localhost:" + port), settings, fraudServices);
+            } finally {
+                application.close();
+            }
+        } finally {
+            if (kafka != null) {
+                kafka.stop();
+            }
+        }
+    }
+
+    private static void run(URI service, LoadTestSettings settings, List<FraudServiceStub> fraudServices)
+            throws Exception {
+        var driver = new OpenModelDriver(service, settings);
+
+        var startedAt = Instant.now();
+        var stats = driver.run();
+        var fraudStats = new LinkedHashMap<String, Object>();
+        fraudServices.forEach(fraudService -> fraudStats.put(fraudService.url(), fraudService.stats()));
+        Map<String, Object> report = LoadTestReport.build(
+                startedAt, settings, stats, driver.lateStarts(), fraudStats);
+        LoadTestReport.write(report, settings.report());
+        System.out.println("Load test report written to " + settings.report().toAbsolutePath());
+    }
+}
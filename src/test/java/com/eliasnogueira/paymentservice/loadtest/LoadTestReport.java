@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a run: per operation and overall, the throughput, the error count and the HDR
+ * percentiles of both the service time and the coordinated-omission-corrected response time, in milliseconds.
+ * The corrected histograms are also embedded in the compressed, base64 HdrHistogram encoding so runs can be merged
+ * or plotted later ({@code Histogram.decodeFromCompressedByteBuffer}).
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private LoadTestReport() {
+    }
+
+    static Map<String, Object> build(Instant startedAt, LoadTestSettings settings,
+                                     Map<Operation, OpenModelDriver.Stats> stats, long lateStarts,
+                                     Map<String, Object> fraudStub) {
+        double seconds = settings.duration().toNanos() / 1_000_000_000d;
+        var report = new LinkedHashMap<String, Object>();
+        report.put("startedAt", startedAt.toString());
+        report.put("settings", settings.describe());
+
+        var serviceTotal = new Histogram(3);
+        var responseTotal = new Histogram(3);
+        long errors = 0;
+        var operations = new LinkedHashMap<String, Object>();
+        for (var entry : stats.entrySet()) {
+            var operationStats = entry.getValue();
+            if (operationStats.responseTime.getTotalCount() == 0) {
+                continue;
+            }
+            operations.put(entry.getKey().name().toLowerCase(Locale.ROOT), summary(
+                    operationStats.serviceTime, operationStats.responseTime, operationStats.errors.sum(), seconds));
+            serviceTotal.add(operationStats.serviceTime);
+            responseTotal.add(operationStats.responseTime);
+            errors += operationStats.errors.sum();
+        }
+        report.put("operations", operations);
+        report.put("total", summary(serviceTotal, responseTotal, errors, seconds));
+        report.put("lateStarts", lateStarts);
+        report.put("fraudStub", fraudStub);
+        return report;
+    }
+
+    static void write(Map<String, Object> report, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+    }
+
+    private static Map<String, Object> summary(Histogram serviceTime, Histogram responseTime, long errors,
+                                               double seconds) {
+        var summary = new LinkedHashMap<String, Object>();
+        summary.put("requests", responseTime.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", responseTime.getTotalCount() / seconds);
+        summary.put("serviceTimeMillis", percentiles(serviceTime));
+        summary.put("responseTimeMillis", percentiles(responseTime));
+        summary.put("responseTimeHistogram", encode(responseTime));
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        var percentiles = new LinkedHashMap<String, Object>();
+        for (double percentile : PERCENTILES) {
+            var key = "p" + (percentile == Math.rint(percentile)
+                    ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile).replace(".", ""));
+            percentiles.put(key, histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+        }
+        percentiles.put("max", histogram.getMaxValue() / NANOS_PER_MILLI);
+        percentiles.put("mean", histogram.getMean() / NANOS_PER_MILLI);
+        return percentiles;
+    }
+
+    private static String encode(Histogram histogram) {
+        var buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load-test parameters, given to {@link LoadTest} as {@code key=value} arguments. Arguments starting with
+ * {@code app.} are passed to the service with the prefix removed, e.g. {@code app.payment.admission.enabled=true}.
+ *
+ * @param rate requests per second started, whatever the service's latency (open model)
+ * @param mix relative weight of each operation
+ * @param fraudInstances fraud-service stubs started, each with the same latency, errors and stalls
+ * @param fraudPort port of the first stub and the next ones after it, or 0 for any free port
+ * @param kafka {@code testcontainers} to start a broker, or the bootstrap servers of a running one
+ * @param target {@code local} to start the service, or the URL of a running one, such as payment-service-reactive
+ */
+record LoadTestSettings(
+        double rate,
+        Duration duration,
+        Duration warmup,
+        Map<Operation, Integer> mix,
+        String fraudLatencySpec,
+        double fraudErrorRate,
+        double fraudStallRate,
+        Duration fraudStall,
+        double fraudRate,
+        int fraudInstances,
+        int fraudPort,
+        Duration requestTimeout,
+        Path report,
+        String kafka,
+        String target,
+        Map<String, String> appProperties) {
+
+    static final String TESTCONTAINERS = "testcontainers";
+    static final String LOCAL = "local";
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("rate", "200"),
+            Map.entry("duration", "60s"),
+            Map.entry("warmup", "10s"),
+            Map.entry("mix", "create:20,update:20,get:60"),
+            Map.entry("fraud.latency", "lognormal:20ms:0.6"),
+            Map.entry("fraud.errorRate", "0.01"),
+            Map.entry("fraud.stallRate", "0.001"),
+            Map.entry("fraud.stall", "10s"),
+            Map.entry("fraud.fraudRate", "0.05"),
+            Map.entry("fraud.instances", "1"),
+            Map.entry("fraud.port", "0"),
+            Map.entry("timeout", "30s"),
+            Map.entry("report", "target/loadtest-report.json"),
+            Map.entry("kafka", TESTCONTAINERS),
+            Map.entry("target", LOCAL));
+
+    LoadTestSettings {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs at least one operation with a positive weight");
+        }
+        if (fraudInstances < 1) {
+            throw new IllegalArgumentException("fraud.instances must be at least 1");
+        }
+        if (!LOCAL.equals(target) && !appProperties.isEmpty()) {
+            throw new IllegalArgumentException("app. properties need target=local: a running service has its own");
+        }
+    }
+
+    static LoadTestSettings parse(String... args) {
+        var values = new HashMap<>(DEFAULTS);
+        var appProperties = new LinkedHashMap<String, String>();
+        for (var arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            var key = arg.substring(0, separator);
+            var value = arg.substring(separator + 1);
+            if (key.startsWith("app.")) {
+                appProperties.put(key.substring(4), value);
+            } else if (DEFAULTS.containsKey(key)) {
+                values.put(key, value);
+            } else {
+                throw new IllegalArgumentException("Unknown setting: " + key + ", expected one of " + DEFAULTS.keySet());
+            }
+        }
+
+        var settings = new LoadTestSettings(
+                Double.parseDouble(values.get("rate")),
+                duration(values.get("duration")),
+                duration(values.get("warmup")),
+                mix(values.get("mix")),
+                values.get("fraud.latency"),
+                Double.parseDouble(values.get("fraud.errorRate")),
+                Double.parseDouble(values.get("fraud.stallRate")),
+                duration(values.get("fraud.stall")),
+                Double.parseDouble(values.get("fraud.fraudRate")),
+                Integer.parseInt(values.get("fraud.instances")),
+                Integer.parseInt(values.get("fraud.port")),
+                duration(values.get("timeout")),
+                Path.of(values.get("report")),
+                values.get("kafka"),
+                values.get("target"),
+                Map.copyOf(appProperties));
+        settings.fraudLatency();
+        return settings;
+    }
+
+    boolean startsService() {
+        return LOCAL.equals(target);
+    }
+
+    LatencyDistribution fraudLatency() {
+        return LatencyDistribution.parse(fraudLatencySpec);
+    }
+
+    Map<String, Object> describe() {
+        var description = new LinkedHashMap<String, Object>();
+        description.put("rate", rate);
+        description.put("duration", duration.toString());
+        description.put("warmup", warmup.toString());
+        var weights = new LinkedHashMap<String, Integer>();
+        mix.forEach((operation, weight) -> weights.put(operation.name().toLowerCase(Locale.ROOT), weight));
+        description.put("mix", weights);
+        description.put("fraudLatency", fraudLatencySpec);
+        description.put("fraudErrorRate", fraudErrorRate);
+        description.put("fraudStallRate", fraudStallRate);
+        description.put("fraudStall", fraudStall.toString());
+        description.put("fraudRate", fraudRate);
+        description.put("fraudInstances", fraudInstances);
+        description.put("requestTimeout", requestTimeout.toString());
+        description.put("kafka", kafka);
+        description.put("target", target);
+        description.put("appProperties", appProperties);
+        return description;
+    }
+
+    private static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        var mix = new EnumMap<Operation, Integer>(Operation.class);
+        for (var entry : value.split(",")) {
+            var parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix but got: " + entry);
+            }
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
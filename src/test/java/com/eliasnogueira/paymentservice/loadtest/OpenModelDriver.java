@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule of {@code rate} per second, each on its own
+ * virtual thread, so a slow service gets a growing backlog instead of a slower client.
+ * <p>
+ * Every request is recorded twice. The service time runs from the moment the request was actually sent; the
+ * response time runs from the moment the schedule said it should have been sent, which is what a user arriving at
+ * that moment would have seen. The second one is free of coordinated omission: when the generator itself falls
+ * behind (a GC pause, a saturated client), the requests it delayed are still charged with the wait.
+ */
+final class OpenModelDriver {
+
+    private static final int KNOWN_IDS = 16_384;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final URI payments;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] schedule;
+
+    private final AtomicReferenceArray<String> knownIds = new AtomicReferenceArray<>(KNOWN_IDS);
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final LongAdder late = new LongAdder();
+
+    OpenModelDriver(URI baseUri, LoadTestSettings settings) {
+        this.payments = baseUri.resolve("/api/payments");
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (var operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+        this.schedule = settings.mix().entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+    }
+
+    /**
+     * Runs the warmup and then the measured period, returning once every request started has completed or timed
+     * out.
+     */
+    Map<Operation, Stats> run() {
+        double intervalNanos = 1_000_000_000d / settings.rate();
+        long start = System.nanoTime() + Duration.ofMillis(100).toNanos();
+        long measuredFrom = start + settings.warmup().toNanos();
+        long end = measuredFrom + settings.duration().toNanos();
+
+        try (var requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (wait < -intervalNanos) {
+                    late.increment();
+                }
+                var operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                boolean measured = intended >= measuredFrom;
+                requests.execute(() -> execute(operation, intended, measured));
+            }
+        } finally {
+            clientExecutor.shutdown();
+        }
+        return stats;
+    }
+
+    /**
+     * Number of requests started more than one interval after their slot, a sign that the generator rather than
+     * the service was the bottleneck.
+     */
+    long lateStarts() {
+        return late.sum();
+    }
+
+    private void execute(Operation operation, long intended, boolean measured) {
+        var request = request(operation);
+        if (request == null) {
+            // nothing created yet to update or read; fall back to a create so the slot is not lost
+            operation = Operation.CREATE;
+            request = request(operation);
+        }
+
+        long sent = System.nanoTime();
+        boolean ok;
+        try {
+            var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            ok = response.statusCode() / 100 == 2;
+            if (ok && operation == Operation.CREATE) {
+                remember(objectMapper.readTree(response.body()).get("id").asText());
+            }
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ok = false;
+        }
+        long done = System.nanoTime();
+
+        if (measured) {
+            stats.get(operation).record(done - sent, done - intended, ok);
+        }
+    }
+
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case CREATE -> {
+                var body = "{\"transactionId\":\"LT-" + transactions.incrementAndGet() + "-" + UUID.randomUUID()
+                        + "\",\"amount\":" + ThreadLocalRandom.current().nextInt(1, 100_000) / 100d + "}";
+                yield HttpRequest.newBuilder(payments)
+                        .timeout(settings.requestTimeout())
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            case UPDATE -> {
+                var id = knownId();
+                yield id == null ? null : HttpRequest.newBuilder(URI.create(payments + "/" + id))
+                        .timeout(settings.requestTimeout())
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"PAID\"}"))
+                        .build();
+            }
+            case GET -> {
+                var id = knownId();
+                yield id == null ? null : HttpRequest.newBuilder(URI.create(payments + "/" + id))
+                        .timeout(settings.requestTimeout())
+                        .GET()
+                        .build();
+            }
+        };
+    }
+
+    private void remember(String id) {
+        knownIds.set((int) (created.getAndIncrement() % KNOWN_IDS), id);
+    }
+
+    private String knownId() {
+        long count = created.get();
+        if (count == 0) {
+            return null;
+        }
+        int index = ThreadLocalRandom.current().nextInt((int) Math.min(count, KNOWN_IDS));
+        return knownIds.get(index);
+    }
+
+    static final class Stats {
+
+        final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final Histogram responseTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+
+        void record(long serviceNanos, long responseNanos, boolean ok) {
+            serviceTime.recordValue(serviceNanos);
+            responseTime.recordValue(responseNanos);
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+}
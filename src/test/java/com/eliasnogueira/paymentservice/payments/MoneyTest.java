@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.payments;
+
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.MoneyConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should parse plain decimals into minor units")
+    void shouldParseIntoMinorUnits() {
+        assertThat(Money.parse("100.50").minorUnits()).isEqualTo(10050);
+        assertThat(Money.parse("100.5").minorUnits()).isEqualTo(10050);
+        assertThat(Money.parse("100").minorUnits()).isEqualTo(10000);
+        assertThat(Money.parse("0.07").minorUnits()).isEqualTo(7);
+        assertThat(Money.parse("1.500").minorUnits()).isEqualTo(150);
+        assertThat(Money.parse("-3.25").minorUnits()).isEqualTo(-325);
+    }
+
+    @Test
+    @DisplayName("Should reject amounts with more than two significant decimals or invalid text")
+    void shouldRejectInvalidAmounts() {
+        assertThatThrownBy(() -> Money.parse("1.005")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.parse("1.2.3")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.parse(".")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.parse("")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.parse("99999999999999999999")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    @DisplayName("Should format the same way as a BigDecimal with scale 2")
+    void shouldFormatLikeBigDecimal() {
+        for (long minorUnits : new long[]{0, 5, 50, 100, 10050, 999999, -5, -10050, Long.MAX_VALUE}) {
+            assertThat(Money.of(minorUnits).toString())
+                    .isEqualTo(BigDecimal.valueOf(minorUnits, 2).toPlainString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should convert to and from the DECIMAL column without losing precision")
+    void shouldConvertToDecimalColumn() {
+        var converter = new MoneyConverter();
+        var money = Money.parse("9999.99");
+
+        assertThat(converter.convertToDatabaseColumn(money)).isEqualByComparingTo("9999.99");
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("9999.990"))).isEqualTo(money);
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep the JSON amount a plain number")
+    void shouldKeepJsonFormat() throws Exception {
+        var response = new PaymentResponse(UUID.randomUUID(), "txn_1", Money.parse("100.50"), PENDING);
+
+        var json = objectMapper.writeValueAsString(response);
+
+        assertThat(json).contains("\"amount\":100.50");
+        assertThat(objectMapper.readValue(json, PaymentResponse.class)).isEqualTo(response);
+        assertThat(objectMapper.readValue("{\"amount\":100}", PaymentResponse.class).getAmount())
+                .isEqualTo(Money.of(10000));
+        assertThat(objectMapper.readValue("{\"amount\":\"1e2\"}", PaymentResponse.class).getAmount())
+                .isEqualTo(Money.of(10000));
+    }
+
+    @Test
+    @Timeout(1)
+    @DisplayName("Should reject huge exponents before scaling them")
+    void shouldRejectHugeExponents() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":1e1000000000}", PaymentResponse.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":\"1E-1000000000\"}", PaymentResponse.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e19"))).isInstanceOf(ArithmeticException.class);
+        assertThat(Money.of(new BigDecimal("1.2e3"))).isEqualTo(Money.of(120000));
+    }
+
+    @Test
+    @DisplayName("Should write the JSON amount without creating a BigDecimal")
+    void shouldNotCreateBigDecimalForJson() throws Exception {
+        var money = spy(Money.parse("42.10"));
+
+        assertThat(objectMapper.writeValueAsString(money)).isEqualTo("42.10");
+        assertThat(objectMapper.writeValueAsString(Money.of(Long.MIN_VALUE))).isEqualTo("-92233720368547758.08");
+        verify(money, never()).toBigDecimal();
+    }
+
+    @Test
+    @DisplayName("Should keep the CBOR amount a decimal number")
+    void shouldKeepCborDecimal() throws Exception {
+        var cborMapper = new ObjectMapper(new CBORFactory());
+
+        var tree = cborMapper.readTree(cborMapper.writeValueAsBytes(Money.parse("100.50")));
+
+        assertThat(tree.isBigDecimal()).isTrue();
+        assertThat(tree.decimalValue()).isEqualByComparingTo(new BigDecimal("100.50"));
+    }
+
+    @Test
+    @DisplayName("Should fail deserialization for amounts with too many decimals")
+    void shouldFailDeserializationForTooManyDecimals() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":1.005}", PaymentResponse.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+}
@@ -23,6 +23,7 @@
  */
 package com.eliasnogueira.paymentservice.payments;
 
+import com.eliasnogueira.paymentservice.model.Money;
 import com.eliasnogueira.paymentservice.model.Payment;
 import com.eliasnogueira.paymentservice.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,7 +37,6 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
@@ -89,7 +89,7 @@ class PaymentIntegrationTest {
     @Test
     @DisplayName("Should find a payment by ID and return 200 OK")
     void getPayment() throws Exception {
-        var payment = Payment.builder().transactionId("txn_456").amount(BigDecimal.valueOf(200.75)).status(PENDING).build();
+        var payment = Payment.builder().transactionId("txn_456").amount(Money.parse("200.75")).status(PENDING).build();
 
         var savedPayment = paymentRepository.save(payment);
 
@@ -103,10 +103,10 @@ class PaymentIntegrationTest {
     @Test
     @DisplayName("Should find all payments and return 200 OK")
     void getAllPayments() throws Exception {
-        var firstPayment = Payment.builder().transactionId("txn_1").amount(BigDecimal.valueOf(100.00))
+        var firstPayment = Payment.builder().transactionId("txn_1").amount(Money.parse("100.00"))
                 .status(PENDING).build();
 
-        var secondPayment = Payment.builder().transactionId("txn_2").amount(BigDecimal.valueOf(200.00))
+        var secondPayment = Payment.builder().transactionId("txn_2").amount(Money.parse("200.00"))
                 .status(PENDING).build();
 
         paymentRepository.saveAll(List.of(firstPayment, secondPayment));
@@ -127,7 +127,7 @@ class PaymentIntegrationTest {
                   "status": "PAID"
                 }""";
 
-        var payment = Payment.builder().transactionId("txn_update").amount(BigDecimal.valueOf(300.00))
+        var payment = Payment.builder().transactionId("txn_update").amount(Money.parse("300.00"))
                 .status(PENDING).build();
 
         var savedPayment = paymentRepository.save(payment);
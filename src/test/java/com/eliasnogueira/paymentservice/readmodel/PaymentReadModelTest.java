@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.readmodel;
+
+import com.eliasnogueira.paymentservice.config.ReadModelConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentEvent.EventType;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentReadModelTest {
+
+    private ReadModelConfig readModelConfig;
+    private PaymentReadModel readModel;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        readModelConfig = new ReadModelConfig();
+        readModelConfig.setEnabled(true);
+        readModelConfig.setMaxLag(Duration.ofSeconds(5));
+        readModel = new PaymentReadModel(readModelConfig, new PaymentMetrics(new SimpleMeterRegistry()));
+
+        payment = Payment.builder().id(UUID.randomUUID()).transactionId("txn_read_1")
+                .amount(Money.parse("10.00")).status(PENDING).build();
+    }
+
+    @Test
+    @DisplayName("Should serve the latest state of a payment from its events")
+    void shouldMaterializeLatestState() {
+        var created = Instant.now().minusMillis(20);
+        readModel.apply(new PaymentEvent(created, EventType.CREATED, payment));
+
+        var paid = Payment.builder().id(payment.getId()).transactionId("txn_read_1")
+                .amount(Money.parse("10.00")).status(PAID).build();
+        readModel.apply(new PaymentEvent(created.plusMillis(10), EventType.UPDATED, paid));
+        assertThat(readModel.isServing()).isFalse();
+
+        readModel.caughtUp();
+        assertThat(readModel.isServing()).isTrue();
+        assertThat(readModel.findById(payment.getId())).hasValueSatisfying(response ->
+                assertThat(response.getStatus()).isEqualTo(PAID));
+        assertThat(readModel.findAll()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the newer state when an older event is redelivered")
+    void shouldIgnoreStaleEvents() {
+        var now = Instant.now();
+        var paid = Payment.builder().id(payment.getId()).transactionId("txn_read_1")
+                .amount(Money.parse("10.00")).status(PAID).build();
+
+        readModel.apply(new PaymentEvent(now, EventType.UPDATED, paid));
+        readModel.apply(new PaymentEvent(now.minusSeconds(1), EventType.CREATED, payment));
+
+        assertThat(readModel.findById(payment.getId())).hasValueSatisfying(response ->
+                assertThat(response.getStatus()).isEqualTo(PAID));
+    }
+
+    @Test
+    @DisplayName("Should stop serving reads when lagging behind more than the allowed lag")
+    void shouldStopServingWhenLagging() {
+        readModel.apply(new PaymentEvent(Instant.now().minusSeconds(30), EventType.CREATED, payment));
+
+        assertThat(readModel.getLag()).isGreaterThanOrEqualTo(Duration.ofSeconds(30));
+        assertThat(readModel.isServing()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should stop serving reads when the consumer stops confirming it is caught up")
+    void shouldStopServingWhenStalled() throws Exception {
+        readModelConfig.setMaxLag(Duration.ofMillis(100));
+        readModel.apply(new PaymentEvent(Instant.now(), EventType.CREATED, payment));
+        readModel.caughtUp();
+        assertThat(readModel.isServing()).isTrue();
+
+        Thread.sleep(200);
+        assertThat(readModel.isServing()).isFalse();
+
+        readModel.caughtUp();
+        assertThat(readModel.isServing()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should stop serving reads while records stay pending, however fresh the last applied event")
+    void shouldStopServingWhileRecordsPending() throws Exception {
+        readModelConfig.setMaxLag(Duration.ofMillis(100));
+        var consumer = mock(Consumer.class);
+        readModel.caughtUp();
+
+        when(consumer.currentLag(any())).thenReturn(OptionalLong.of(50));
+        readModel.consume(new PaymentEvent(Instant.now(), EventType.CREATED, payment), "payment-events", 0, consumer);
+        assertThat(readModel.getPendingRecords()).isEqualTo(50);
+        assertThat(readModel.isServing()).isTrue();
+
+        Thread.sleep(200);
+        when(consumer.currentLag(any())).thenReturn(OptionalLong.of(49));
+        readModel.consume(new PaymentEvent(Instant.now(), EventType.UPDATED, payment), "payment-events", 0, consumer);
+        assertThat(readModel.isServing()).isFalse();
+
+        when(consumer.currentLag(any())).thenReturn(OptionalLong.of(0));
+        readModel.consume(new PaymentEvent(Instant.now(), EventType.UPDATED, payment), "payment-events", 0, consumer);
+        assertThat(readModel.getPendingRecords()).isZero();
+        assertThat(readModel.isServing()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not serve reads when disabled")
+    void shouldNotServeWhenDisabled() {
+        readModelConfig.setEnabled(false);
+        readModel.apply(new PaymentEvent(Instant.now(), EventType.CREATED, payment));
+
+        assertThat(readModel.isServing()).isFalse();
+    }
+}
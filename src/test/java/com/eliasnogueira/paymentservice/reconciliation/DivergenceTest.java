@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reconciliation;
+
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DivergenceTest {
+
+    private static final Instant RETAINED_SINCE = Payment.now().minus(Duration.ofDays(7));
+
+    @Test
+    @DisplayName("Should republish a row without events only when its events can not have aged out")
+    void shouldTellLostEventsFromAgedOutOnes() {
+        var recent = row(RETAINED_SINCE.plusSeconds(60));
+        var old = row(RETAINED_SINCE.minusSeconds(60));
+
+        assertThat(Divergence.of(recent, null, RETAINED_SINCE)).isEqualTo(Divergence.MISSING);
+        assertThat(Divergence.of(old, null, RETAINED_SINCE)).isEqualTo(Divergence.EXPIRED);
+        assertThat(Divergence.of(row(null), null, RETAINED_SINCE)).isEqualTo(Divergence.EXPIRED);
+        assertThat(Divergence.EXPIRED.isRepairable()).isFalse();
+        // nothing aged out yet
+        assertThat(Divergence.of(old, null, null)).isEqualTo(Divergence.MISSING);
+    }
+
+    @Test
+    @DisplayName("Should compare the row with its latest event by version, then by status")
+    void shouldCompareVersions() {
+        var row = row(RETAINED_SINCE.minusSeconds(60));
+        row.setVersion(2);
+
+        assertThat(Divergence.of(row, new PaymentEventView.LatestEvent(1, PAID), RETAINED_SINCE))
+                .isEqualTo(Divergence.STALE);
+        assertThat(Divergence.of(row, new PaymentEventView.LatestEvent(3, PAID), RETAINED_SINCE))
+                .isEqualTo(Divergence.AHEAD);
+        assertThat(Divergence.of(row, new PaymentEventView.LatestEvent(2, PAID), RETAINED_SINCE)).isNull();
+    }
+
+    private static Payment row(Instant updatedAt) {
+        return Payment.builder()
+                .id(UUID.randomUUID())
+                .transactionId("txn_" + UUID.randomUUID())
+                .amount(Money.parse("10.00"))
+                .status(PAID)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
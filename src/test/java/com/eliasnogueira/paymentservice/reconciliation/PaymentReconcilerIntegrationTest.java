@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.reconciliation;
+
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentKafkaProducer;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.eliasnogueira.paymentservice.events.PaymentEvent.EventType.CREATED;
+import static com.eliasnogueira.paymentservice.events.PaymentEvent.EventType.UPDATED;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("${spring.profiles.active}")
+// chunks of two rows, so the few rows of a test still span several chunks
+@TestPropertySource(properties = {"payment.reconciliation.enabled=true", "payment.reconciliation.settle-time=0s",
+        "payment.reconciliation.chunk-size=2"})
+@DirtiesContext
+class PaymentReconcilerIntegrationTest {
+
+    private static final Instant YESTERDAY = Payment.now().minus(Duration.ofDays(1));
+
+    private static final ConfluentKafkaContainer KAFKA_CONTAINER =
+            new ConfluentKafkaContainer("confluentinc/cp-kafka:latest");
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        KAFKA_CONTAINER.start();
+        registry.add("spring.kafka.bootstrap-servers", KAFKA_CONTAINER::getBootstrapServers);
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentKafkaProducer producer;
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @BeforeEach
+    void cleanDatabase() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should publish again the rows whose event is missing or stale, and only report the others")
+    void shouldRepublishMissingAndStaleEvents() throws Exception {
+        var inSync = save("txn_in_sync", PAID, YESTERDAY);
+        producer.send(new PaymentEvent(Instant.now(), CREATED, inSync));
+        save("txn_missing", PENDING, YESTERDAY);
+        var stale = save("txn_stale", PENDING, YESTERDAY);
+        producer.send(new PaymentEvent(Instant.now(), CREATED, copyOf(stale, PENDING, stale.getVersion())));
+        stale.setStatus(PAID);
+        paymentRepository.save(stale);
+        var ahead = save("txn_ahead", PENDING, YESTERDAY);
+        producer.send(new PaymentEvent(Instant.now(), UPDATED, copyOf(ahead, PAID, ahead.getVersion() + 1)));
+
+        var report = reconciler.reconcile();
+
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.divergences()).containsEntry("MISSING", 1L).containsEntry("STALE", 1L)
+                .containsEntry("AHEAD", 1L).containsEntry("CONFLICT", 0L);
+        assertThat(report.republished()).isEqualTo(2);
+        assertThat(report.flagged()).containsExactly(ahead.getId());
+        assertThat(report.failedChunks()).isZero();
+
+        // the events published again are on the topic now
+        var again = reconciler.reconcile();
+        assertThat(again.divergences()).containsEntry("MISSING", 0L).containsEntry("STALE", 0L)
+                .containsEntry("AHEAD", 1L);
+        assertThat(again.republished()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skip the rows changed after the topic was read")
+    void shouldSkipUnsettledRows() throws Exception {
+        save("txn_unsettled", PENDING, Payment.now().plus(Duration.ofHours(1)));
+
+        var report = reconciler.reconcile();
+
+        assertThat(report.rows()).isEqualTo(1);
+        assertThat(report.skipped()).isEqualTo(1);
+        assertThat(report.republished()).isZero();
+    }
+
+    private Payment save(String transactionId, PaymentStatus status, Instant updatedAt) {
+        return paymentRepository.save(Payment.builder()
+                .transactionId(transactionId)
+                .amount(Money.parse("10.00"))
+                .status(status)
+                .createdAt(updatedAt)
+                .updatedAt(updatedAt)
+                .build());
+    }
+
+    private static Payment copyOf(Payment payment, PaymentStatus status, long version) {
+        return Payment.builder()
+                .id(payment.getId())
+                .transactionId(payment.getTransactionId())
+                .amount(payment.getAmount())
+                .status(status)
+                .createdAt(payment.getCreatedAt())
+                .updatedAt(payment.getUpdatedAt())
+                .version(version)
+                .build();
+    }
+}
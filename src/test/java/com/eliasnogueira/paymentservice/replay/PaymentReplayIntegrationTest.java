@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.replay;
+
+import com.eliasnogueira.paymentservice.config.ReplayConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays a {@link MockConsumer} standing in for {@code payment-events} into the real database.
+ */
+@SpringBootTest
+@ActiveProfiles("${spring.profiles.active}")
+class PaymentReplayIntegrationTest {
+
+    private static final String TOPIC = "payment-events";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+    private static final Instant EARLIER = Payment.now().minus(Duration.ofHours(1));
+    private static final Instant LATER = Payment.now();
+
+    @TempDir
+    Path snapshotDir;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ReplayConfig config;
+    private PaymentUpserter upserter;
+    private PaymentSnapshotStore snapshotStore;
+    private MockConsumer<String, PaymentEvent> consumer;
+    private PaymentEventReplayer replayer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        paymentRepository.deleteAll();
+
+        config = new ReplayConfig();
+        config.setEnabled(true);
+        config.setSnapshotDir(snapshotDir);
+        config.setPollTimeout(Duration.ofMillis(10));
+        upserter = new PaymentUpserter(entityManagerFactory);
+        snapshotStore = new PaymentSnapshotStore(config, objectMapper, entityManagerFactory);
+
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(TOPIC, List.of(
+                new PartitionInfo(TOPIC, 0, null, null, null),
+                new PartitionInfo(TOPIC, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+        ConsumerFactory<String, PaymentEvent> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer(anyString(), isNull(), isNull(), any(Properties.class))).thenReturn(consumer);
+        replayer = new PaymentEventReplayer(config, consumerFactory, upserter, snapshotStore);
+    }
+
+    @Test
+    @DisplayName("Should restore a snapshot as written and keep only the latest snapshots")
+    void shouldRoundTripSnapshotsAndKeepLatest() throws Exception {
+        var first = payment("txn_snapshot_1", PENDING, EARLIER);
+        var second = payment("txn_snapshot_2", PAID, LATER);
+        upserter.upsert(List.of(first, second));
+
+        for (long offset = 1; offset <= 3; offset++) {
+            snapshotStore.write(Map.of(0, offset, 1, offset * 10));
+            Thread.sleep(2); // snapshot files are named by creation time, in milliseconds
+        }
+        paymentRepository.deleteAll();
+
+        try (var files = Files.list(snapshotDir)) {
+            assertThat(files.toList()).hasSize(2);
+        }
+        var snapshot = snapshotStore.latest().orElseThrow();
+        assertThat(snapshot.offsets()).isEqualTo(Map.of(0, 3L, 1, 30L));
+
+        var restored = new ArrayList<Payment>();
+        assertThat(snapshotStore.restore(snapshot, 1, restored::addAll)).isEqualTo(2);
+        assertThat(restored).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    @DisplayName("Should restore the latest snapshot and read each partition from the snapshot's offset on")
+    void shouldResumeFromSnapshotOffsets() throws Exception {
+        var snapshotted = payment("txn_snapshotted", PAID, LATER);
+        upserter.upsert(List.of(snapshotted));
+        snapshotStore.write(Map.of(0, 2L, 1, 1L));
+        paymentRepository.deleteAll();
+
+        var beforeSnapshot = payment("txn_before_snapshot", PENDING, EARLIER);
+        var afterSnapshot = payment("txn_after_snapshot", PENDING, LATER);
+        var otherPartition = payment("txn_other_partition", PENDING, LATER);
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 3L, PARTITION_1, 2L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, beforeSnapshot));
+            consumer.addRecord(record(PARTITION_0, 1, beforeSnapshot));
+            consumer.addRecord(record(PARTITION_0, 2, afterSnapshot));
+            consumer.addRecord(record(PARTITION_1, 0, beforeSnapshot));
+            consumer.addRecord(record(PARTITION_1, 1, otherPartition));
+        });
+
+        var report = replayer.replay();
+
+        assertThat(report.events()).isEqualTo(2);
+        assertThat(paymentRepository.findAll()).extracting(Payment::getTransactionId)
+                .containsExactlyInAnyOrder("txn_snapshotted", "txn_after_snapshot", "txn_other_partition");
+    }
+
+    @Test
+    @DisplayName("Should start each partition at its own configured offset")
+    void shouldStartPartitionsAtConfiguredOffsets() throws Exception {
+        config.setFromOffsets(Map.of(1, 1L));
+        var skipped = payment("txn_skipped", PENDING, EARLIER);
+        var replayed = payment("txn_replayed", PENDING, LATER);
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 1L, PARTITION_1, 2L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 0, replayed));
+            consumer.addRecord(record(PARTITION_1, 0, skipped));
+            consumer.addRecord(record(PARTITION_1, 1, replayed));
+        });
+
+        var report = replayer.replay();
+
+        assertThat(report.events()).isEqualTo(2);
+        assertThat(report.payments()).isEqualTo(1);
+        assertThat(paymentRepository.findAll()).extracting(Payment::getTransactionId).containsExactly("txn_replayed");
+    }
+
+    @Test
+    @DisplayName("Should keep the newest state when events arrive out of order, and count each payment once")
+    void shouldUpsertOutOfOrderEventsIdempotently() throws Exception {
+        var id = UUID.randomUUID();
+        var paid = payment(id, "txn_out_of_order", PAID, LATER);
+        var pending = payment(id, "txn_out_of_order", PENDING, EARLIER);
+        paid.setVersion(1);
+        consumer.updateEndOffsets(Map.of(PARTITION_0, 3L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> consumer.addRecord(record(PARTITION_0, 0, paid)));
+        // a redriven dead letter: older state, published later
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(PARTITION_0, 1, pending));
+            consumer.addRecord(record(PARTITION_0, 2, paid));
+        });
+
+        var report = replayer.replay();
+        upserter.upsert(List.of(pending));
+        upserter.upsert(List.of(paid));
+
+        assertThat(report.events()).isEqualTo(3);
+        assertThat(report.payments()).isEqualTo(1);
+        assertThat(paymentRepository.findAll()).singleElement().satisfies(payment -> {
+            assertThat(payment.getStatus()).isEqualTo(PAID);
+            assertThat(payment.getUpdatedAt()).isEqualTo(LATER);
+            assertThat(payment.getVersion()).isEqualTo(1);
+        });
+    }
+
+    private static Payment payment(String transactionId, PaymentStatus status, Instant updatedAt) {
+        return payment(UUID.randomUUID(), transactionId, status, updatedAt);
+    }
+
+    private static Payment payment(UUID id, String transactionId, PaymentStatus status, Instant updatedAt) {
+        return Payment.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .amount(Money.of(10_000))
+                .status(status)
+                .createdAt(EARLIER)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static ConsumerRecord<String, PaymentEvent> record(TopicPartition partition, long offset, Payment payment) {
+        return new ConsumerRecord<>(TOPIC, partition.partition(), offset, payment.getId().toString(),
+                new PaymentEvent(payment.getUpdatedAt(), PaymentEvent.EventType.UPDATED, payment));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.representation;
+
+import com.eliasnogueira.paymentservice.dto.PaymentResponse;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.github.luben.zstd.ZstdInputStream;
+import com.google.protobuf.CodedInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "payment.compression.min-response-size=1KB")
+@AutoConfigureMockMvc
+@ActiveProfiles("${spring.profiles.active}")
+class RepresentationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        for (int i = 0; i < 50; i++) {
+            payment = paymentRepository.save(Payment.builder().transactionId("txn_representation_" + i)
+                    .amount(Money.parse("10.50")).status(PENDING).build());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep JSON for callers accepting anything and tag CBOR with its own ETag")
+    void shouldNegotiateFormat() throws Exception {
+        var jsonETag = mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()).accept("*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(ETAG);
+
+        var response = mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()).accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_CBOR))
+                .andExpect(header().string(ETAG, jsonETag.substring(0, jsonETag.length() - 1) + "-cbor\""))
+                .andReturn().getResponse();
+
+        var decoded = new ObjectMapper(new CBORFactory()).readValue(response.getContentAsByteArray(), PaymentResponse.class);
+        assertThat(decoded.getTransactionId()).isEqualTo(payment.getTransactionId());
+        assertThat(decoded.getAmount()).isEqualTo(Money.parse("10.50"));
+
+        var cborETag = response.getHeader(ETAG);
+        mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()).accept(APPLICATION_CBOR)
+                        .header(IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, cborETag));
+
+        // a CBOR tag does not validate the JSON representation
+        mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()).accept(APPLICATION_JSON)
+                        .header(IF_NONE_MATCH, cborETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, jsonETag));
+    }
+
+    @Test
+    @DisplayName("Should not validate another format with the JSON ETag")
+    void shouldNotValidateOtherFormatWithJsonETag() throws Exception {
+        var jsonETag = mockMvc.perform(get("/api/payments").accept(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ETAG);
+
+        mockMvc.perform(get("/api/payments").accept(APPLICATION_CBOR).header(IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_CBOR))
+                .andExpect(header().string(ETAG, jsonETag.substring(0, jsonETag.length() - 1) + "-cbor\""));
+
+        mockMvc.perform(get("/api/payments/{paymentId}", payment.getId())
+                        .accept(PaymentProtobufHttpMessageConverter.PROTOBUF + ", application/json;q=0.5")
+                        .header(IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, endsWith("-pb\"")));
+
+        // JSON preferred over CBOR still revalidates the JSON tag
+        mockMvc.perform(get("/api/payments").accept("application/cbor;q=0.5, application/json")
+                        .header(IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, jsonETag));
+    }
+
+    @Test
+    @DisplayName("Should send the list as compressed protobuf and revalidate it")
+    void shouldCompressProtobufList() throws Exception {
+        var response = mockMvc.perform(get("/api/payments").accept(PaymentProtobufHttpMessageConverter.PROTOBUF)
+                        .header(ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(ETAG, endsWith("-pb-gzip\"")))
+                .andReturn().getResponse();
+
+        try (var body = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            var payments = PaymentProtobufCodec.readList(CodedInputStream.newInstance(body));
+            assertThat(payments).hasSize(50);
+            assertThat(payments).extracting(PaymentResponse::getId).contains(payment.getId());
+        }
+
+        mockMvc.perform(get("/api/payments").accept(PaymentProtobufHttpMessageConverter.PROTOBUF)
+                        .header(ACCEPT_ENCODING, "gzip").header(IF_NONE_MATCH, response.getHeader(ETAG)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, response.getHeader(ETAG)));
+    }
+
+    @Test
+    @DisplayName("Should prefer zstd and leave small bodies uncompressed")
+    void shouldPreferZstd() throws Exception {
+        var response = mockMvc.perform(get("/api/payments").header(ACCEPT_ENCODING, "gzip, zstd"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CONTENT_ENCODING, "zstd"))
+                .andReturn().getResponse();
+        try (var body = new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new ObjectMapper().readTree(body)).hasSize(50);
+        }
+
+        mockMvc.perform(get("/api/payments/{paymentId}", payment.getId()).header(ACCEPT_ENCODING, "zstd"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CONTENT_ENCODING))
+                .andExpect(header().string(ETAG, not(endsWith("-zstd\""))));
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.routing;
+
+import com.eliasnogueira.paymentservice.config.AdmissionControlConfig;
+import com.eliasnogueira.paymentservice.config.ReplicaConfig;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingTest {
+
+    private FlakyDataSource replica1;
+    private ReplicaDataSource replicas;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        var primary = database("primary");
+        replica1 = new FlakyDataSource(database("replica1"));
+        var replicaDataSources = new LinkedHashMap<String, DataSource>();
+        replicaDataSources.put("replica0", database("replica0"));
+        replicaDataSources.put("replica1", replica1);
+        replicas = new ReplicaDataSource(primary, replicaDataSources, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        var routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicas);
+        jdbc = new JdbcTemplate(routing);
+        var transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("Should spread read-only transactions over the replicas")
+    void shouldSendReadsToReplicas() {
+        assertThat(nodes(readOnly, 6)).containsOnly("replica0", "replica1").contains("replica0", "replica1");
+    }
+
+    @Test
+    @DisplayName("Should keep read-write transactions on the primary")
+    void shouldSendWritesToPrimary() {
+        assertThat(nodes(readWrite, 3)).containsOnly("primary");
+    }
+
+    @Test
+    @DisplayName("Should send the reads of a pinned request to the primary")
+    void shouldSendPinnedReadsToPrimary() {
+        PrimaryPin.pin();
+        try {
+            assertThat(nodes(readOnly, 3)).containsOnly("primary");
+        } finally {
+            PrimaryPin.release();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop routing reads to a replica that is down until it recovers")
+    void shouldRouteAroundDownReplica() {
+        replica1.down = true;
+        // the read that finds the replica down falls back to the primary
+        assertThat(nodes(readOnly, 4)).containsOnly("replica0", "primary");
+        assertThat(replicas.healthyReplicas()).isEqualTo(1);
+        assertThat(nodes(readOnly, 4)).containsOnly("replica0");
+
+        replica1.down = false;
+        replicas.checkHealth();
+        assertThat(replicas.healthyReplicas()).isEqualTo(2);
+        assertThat(nodes(readOnly, 4)).contains("replica1");
+    }
+
+    @Test
+    @DisplayName("Should send reads to the primary when no replica is healthy")
+    void shouldFallBackToPrimary() {
+        var onlyReplica = new FlakyDataSource(database("replica"));
+        var single = new LinkedHashMap<String, DataSource>();
+        single.put("replica", onlyReplica);
+        var primary = database("primary");
+        var replicaDataSource = new ReplicaDataSource(primary, single, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        var routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicaDataSource);
+        jdbc = new JdbcTemplate(routing);
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        readOnly.setReadOnly(true);
+
+        onlyReplica.down = true;
+        replicaDataSource.checkHealth();
+
+        assertThat(replicaDataSource.healthyReplicas()).isZero();
+        assertThat(nodes(readOnly, 2)).containsOnly("primary");
+    }
+
+    @Test
+    @DisplayName("Should pin a client to the primary right after it wrote")
+    void shouldPinClientAfterWrite() throws Exception {
+        var admission = new AdmissionControlConfig();
+        admission.getClients().setTrustIdHeader(true);
+        var filter = new PrimaryPinFilter(new ReplicaConfig(), admission);
+
+        assertThat(pinnedDuring(filter, "GET", "client-a", null)).isFalse();
+        assertThat(pinnedDuring(filter, "POST", "client-a", null)).isFalse();
+        assertThat(pinnedDuring(filter, "GET", "client-a", null)).isTrue();
+        assertThat(pinnedDuring(filter, "GET", "client-b", null)).isFalse();
+        assertThat(pinnedDuring(filter, "GET", "client-b", "strong")).isTrue();
+        assertThat(PrimaryPin.isPinned()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should key pins like admission control and keep only the most recently seen clients")
+    void shouldBoundPinnedClients() throws Exception {
+        var replicas = new ReplicaConfig();
+        replicas.setMaxPinnedClients(2);
+        var filter = new PrimaryPinFilter(replicas, new AdmissionControlConfig());
+
+        // the header is not trusted, so every request from this address is the same client
+        pinnedDuring(filter, "POST", "client-a", null);
+        assertThat(pinnedDuring(filter, "GET", "client-b", null)).isTrue();
+
+        var admission = new AdmissionControlConfig();
+        admission.getClients().setTrustIdHeader(true);
+        filter = new PrimaryPinFilter(replicas, admission);
+        pinnedDuring(filter, "POST", "client-a", null);
+        pinnedDuring(filter, "POST", "client-b", null);
+        pinnedDuring(filter, "POST", "client-c", null);
+        assertThat(pinnedDuring(filter, "GET", "client-a", null)).isFalse();
+        assertThat(pinnedDuring(filter, "GET", "client-c", null)).isTrue();
+    }
+
+    private List<String> nodes(TransactionTemplate transaction, int reads) {
+        var nodes = new ArrayList<String>();
+        for (int i = 0; i < reads; i++) {
+            nodes.add(transaction.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class)));
+        }
+        return nodes;
+    }
+
+    private static boolean pinnedDuring(PrimaryPinFilter filter, String method, String clientId, String consistency)
+            throws Exception {
+        var request = new MockHttpServletRequest(method, "/api/payments");
+        request.addHeader("X-Client-Id", clientId);
+        if (consistency != null) request.addHeader("X-Consistency", consistency);
+        var pinned = new boolean[1];
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> pinned[0] = PrimaryPin.isPinned());
+        return pinned[0];
+    }
+
+    private static DataSource database(String node) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + node + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", node);
+        return dataSource;
+    }
+
+    private static final class FlakyDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        private FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLException("Replica unreachable");
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.settlement;
+
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.eliasnogueira.paymentservice.model.enums.PaymentStatus;
+import com.eliasnogueira.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.FRAUD;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("${spring.profiles.active}")
+// nothing listens there, so the fraud check fails and the payment is flagged as fraud
+@TestPropertySource(properties = {"fraud.check.url=http://localhost:1/api/fraud", "payment.settlement.batch-size=2"})
+class SettlementIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @BeforeEach
+    void cleanDatabase() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should report the outcome of every payment of a settlement, in request order")
+    void shouldReportEveryOutcome() throws Exception {
+        var pending = save("txn_settle_1", PENDING);
+        var alreadyPaid = save("txn_settle_2", PAID);
+        var missing = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/settlements").contentType(APPLICATION_JSON)
+                        .content(body(PAID, pending.getId(), alreadyPaid.getId(), missing, pending.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(3)))
+                .andExpect(jsonPath("$.outcomes", hasSize(3)))
+                .andExpect(jsonPath("$.outcomes[0].result", is("FRAUD")))
+                .andExpect(jsonPath("$.outcomes[0].status", is("FRAUD")))
+                .andExpect(jsonPath("$.outcomes[1].result", is("UNCHANGED")))
+                .andExpect(jsonPath("$.outcomes[2].result", is("NOT_FOUND")))
+                .andExpect(jsonPath("$.totals.FRAUD", is(1)))
+                .andExpect(jsonPath("$.totals.UPDATED", is(0)));
+
+        assertThat(paymentRepository.findById(pending.getId())).hasValueSatisfying(payment ->
+                assertThat(payment.getStatus()).isEqualTo(FRAUD));
+    }
+
+    @Test
+    @DisplayName("Should move payments to a status that needs no fraud check across several batches")
+    void shouldUpdateAcrossBatches() throws Exception {
+        var first = save("txn_settle_3", PENDING);
+        var second = save("txn_settle_4", PENDING);
+        var third = save("txn_settle_5", PAID);
+
+        mockMvc.perform(post("/api/settlements").contentType(APPLICATION_JSON)
+                        .content(body(PENDING, first.getId(), second.getId(), third.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totals.UNCHANGED", is(2)))
+                .andExpect(jsonPath("$.totals.UPDATED", is(1)))
+                .andExpect(jsonPath("$.outcomes[2].status", is("PENDING")));
+
+        assertThat(paymentRepository.findAll()).allSatisfy(payment ->
+                assertThat(payment.getStatus()).isEqualTo(PENDING));
+    }
+
+    @Test
+    @DisplayName("Should reject a settlement without payments")
+    void shouldRejectEmptySettlement() throws Exception {
+        mockMvc.perform(post("/api/settlements").contentType(APPLICATION_JSON)
+                        .content("{\"paymentIds\": [], \"status\": \"PAID\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Payment save(String transactionId, PaymentStatus status) {
+        return paymentRepository.save(Payment.builder().transactionId(transactionId)
+                .amount(Money.parse("10.00")).status(status).build());
+    }
+
+    private static String body(PaymentStatus status, UUID... paymentIds) {
+        var ids = new StringBuilder();
+        for (var id : paymentIds) ids.append(ids.isEmpty() ? "" : ", ").append('"').append(id).append('"');
+        return "{\"paymentIds\": [" + ids + "], \"status\": \"" + status + "\"}";
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.sharding;
+
+import com.eliasnogueira.paymentservice.config.ShardingConfig;
+import com.eliasnogueira.paymentservice.dto.ShardStatus;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PAID;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedPaymentRepositoryTest {
+
+    private final String run = UUID.randomUUID().toString();
+    private final List<ShardedPaymentRepository> opened = new ArrayList<>();
+    private ShardingConfig config;
+    private ShardedPaymentRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        config = new ShardingConfig();
+        config.setIndex(database("index"));
+        for (int shard = 0; shard < 3; shard++) {
+            config.getShards().add(database("shard-" + shard));
+        }
+        config.setBuckets(16);
+        config.setMapRefreshInterval(Duration.ofMillis(50));
+        config.setPageSize(7);
+        config.setCopyBatchSize(5);
+        repository = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(ShardedPaymentRepository::destroy);
+    }
+
+    @Test
+    @DisplayName("Should save, update and delete payments on the shard of their bucket")
+    void shouldSaveUpdateAndDelete() {
+        var payment = repository.save(payment("txn_1"));
+        assertThat(payment.getVersion()).isZero();
+        int owner = repository.shardMap().ownerOf(repository.shardMap().bucketOf(payment.getId()));
+
+        assertThat(repository.shard(owner).queryForObject("SELECT COUNT(*) FROM payments WHERE id = ?", Integer.class,
+                payment.getId().toString())).isEqualTo(1);
+
+        payment.setStatus(PAID);
+        repository.save(payment);
+        var found = repository.findById(payment.getId()).orElseThrow();
+        assertThat(found.getStatus()).isEqualTo(PAID);
+        assertThat(found.getAmount()).isEqualTo(Money.parse("10.50"));
+        assertThat(found.getCreatedAt()).isNotNull();
+        assertThat(found.getVersion()).isEqualTo(1);
+        assertThat(repository.count()).isEqualTo(1);
+
+        repository.deleteById(payment.getId());
+        assertThat(repository.findById(payment.getId())).isEmpty();
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject a transaction ID already used on any shard")
+    void shouldEnforceGlobalTransactionIdUniqueness() {
+        for (int i = 0; i < 20; i++) {
+            repository.save(payment("txn_" + i));
+        }
+
+        // random IDs land on every shard, so one of these attempts crosses shards
+        for (int i = 0; i < 20; i++) {
+            int attempt = i;
+            assertThatThrownBy(() -> repository.save(payment("txn_" + attempt)))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        }
+        assertThat(repository.count()).isEqualTo(20);
+
+        // deleting a payment frees its transaction ID
+        var first = repository.findAll().stream()
+                .filter(payment -> payment.getTransactionId().equals("txn_0")).findFirst().orElseThrow();
+        repository.deleteById(first.getId());
+        repository.save(payment("txn_0"));
+        assertThat(repository.count()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should take over a transaction ID claimed by a payment that never reached its shard")
+    void shouldTakeOverOrphanClaim() {
+        repository.index().update(
+                "INSERT INTO payment_transaction_ids (transaction_id, payment_id, claimed_at) VALUES (?, ?, ?)",
+                "txn_orphan", UUID.randomUUID().toString(), Timestamp.from(Instant.now().minus(Duration.ofHours(1))));
+
+        var payment = repository.save(payment("txn_orphan"));
+
+        assertThat(repository.findById(payment.getId())).isPresent();
+        assertThatThrownBy(() -> repository.save(payment("txn_orphan")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Should list every payment once, in ID order, across shards and pages")
+    void shouldScatterGatherInIdOrder() {
+        var ids = new ArrayList<String>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(repository.save(payment("txn_" + i)).getId().toString());
+        }
+        ids.sort(null);
+
+        var listed = new ArrayList<String>();
+        String cursor = null;
+        List<Payment> page;
+        do {
+            page = repository.findPage(cursor, 6);
+            page.forEach(payment -> listed.add(payment.getId().toString()));
+            if (!page.isEmpty()) cursor = page.getLast().getId().toString();
+        } while (page.size() == 6);
+
+        assertThat(listed).containsExactlyElementsOf(ids);
+        assertThat(repository.findAll()).extracting(payment -> payment.getId().toString()).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("Should move buckets to a new shard while payments keep being written and read")
+    void shouldReshardOnline() throws Exception {
+        var saved = new ArrayList<UUID>();
+        for (int i = 0; i < 100; i++) {
+            saved.add(repository.save(payment("txn_before_" + i)).getId());
+        }
+
+        config.getShards().add(database("shard-3"));
+        repository = open();
+        var rebalancer = new ShardRebalancer(repository);
+
+        var stop = new AtomicBoolean();
+        var written = new ArrayList<UUID>();
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; !stop.get(); i++) {
+                    var payment = repository.save(payment("txn_during_" + i));
+                    written.add(payment.getId());
+                    assertThat(repository.findById(saved.get(i % saved.size()))).isPresent();
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+
+            assertThat(rebalancer.rebalance()).isEqualTo(4);
+            stop.set(true);
+            writer.get();
+        }
+
+        assertThat(rebalancer.status()).extracting(ShardStatus::buckets).containsExactly(4, 4, 4, 4);
+        assertThat(rebalancer.status().getLast().payments()).isPositive();
+        for (var id : saved) {
+            assertThat(repository.findById(id)).isPresent();
+        }
+        for (var id : written) {
+            assertThat(repository.findById(id)).isPresent();
+        }
+        assertThat(repository.count()).isEqualTo(saved.size() + written.size());
+        assertThat(repository.findAll()).hasSize(saved.size() + written.size());
+        // nothing left behind on the shards the buckets came from
+        long rows = 0;
+        for (int shard = 0; shard < 4; shard++) {
+            rows += repository.shard(shard).queryForObject("SELECT COUNT(*) FROM payments", Long.class);
+        }
+        assertThat(rows).isEqualTo(saved.size() + written.size());
+    }
+
+    private ShardedPaymentRepository open() {
+        var opened = new ShardedPaymentRepository(config);
+        this.opened.add(opened);
+        return opened;
+    }
+
+    private ShardingConfig.Database database(String name) {
+        var database = new ShardingConfig.Database();
+        database.setUrl("jdbc:h2:mem:" + name + "-" + run + ";DB_CLOSE_DELAY=-1");
+        database.setUsername("sa");
+        database.setMaximumPoolSize(4);
+        return database;
+    }
+
+    private static Payment payment(String transactionId) {
+        return Payment.builder().transactionId(transactionId).amount(Money.parse("10.50")).status(PENDING).build();
+    }
+}
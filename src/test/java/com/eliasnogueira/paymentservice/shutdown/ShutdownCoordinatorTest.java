@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.shutdown;
+
+import com.eliasnogueira.paymentservice.config.ShutdownConfig;
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.events.PaymentKafkaProducer;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShutdownCoordinatorTest {
+
+    private ShutdownConfig config;
+    private InFlightRequestFilter filter;
+    private KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private MessageListenerContainer container;
+    private ShutdownCoordinator coordinator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        config = new ShutdownConfig();
+        config.setReadinessDelay(Duration.ZERO);
+        filter = new InFlightRequestFilter(new PaymentMetrics(new SimpleMeterRegistry()));
+        kafkaTemplate = mock(KafkaTemplate.class);
+
+        container = mock(MessageListenerContainer.class);
+        when(container.isRunning()).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(container).stop(any(Runnable.class));
+        var registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        ObjectProvider<KafkaListenerEndpointRegistry> listeners = mock(ObjectProvider.class);
+        when(listeners.getIfAvailable()).thenReturn(registry);
+
+        var metrics = new PaymentMetrics(new SimpleMeterRegistry());
+        var producer = new PaymentKafkaProducer(kafkaTemplate, mock(ObjectProvider.class), new SpoolConfig(), metrics);
+        coordinator = new ShutdownCoordinator(config, filter, producer, listeners, mock(ApplicationEventPublisher.class));
+        coordinator.start();
+    }
+
+    @Test
+    @DisplayName("Should let in-flight requests complete while refusing new ones, then flush and stop consuming")
+    void shouldDrainInFlightRequests() throws Exception {
+        var release = new CountDownLatch(1);
+        var request = Thread.ofVirtual().start(() -> call((req, res) -> block(release)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> filter.inFlight() == 1);
+
+        var shutdown = Thread.ofVirtual().start(coordinator::stop);
+        await().atMost(Duration.ofSeconds(5)).until(filter::isDraining);
+
+        var refused = call(new MockFilterChain());
+        assertThat(refused.getStatus()).isEqualTo(503);
+        assertThat(refused.getHeader("Connection")).isEqualTo("close");
+        assertThat(shutdown.isAlive()).isTrue();
+
+        release.countDown();
+        request.join(Duration.ofSeconds(5));
+        shutdown.join(Duration.ofSeconds(5));
+
+        var report = coordinator.getLastReport();
+        assertThat(report.requestsDrained()).isEqualTo(1);
+        assertThat(report.requestsAbandoned()).isZero();
+        assertThat(report.requestsRefused()).isEqualTo(1);
+        assertThat(report.consumersStopped()).isEqualTo(1);
+        assertThat(report.clean()).isTrue();
+        verify(kafkaTemplate).flush();
+        verify(container).stop(any(Runnable.class));
+        assertThat(coordinator.isRunning()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should report a request still running at the deadline as abandoned and carry on")
+    void shouldAbandonRequestsAtDeadline() {
+        config.setRequestTimeout(Duration.ofMillis(100));
+        var release = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> call((req, res) -> block(release)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> filter.inFlight() == 1);
+
+        coordinator.stop();
+        release.countDown();
+
+        var report = coordinator.getLastReport();
+        assertThat(report.requestsAbandoned()).isEqualTo(1);
+        assertThat(report.producerFlushed()).isTrue();
+        assertThat(report.consumersStopped()).isEqualTo(1);
+        assertThat(report.clean()).isFalse();
+    }
+
+    private MockHttpServletResponse call(FilterChain chain) {
+        var response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("PUT", "/api/payments/1"), response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static void block(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.shutdown;
+
+import com.eliasnogueira.paymentservice.PaymentServiceApplication;
+import com.eliasnogueira.paymentservice.archive.PaymentArchiver;
+import com.eliasnogueira.paymentservice.dedup.EventWatermarkStore;
+import com.eliasnogueira.paymentservice.history.PaymentHistoryStore;
+import com.eliasnogueira.paymentservice.spool.SpoolDrainer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts and closes a whole application context of its own, since the order of a real shutdown is what is tested.
+ */
+class ShutdownOrderIntegrationTest {
+
+    private static final List<Class<? extends SmartLifecycle>> BACKGROUND_WRITERS =
+            List.of(PaymentHistoryStore.class, EventWatermarkStore.class, SpoolDrainer.class, PaymentArchiver.class);
+
+    @Test
+    @DisplayName("Should stop the background writers only after the drain completed")
+    void shouldStopBackgroundWritersAfterDrain() {
+        var context = new SpringApplicationBuilder(PaymentServiceApplication.class, DrainProbe.class)
+                .properties("server.port=0", "payment.archive.enabled=true", "payment.shutdown.readiness-delay=0s")
+                .run();
+        var writers = writers(context);
+        var coordinator = context.getBean(ShutdownCoordinator.class);
+        var probe = context.getBean(DrainProbe.class);
+        assertThat(writers).isNotEmpty().allMatch(SmartLifecycle::isRunning);
+
+        context.close();
+
+        assertThat(probe.drainedBeforeStop).isTrue();
+        assertThat(probe.runningAfterDrain).hasSize(writers.size()).allSatisfy((name, running) ->
+                assertThat(running).as("%s running after the drain", name).isTrue());
+        assertThat(coordinator.getLastReport()).isNotNull();
+        assertThat(writers).noneMatch(SmartLifecycle::isRunning);
+    }
+
+    private static List<SmartLifecycle> writers(ApplicationContext context) {
+        return BACKGROUND_WRITERS.stream()
+                .<SmartLifecycle>flatMap(type -> context.getBeanProvider(type).stream())
+                .toList();
+    }
+
+    /**
+     * Stopped right after the coordinator, it records which background writers are still running at that point.
+     */
+    static class DrainProbe implements SmartLifecycle {
+
+        private final Map<String, Boolean> runningAfterDrain = new ConcurrentHashMap<>();
+        private volatile boolean drainedBeforeStop;
+        private volatile boolean running;
+
+        @Autowired
+        private ApplicationContext context;
+
+        @Override
+        public void start() {
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            drainedBeforeStop = context.getBean(ShutdownCoordinator.class).getLastReport() != null;
+            writers(context).forEach(writer ->
+                    runningAfterDrain.put(writer.getClass().getSimpleName(), writer.isRunning()));
+            running = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            return Integer.MAX_VALUE - 1;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.spool;
+
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentEventSpoolTest {
+
+    @TempDir
+    Path dir;
+
+    private SpoolConfig config;
+    private PaymentEventSpool spool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = SpoolWriterProcess.config(dir);
+        spool = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        spool.destroy();
+    }
+
+    @Test
+    @DisplayName("Should return spooled events in order and resume after the committed cursor on restart")
+    void shouldResumeAfterCommittedCursor() throws Exception {
+        for (long sequence = 1; sequence <= 1_000; sequence++) {
+            spool.append(SpoolWriterProcess.event(sequence));
+        }
+
+        var batch = spool.peek(400);
+        assertThat(transactionIds(batch)).startsWith("txn_1", "txn_2").endsWith("txn_400");
+        spool.commit(batch.getLast().nextPosition(), batch.size());
+        assertThat(spool.pending()).isEqualTo(600);
+
+        spool.destroy();
+        spool = open();
+
+        assertThat(spool.pending()).isEqualTo(600);
+        assertThat(transactionIds(spool.peek(1))).containsExactly("txn_401");
+    }
+
+    @Test
+    @DisplayName("Should drain the spool to Kafka in order, keeping what failed for the next attempt")
+    @SuppressWarnings("unchecked")
+    void shouldDrainInOrderAndKeepFailures() throws Exception {
+        for (long sequence = 1; sequence <= 5; sequence++) {
+            spool.append(SpoolWriterProcess.event(sequence));
+        }
+        KafkaTemplate<String, PaymentEvent> kafkaTemplate = mock(KafkaTemplate.class);
+        var sent = new ArrayList<String>();
+        when(kafkaTemplate.send(eq("payment-events"), anyString(), any(PaymentEvent.class))).thenAnswer(invocation -> {
+            PaymentEvent event = invocation.getArgument(2);
+            if (event.getPayment().getTransactionId().equals("txn_4") && sent.size() < 4) {
+                sent.add("failed");
+                return CompletableFuture.failedFuture(new NetworkException("broker down"));
+            }
+            sent.add(event.getPayment().getTransactionId());
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+        var drainer = new SpoolDrainer(spool, kafkaTemplate, config, new PaymentMetrics(new SimpleMeterRegistry()));
+
+        assertThat(drainer.drainOnce()).isFalse();
+        assertThat(transactionIds(spool.peek(10))).containsExactly("txn_4", "txn_5");
+
+        assertThat(drainer.drainOnce()).isTrue();
+        assertThat(spool.hasBacklog()).isFalse();
+        assertThat(sent).containsExactly("txn_1", "txn_2", "txn_3", "failed", "txn_5", "txn_4", "txn_5");
+    }
+
+    @Test
+    @DisplayName("Should skip a spooled event Kafka always rejects and keep draining the ones behind it")
+    @SuppressWarnings("unchecked")
+    void shouldSkipEventKafkaAlwaysRejects() throws Exception {
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            spool.append(SpoolWriterProcess.event(sequence));
+        }
+        KafkaTemplate<String, PaymentEvent> kafkaTemplate = mock(KafkaTemplate.class);
+        var sent = new ArrayList<String>();
+        when(kafkaTemplate.send(eq("payment-events"), anyString(), any(PaymentEvent.class))).thenAnswer(invocation -> {
+            PaymentEvent event = invocation.getArgument(2);
+            if (event.getPayment().getTransactionId().equals("txn_1")) {
+                return CompletableFuture.failedFuture(new RecordTooLargeException("too large"));
+            }
+            sent.add(event.getPayment().getTransactionId());
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+        var registry = new SimpleMeterRegistry();
+        var drainer = new SpoolDrainer(spool, kafkaTemplate, config, new PaymentMetrics(registry));
+
+        assertThat(drainer.drainOnce()).isTrue();
+        assertThat(spool.hasBacklog()).isFalse();
+        assertThat(sent).containsExactly("txn_2", "txn_3");
+        assertThat(registry.get("payment.spool.dead").counter().count()).isEqualTo(1);
+        assertThat(registry.get("payment.spool.drained").counter().count()).isEqualTo(2);
+
+        spool.append(SpoolWriterProcess.event(4));
+        assertThat(drainer.drainOnce()).isTrue();
+        assertThat(sent).containsExactly("txn_2", "txn_3", "txn_4");
+    }
+
+    @Test
+    @DisplayName("Should keep every acknowledged event when the process is killed mid-write")
+    void shouldSurviveProcessKill() throws Exception {
+        spool.destroy();
+        var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SpoolWriterProcess.class.getName(), dir.toString())
+                .redirectErrorStream(true)
+                .start();
+
+        long acknowledged = 0;
+        try (var output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (!line.chars().allMatch(Character::isDigit)) continue;
+                acknowledged = Long.parseLong(line);
+                if (acknowledged == 20_000) process.destroyForcibly();
+            }
+        }
+        process.waitFor();
+
+        spool = open();
+        var events = spool.peek(Integer.MAX_VALUE);
+        assertThat(events).hasSizeGreaterThanOrEqualTo((int) acknowledged);
+        for (int i = 0; i < events.size(); i++) {
+            assertThat(events.get(i).event().getPayment().getTransactionId()).isEqualTo("txn_" + (i + 1));
+        }
+
+        spool.append(SpoolWriterProcess.event(events.size() + 1));
+        assertThat(spool.pending()).isEqualTo(events.size() + 1);
+    }
+
+    private PaymentEventSpool open() throws Exception {
+        return new PaymentEventSpool(config, SpoolWriterProcess.objectMapper(),
+                new PaymentMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static List<String> transactionIds(List<PaymentEventSpool.SpooledEvent> events) {
+        return events.stream().map(spooled -> spooled.event().getPayment().getTransactionId()).toList();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentservice.spool;
+
+import com.eliasnogueira.paymentservice.config.SpoolConfig;
+import com.eliasnogueira.paymentservice.events.PaymentEvent;
+import com.eliasnogueira.paymentservice.metrics.PaymentMetrics;
+import com.eliasnogueira.paymentservice.model.Money;
+import com.eliasnogueira.paymentservice.model.Payment;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+import static com.eliasnogueira.paymentservice.events.PaymentEvent.EventType.CREATED;
+import static com.eliasnogueira.paymentservice.model.enums.PaymentStatus.PENDING;
+
+/**
+ * Spools events forever, printing the sequence number of each one once {@code append} returned, until it is killed.
+ */
+public class SpoolWriterProcess {
+
+    public static void main(String[] args) throws Exception {
+        var spool = new PaymentEventSpool(config(Path.of(args[0])), objectMapper(),
+                new PaymentMetrics(new SimpleMeterRegistry()));
+        for (long sequence = 1; ; sequence++) {
+            spool.append(event(sequence));
+            System.out.println(sequence);
+        }
+    }
+
+    static SpoolConfig config(Path dir) {
+        var config = new SpoolConfig();
+        config.setDir(dir);
+        config.setSegmentSize(DataSize.ofKilobytes(64));
+        return config;
+    }
+
+    static JsonMapper objectMapper() {
+        return JsonMapper.builder().findAndAddModules().build();
+    }
+
+    static PaymentEvent event(long sequence) {
+        var payment = Payment.builder().id(UUID.randomUUID()).transactionId("txn_" + sequence)
+                .amount(Money.of(sequence)).status(PENDING).build();
+        return new PaymentEvent(Instant.now(), CREATED, payment);
+    }
+}